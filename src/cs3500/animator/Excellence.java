@@ -1,11 +1,25 @@
 package cs3500.animator;
 
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.awt.Dimension;
+import java.awt.GraphicsEnvironment;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.StringReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 import javax.swing.JOptionPane;
 
@@ -14,20 +28,31 @@ import cs3500.animator.controller.IController;
 import cs3500.animator.model.AnimationBuilder;
 import cs3500.animator.model.AnimationModel;
 import cs3500.animator.model.AnimationReader;
+import cs3500.animator.model.BinaryAnimationFormat;
 import cs3500.animator.model.IAnimationModel;
 import cs3500.animator.model.IEditBuilder;
+import cs3500.animator.model.ILoadListener;
+import cs3500.animator.model.PagedAnimationModel;
+import cs3500.animator.view.CompactSVGAnimationView;
 import cs3500.animator.view.EditingView;
+import cs3500.animator.view.FramesView;
+import cs3500.animator.view.GIFView;
 import cs3500.animator.view.GUIAnimationView;
 import cs3500.animator.view.IEditableView;
-import cs3500.animator.view.ITextView;
-import cs3500.animator.view.IView;
+import cs3500.animator.view.RGBAStreamView;
 import cs3500.animator.view.SVGAnimationView;
 import cs3500.animator.view.TextView;
+import cs3500.animator.view.Y4MStreamView;
 
 /**
  * Represents the main class that creates and runs an animation based on the given file.
  */
 public final class Excellence {
+  private static final int FRAME_CACHE_SHAPES = 250000;
+  private static final int MOTIONS_PER_SNAPSHOT = 5000;
+  private static final int PAGE_CACHE_COMMANDS = 1000000;
+  private static final int SVG_BATCHES_PER_WORKER = 4;
+  private static final int GIF_PENDING_FRAMES = 8;
 
   /**
    * The main function that initializes the model and the view based on the given arguments and
@@ -36,16 +61,16 @@ public final class Excellence {
    */
   public static void main(String [] args) {
     AnimationBuilder builder = new AnimationModel.AnimationModelBuilder();
-    IEditBuilder editBuilder = new AnimationModel.AnimationModelBuilder();
+    // the editor loops and scrubs over the same ticks, so it keeps recently drawn frames around.
+    IEditBuilder editBuilder = new AnimationModel.AnimationModelBuilder()
+            .useFrameCache(FRAME_CACHE_SHAPES);
     IAnimationModel model;
-    ITextView textView;
     IEditableView editView;
     IController controller;
-    Readable in = new StringReader("");
+    Path in = null;
     int ticksPerSecond = 1;
     String viewType = "";
-    Appendable out = System.out;
-    FileWriter writer = null;
+    Path out = null;
 
     if (!(Arrays.stream(args).anyMatch("-in"::equals)
             && (Arrays.stream(args).anyMatch("-view"::equals)))) {
@@ -56,10 +81,10 @@ public final class Excellence {
 
       if (args[i].equals("-in")) {
         try {
-          in = new FileReader(args[i + 1]);
-        }
-        catch (FileNotFoundException e) {
-          popUpError("This file does not exist");
+          in = Paths.get(args[i + 1]);
+          if (!Files.isRegularFile(in)) {
+            popUpError("This file does not exist");
+          }
         }
         catch (IndexOutOfBoundsException e) {
           popUpError("There is no file specified");
@@ -77,10 +102,7 @@ public final class Excellence {
 
       if (args[i].equals("-out")) {
         try {
-          writer = new FileWriter(args[i + 1]);
-        }
-        catch (IOException e) {
-          popUpError("File couldn't be found or created");
+          out = Paths.get(args[i + 1]);
         }
         catch (IndexOutOfBoundsException e) {
           popUpError("There was no file specified");
@@ -107,41 +129,199 @@ public final class Excellence {
     }
 
     if (viewType.equals("edit")) {
-      AnimationReader.parseFile(in, editBuilder);
+      readFile(in, editBuilder);
       editView = new EditingView(ticksPerSecond);
       controller = new Controller(editBuilder, editView, ticksPerSecond);
       controller.start();
       return;
     }
 
-    model = AnimationReader.parseFile(in, builder);
+    if (viewType.equals("visual")) {
+      if (isBinary(in)) {
+        new GUIAnimationView(openPaged(in), ticksPerSecond).play();
+        return;
+      }
+      try {
+        AnimationReader.parseFileInBackground(in, builder, MOTIONS_PER_SNAPSHOT,
+                new LoadingPlayer(ticksPerSecond));
+      }
+      catch (IOException e) {
+        popUpError("This file could not be read");
+      }
+      return;
+    }
+
+    model = readFile(in, builder);
 
     switch (viewType) {
-      //“text”, “svg”, or “visual”
+      //“text”, “svg”, “compact-svg”, “frames”, “gif”, “rgba”, “y4m” or “binary”
+      case "binary":
+        writeBinary(model, out);
+        return;
       case "text":
-        textView = new TextView(model);
-        break;
+        writeText(out, writer -> new TextView(model, writer).play());
+        return;
       case "svg":
-        textView = new SVGAnimationView(model, ticksPerSecond);
-        break;
-      case "visual":
-        IView view = new GUIAnimationView(model, ticksPerSecond);
-        view.play();
+        writeSVG(model, ticksPerSecond, out, false);
+        return;
+      case "compact-svg":
+        writeSVG(model, ticksPerSecond, out, true);
+        return;
+      case "frames":
+        writeFrames(model, out);
+        return;
+      case "gif":
+        writeGIF(model, ticksPerSecond, out);
+        return;
+      case "rgba":
+        writeStream(model, ticksPerSecond, out, false);
+        return;
+      case "y4m":
+        writeStream(model, ticksPerSecond, out, true);
         return;
       default:
         popUpError("no valid view type given");
         return;
     }
+  }
 
-    textView.play();
+  // hands the given view a buffered writer over the given file, or over standard out if there is
+  // no file, to stream its text to.
+  private static void writeText(Path out, Consumer<Writer> view) {
+    try {
+      if (out == null) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(System.out));
+        view.accept(writer);
+        writer.flush();
+        return;
+      }
+      try (Writer writer = Files.newBufferedWriter(out)) {
+        view.accept(writer);
+      }
+    }
+    catch (IOException e) {
+      popUpError("There was an issue writing the output");
+    }
+  }
 
+  // streams the animation as SVG to the given file, or to standard out if there is no file,
+  // either as the SVG view writes it or in the compact form.
+  private static void writeSVG(IAnimationModel model, int ticksPerSecond, Path out,
+                               boolean compact) {
+    writeText(out, writer -> playSVG(newSVGView(model, ticksPerSecond, writer, compact)));
+  }
+
+  // plays an SVG view, building the shapes across the common pool when it has more than one
+  // worker.
+  private static void playSVG(SVGAnimationView view) {
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    if (pool.getParallelism() > 1) {
+      view.play(pool, SVG_BATCHES_PER_WORKER * pool.getParallelism());
+    }
+    else {
+      view.play();
+    }
+  }
+
+  // creates an SVG view that writes to the given writer.
+  private static SVGAnimationView newSVGView(IAnimationModel model, int ticksPerSecond,
+                                            Writer writer, boolean compact) {
+    if (compact) {
+      return new CompactSVGAnimationView(model, ticksPerSecond, writer);
+    }
+    return new SVGAnimationView(model, ticksPerSecond, writer);
+  }
+
+  // renders every tick of the animation into a numbered PNG image in the given directory, one
+  // frame per available processor at a time.
+  private static void writeFrames(IAnimationModel model, Path out) {
+    if (out == null) {
+      popUpError("The frames view needs a directory to write to");
+    }
+    int workers = Runtime.getRuntime().availableProcessors();
+    ExecutorService executor = Executors.newFixedThreadPool(workers);
+    try {
+      new FramesView(model, out, executor, workers).play();
+    }
+    catch (IllegalStateException e) {
+      popUpError("There was an issue writing the frames: " + e.getMessage());
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  // writes the animation as an animated GIF to the given file, or to standard out if there is no
+  // file, drawing the frames on another thread while this one encodes them.
+  private static void writeGIF(IAnimationModel model, int ticksPerSecond, Path out) {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
     try {
-      if (writer != null) {
-        writer.append(textView.getText());
-        writer.close();
+      if (out == null) {
+        OutputStream stream = new BufferedOutputStream(System.out);
+        new GIFView(model, ticksPerSecond, stream, executor, GIF_PENDING_FRAMES).play();
+        stream.flush();
+        return;
       }
-      else {
-        out.append(textView.getText());
+      try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(out))) {
+        new GIFView(model, ticksPerSecond, stream, executor, GIF_PENDING_FRAMES).play();
+      }
+    }
+    catch (IOException | IllegalStateException e) {
+      popUpError("There was an issue writing the output");
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  // streams every tick of the animation as an uncompressed frame to the given file, or to
+  // standard out if there is no file, either as raw RGBA or as YUV4MPEG2. Each frame is drawn in
+  // tiles on one worker per available processor.
+  private static void writeStream(IAnimationModel model, int ticksPerSecond, Path out,
+                                  boolean y4m) {
+    int workers = Runtime.getRuntime().availableProcessors();
+    ExecutorService executor = Executors.newFixedThreadPool(workers);
+    try {
+      if (out == null) {
+        newStreamView(model, ticksPerSecond, Channels.newChannel(System.out), y4m, executor,
+                workers).play();
+        System.out.flush();
+        return;
+      }
+      try (WritableByteChannel channel = FileChannel.open(out, StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        newStreamView(model, ticksPerSecond, channel, y4m, executor, workers).play();
+      }
+    }
+    catch (IOException | IllegalStateException e) {
+      popUpError("There was an issue writing the output");
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  // creates a view that streams frames to the given channel.
+  private static RGBAStreamView newStreamView(IAnimationModel model, int ticksPerSecond,
+                                              WritableByteChannel channel, boolean y4m,
+                                              ExecutorService executor, int workers) {
+    if (y4m) {
+      return new Y4MStreamView(model, ticksPerSecond, channel, executor, workers);
+    }
+    return new RGBAStreamView(model, ticksPerSecond, channel, executor, workers);
+  }
+
+  // writes the animation in the binary format to the given file, or to standard out if there is
+  // no file.
+  private static void writeBinary(IAnimationModel model, Path out) {
+    try {
+      if (out == null) {
+        BinaryAnimationFormat.write(model, System.out);
+        System.out.flush();
+        return;
+      }
+      try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(out))) {
+        BinaryAnimationFormat.write(model, stream);
       }
     }
     catch (IOException e) {
@@ -149,8 +329,90 @@ public final class Excellence {
     }
   }
 
+  // opens a binary animation that is paged in from the file as it plays.
+  private static IAnimationModel openPaged(Path file) {
+    try {
+      return PagedAnimationModel.open(file, PAGE_CACHE_COMMANDS);
+    }
+    catch (IOException e) {
+      popUpError("This file could not be read");
+      return null;
+    }
+  }
+
+  // checks if the given file is a binary animation rather than text.
+  private static boolean isBinary(Path file) {
+    try {
+      return BinaryAnimationFormat.isBinary(file);
+    }
+    catch (IOException e) {
+      popUpError("This file could not be read");
+      return false;
+    }
+  }
+
+  // reads the animation in the given file into the builder, either from the binary format or
+  // from text, splitting text files of more than a few megabytes across the common pool.
+  private static IAnimationModel readFile(Path file, AnimationBuilder builder) {
+    try {
+      if (BinaryAnimationFormat.isBinary(file)) {
+        return BinaryAnimationFormat.read(file, builder);
+      }
+      return AnimationReader.parseFile(file, builder, ForkJoinPool.commonPool(), 1 << 20);
+    }
+    catch (IOException e) {
+      popUpError("This file could not be read");
+      return null;
+    }
+  }
+
+  // shows the error in a dialog, or on standard error when there is no display, and exits.
   private static void popUpError(String message) {
+    if (GraphicsEnvironment.isHeadless()) {
+      System.err.println(message);
+      System.exit(1);
+    }
     JOptionPane.showMessageDialog(null, message, "Error running the Animation", 0);
     System.exit(1);
   }
+
+  /**
+   * Plays an animation in a visual view while the rest of its file is still being read. The view
+   * opens as soon as the first part of the animation has loaded, and each newer part is handed
+   * to it as it arrives.
+   */
+  private static final class LoadingPlayer implements ILoadListener {
+    private final int ticksPerSecond;
+    private GUIAnimationView view;
+
+    private LoadingPlayer(int ticksPerSecond) {
+      this.ticksPerSecond = ticksPerSecond;
+    }
+
+    @Override
+    public void snapshotLoaded(IAnimationModel model, Dimension neededSpace) {
+      this.show(model, neededSpace, true);
+    }
+
+    @Override
+    public void loadFinished(IAnimationModel model, Dimension neededSpace) {
+      this.show(model, neededSpace, false);
+    }
+
+    @Override
+    public void loadFailed(RuntimeException error) {
+      popUpError("This file could not be read: " + error.getMessage());
+    }
+
+    // opens the view on the first part of the animation, or updates it with a newer part.
+    private void show(IAnimationModel model, Dimension neededSpace, boolean loading) {
+      if (this.view == null) {
+        this.view = new GUIAnimationView(model, this.ticksPerSecond, loading);
+        this.view.play();
+      }
+      else {
+        this.view.update(model, neededSpace, loading);
+      }
+    }
+  }
 }
\ No newline at end of file
@@ -4,8 +4,10 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -16,16 +18,16 @@ import java.util.TimerTask;
 
 import cs3500.animator.model.IAnimationModel;
 import cs3500.animator.model.IEditBuilder;
+import cs3500.animator.model.IPlaybackCursor;
 import cs3500.animator.model.IReadOnlyRotateCommand;
-import cs3500.animator.model.IReadOnlyShape;
 import cs3500.animator.model.SuperMasterCommand;
 import cs3500.animator.view.IEditableView;
 import cs3500.animator.view.IFrameChangeEvent;
 import cs3500.animator.view.IFrameChangeListener;
 import cs3500.animator.view.IShapeChangeEvent;
 import cs3500.animator.view.IShapeChangeListener;
-import cs3500.animator.view.ITextView;
 import cs3500.animator.view.SVGAnimationView;
+import cs3500.animator.view.SVGFragmentCache;
 
 import static java.util.Objects.requireNonNull;
 
@@ -44,6 +46,8 @@ public class Controller implements IController, ActionListener, IFrameChangeList
   private int currentTick;
   private boolean isPaused = true;
   private boolean isLooping = false;
+  private volatile IAnimationModel latest;
+  private final SVGFragmentCache exportCache = new SVGFragmentCache();
 
   /**
    * Constructor for the controller that takes an Animation builder, a view, and a tick speed
@@ -86,7 +90,13 @@ public class Controller implements IController, ActionListener, IFrameChangeList
    */
   @Override
   public void keyframeChanged(IFrameChangeEvent event) {
-    List<IReadOnlyRotateCommand> commands = builder.getCommands().get(event.getId());
+    this.changeKeyframe(event);
+    this.publish();
+  }
+
+  // adds, edits or removes the keyframe described by the event.
+  private void changeKeyframe(IFrameChangeEvent event) {
+    List<IReadOnlyRotateCommand> commands = builder.getCommands(event.getId());
     if (event.getTime() < 0) {
       view.displayError("Keyframes can only be added at a non-negative tick");
       return;
@@ -363,9 +373,27 @@ public class Controller implements IController, ActionListener, IFrameChangeList
    */
   @Override
   public void shapeChanged(IShapeChangeEvent event) {
+    this.changeShape(event);
+    this.publish();
+  }
+
+  // publishes the builder's current model so that a running animation switches to it on its next
+  // frame. A model cannot be built while a new shape has no keyframes yet, in which case the
+  // animation keeps playing the last version that could be built.
+  private void publish() {
+    try {
+      this.latest = this.builder.build();
+    }
+    catch (IllegalStateException e) {
+      // keep the last model.
+    }
+  }
+
+  // adds or removes the shape described by the event.
+  private void changeShape(IShapeChangeEvent event) {
     switch (event.getChangeType()) {
       case ADD:
-        if (builder.getShapes().get(event.getId()) != null) {
+        if (builder.getShape(event.getId()) != null) {
           view.displayError("Shape already exists with this id");
           return;
         }
@@ -379,7 +407,7 @@ public class Controller implements IController, ActionListener, IFrameChangeList
         }
         return;
       case DELETE:
-        if (builder.getShapes().get(event.getId()) == null) {
+        if (builder.getShape(event.getId()) == null) {
           view.displayError("This shape cannot be deleted as the id does not exist");
           return;
         }
@@ -451,12 +479,10 @@ public class Controller implements IController, ActionListener, IFrameChangeList
         }
         return;
       case "export":
-        ITextView svg = new SVGAnimationView(builder.build(), ticksPerSecond);
-        svg.play();
-        try {
-          FileWriter writer = new FileWriter("./inputs/" + event.getNewValue().toString() + ".svg");
-          writer.append(svg.getText());
-          writer.close();
+        try (Writer writer = Files.newBufferedWriter(
+                Paths.get("./inputs/" + event.getNewValue().toString() + ".svg"))) {
+          new SVGAnimationView(builder.build(), ticksPerSecond, writer)
+                  .play(this.exportCache, this.builder);
         }
         catch (IOException e) {
           view.displayError("Error occurred when trying to create a file.");
@@ -493,14 +519,16 @@ public class Controller implements IController, ActionListener, IFrameChangeList
    * A {@link TimerTask} that updates this visual view at each tick of the animation.
    */
   private class DrawFrameTask extends TimerTask {
-    private final int finalTick;
-    private final IAnimationModel model;
+    private IAnimationModel model;
+    private int finalTick;
+    private IPlaybackCursor cursor;
 
-    // takes a final tick at which to stop the animation.
+    // takes the model to play, which is swapped for a newer one whenever the animation is edited.
     private DrawFrameTask(IAnimationModel model) {
       super();
-      this.finalTick = model.getFinalTick();
       this.model = model;
+      this.finalTick = model.getFinalTick();
+      this.cursor = model.cursor(currentTick);
     }
 
     /**
@@ -511,6 +539,12 @@ public class Controller implements IController, ActionListener, IFrameChangeList
      */
     @Override
     public void run() {
+      IAnimationModel edited = latest;
+      if (edited != null && edited != this.model) {
+        this.model = edited;
+        this.finalTick = edited.getFinalTick();
+        this.cursor = edited.cursor(currentTick);
+      }
       if (isPaused) {
         timer.cancel();
       }
@@ -523,8 +557,12 @@ public class Controller implements IController, ActionListener, IFrameChangeList
           isPaused = true;
         }
       }
-      List<IReadOnlyShape> shapesAtTick = this.model.getState(currentTick);
-      view.display(shapesAtTick);
+      // the slider, restart and looping all move the current tick, so the cursor only walks
+      // forward on its own when nothing else has moved it.
+      if (this.cursor.getTick() != currentTick) {
+        this.cursor.seek(currentTick);
+      }
+      view.display(this.cursor.advance());
       view.setSlider((double) currentTick / (double) (finalTick - firstTick));
       currentTick++;
     }
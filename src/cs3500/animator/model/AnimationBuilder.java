@@ -102,4 +102,20 @@ public interface AnimationBuilder {
    */
   AnimationBuilder addKeyframe(String name,
                                     int t, int x, int y, int w, int h, int r, int g, int b);
+
+  /**
+   * Tells the builder that a whole document of motions is about to be added, so it may skip
+   * checking each motion as it arrives. The motions are sorted and checked all at once the next
+   * time the builder needs them, at the latest when {@link #build} is called, and motions that
+   * overlap or teleport are reported with the same messages as when they are checked one at a
+   * time. The check is stricter, though: every pair of neighbouring motions of a shape is checked
+   * once they are sorted, whereas one at a time a motion is only checked against the one before
+   * where it is put, so a motion that comes earlier in time than every motion before it in the
+   * file, leaving a gap before the next one, is rejected here but was let through before.
+   * Builders that check nothing up front need not do anything, which is the default.
+   * @return This {@link AnimationBuilder}
+   */
+  default AnimationBuilder startBulkLoad() {
+    return this;
+  }
 }
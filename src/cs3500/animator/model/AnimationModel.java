@@ -3,102 +3,197 @@ package cs3500.animator.model;
 import java.awt.Dimension;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 
 /**
  * Represents an animation, with a list of shapes that represents the shapes on the screen, as
  * well as the commands, that represents the actions of each shape that happens at different times
- * during the animation.
+ * during the animation. A model is an immutable snapshot of its builder: editing the builder
+ * afterwards does not change a model that was already built.
  */
 public class AnimationModel implements IAnimationModel {
-  private final LinkedHashMap<String, List<IRotateCommand>> commands;
-  private final LinkedHashMap<String, IShape> shapes;
+  private final PersistentMap<List<IRotateCommand>> commands;
+  private final PersistentMap<IShape> shapes;
   private final int x;
   private final int y;
   private final int width;
   private final int height;
+  private final FrameCache cache;
+  private final ParallelSampler sampler;
+  private final Map<String, IReadOnlyShape> shapeView;
+  private final Map<String, List<IReadOnlyRotateCommand>> commandView;
+  private volatile Lifetimes lifetimes;
 
 
   /**
    * A private constructor for Animation model to allow for only our builder to create new models.
-   * This allows us to
-   * @param commands is a LinkedHashmap that connects an ID of a shape, to all of the commands
+   * The maps are immutable and may share most of their structure with the builder's later
+   * versions of them.
+   * @param commands is a map that connects an ID of a shape, to all of the commands
    *                 that are lined up for that shape. All of the commands associated to an ID are
-   *                 placed in a list in time order.
-   * @param shapes is a LinkedHashMap that connects an ID to each shape, to ensure that ID's are
+   *                 placed in an unmodifiable list in time order.
+   * @param shapes is a map that connects an ID to each shape, to ensure that ID's are
    *               unique and associated one-to-one with shapes.
+   * @param cache is the cache of frames for this version of the animation, or null if frames
+   *              should be recomputed on every call to getState.
+   * @param sampler splits the shapes of large frames across threads.
    */
-  private AnimationModel(LinkedHashMap<String, List<IRotateCommand>> commands,
-                         LinkedHashMap<String, IShape> shapes,
-                         int x, int y, int width, int height) {
+  private AnimationModel(PersistentMap<List<IRotateCommand>> commands,
+                         PersistentMap<IShape> shapes,
+                         int x, int y, int width, int height, FrameCache cache,
+                         ParallelSampler sampler) {
     this.commands = commands;
     this.shapes = shapes;
     this.x = x;
     this.y = y;
     this.width = width;
     this.height = height;
+    this.cache = cache;
+    this.sampler = sampler;
+    this.shapeView = Collections.unmodifiableMap(shapes);
+    this.commandView = new ReadOnlyCommandMap(commands);
   }
 
   /**
-   * Gets the list of shapes at a certain time. It runs through each of the commands that occur
-   * before the given time and runs the animation up until the time, to get the state of the
-   * animation at the given time. It also converts the shapes into IReadOnlyShapes so that
-   * when it gets passed to the user that the setters are hidden from access.
+   * Gets the list of shapes at a certain time. It finds the command each shape is running at the
+   * given time and builds a new shape in the state that command leaves it in, so the shapes stored
+   * in the model are never changed by sampling. It also converts the shapes into IReadOnlyShapes
+   * so that when it gets passed to the user that the setters are hidden from access.
    * @param time int that represents the time in ticks that the method will return the state of
    *             the animation at.
-   * @return the list of IReadOnlyShapes that have been changed based on the commands of the model,
-   *         up until the given time. This list of shapes will be the current state of the
-   *         animation at the given int time.
+   * @return an unmodifiable list of IReadOnlyShapes that make up the state of the animation at
+   *         the given int time. Nothing holds on to these shapes but the list, so a frame can be
+   *         handed to another thread and read while later frames are being computed. If this
+   *         model has a frame cache, the same list is shared by every call asking for that tick.
    */
   @Override
   public List<IReadOnlyShape> getState(int time) {
-    List<IReadOnlyShape> output = new ArrayList<>();
-    for (Map.Entry<String, List<IRotateCommand>> entry : this.commands.entrySet()) {
-      String id = entry.getKey();
-      IShape shape = this.shapes.get(id);
+    if (this.cache == null) {
+      return this.computeState(time);
+    }
+    List<IReadOnlyShape> frame = this.cache.get(time);
+    if (frame == null) {
+      frame = this.cache.put(time, this.computeState(time));
+    }
+    return frame;
+  }
 
-      int index = indexOfCommand(this.commands.get(id), time);
-      if (index == -1) {
-        continue;
-      }
-      if (time <= this.commands.get(id).get(index).getEndTime()) {
-        this.commands.get(id).get(index).setState(time, shape);
-      }
-      else { // no command for the current time.
-        continue;
+  @Override
+  public void getState(int time, FrameBuffer frame) {
+    Lifetimes lifetimes = this.getLifetimes();
+    frame.resize(lifetimes.shapes.length);
+    for (int slot = 0; slot < lifetimes.shapes.length; slot++) {
+      frame.setShapeType(slot, lifetimes.shapes[slot].getShapeType());
+    }
+
+    int[] alive = frame.scratch();
+    int count = lifetimes.index.query(time, alive);
+    if (this.sampler.shouldSplit(count)) {
+      this.sampler.forEach(alive, count, slot -> this.sample(lifetimes, slot, time, frame));
+    }
+    else {
+      for (int i = 0; i < count; i++) {
+        this.sample(lifetimes, alive[i], time, frame);
       }
-      double newX = shape.getPosition().getX() - this.x;
-      double newY = shape.getPosition().getY() - this.y;
-      shape.setPosition(new Point2D.Double(newX, newY));
-      output.add(shape);
     }
-    return output;
   }
 
-  @Override
-  public LinkedHashMap<String, IReadOnlyShape> getShapes() {
-    LinkedHashMap<String, IReadOnlyShape> output = new LinkedHashMap<>();
-    for (String key : shapes.keySet()) {
-      output.put(key, shapes.get(key));
+  // writes the state of the shape in the given slot into the frame, if it is running a command at
+  // the given time.
+  private void sample(Lifetimes lifetimes, int slot, int time, FrameBuffer frame) {
+    List<IRotateCommand> list = lifetimes.commands.get(slot);
+    int index = indexOfCommand(list, time);
+    if (index != -1 && time <= list.get(index).getEndTime()) {
+      list.get(index).setState(time, frame, slot);
+      frame.translate(slot, -this.x, -this.y);
     }
-    return output;
   }
 
   @Override
-  public LinkedHashMap<String, List<IReadOnlyRotateCommand>> getCommands() {
-    LinkedHashMap<String, List<IReadOnlyRotateCommand>> output = new LinkedHashMap<>();
-    for (String key : this.commands.keySet()) {
-      List<IReadOnlyRotateCommand> newCommands = new ArrayList<>();
-      for (IReadOnlyRotateCommand command : this.commands.get(key)) {
-        newCommands.add(command);
+  public IPlaybackCursor cursor(int startTick) {
+    return new PlaybackCursor(new Timeline(this.getLifetimes()), startTick);
+  }
+
+  // builds a new shape for each shape that is running a command at the given time, in the order
+  // they were declared. Only the shapes the lifetime index reports as alive at that time are
+  // looked at. Large frames build their shapes in parallel, then add them to the output in slot
+  // order once every shape is done.
+  private List<IReadOnlyShape> computeState(int time) {
+    Lifetimes lifetimes = this.getLifetimes();
+    int[] alive = new int[lifetimes.shapes.length];
+    int count = lifetimes.index.query(time, alive);
+    List<IReadOnlyShape> output = new ArrayList<>(count);
+    if (this.sampler.shouldSplit(count)) {
+      IShape[] snapshots = new IShape[lifetimes.shapes.length];
+      this.sampler.forEach(alive, count,
+              slot -> snapshots[slot] = this.snapshot(lifetimes, slot, time));
+      for (int i = 0; i < count; i++) {
+        if (snapshots[alive[i]] != null) {
+          output.add(snapshots[alive[i]]);
+        }
       }
-      output.put(key, newCommands);
     }
-    return output;
+    else {
+      for (int i = 0; i < count; i++) {
+        IShape shape = this.snapshot(lifetimes, alive[i], time);
+        if (shape != null) {
+          output.add(shape);
+        }
+      }
+    }
+    return Collections.unmodifiableList(output);
+  }
+
+  // builds a copy of the shape in the given slot in its state at the given time, or returns null
+  // if it is not running a command at that time.
+  private IShape snapshot(Lifetimes lifetimes, int slot, int time) {
+    List<IRotateCommand> list = lifetimes.commands.get(slot);
+    int index = indexOfCommand(list, time);
+    if (index == -1 || time > list.get(index).getEndTime()) {
+      return null;
+    }
+    IShape shape = list.get(index).setState(time, lifetimes.shapes[slot].makeCopy());
+    shape.setPosition(new Point2D.Double(shape.getPosition().getX() - this.x,
+            shape.getPosition().getY() - this.y));
+    return shape;
+  }
+
+  // gets the lifetime index of this model's shapes, building it the first time it is needed.
+  // Two threads may both build it, which is harmless since they build the same thing.
+  private Lifetimes getLifetimes() {
+    Lifetimes lifetimes = this.lifetimes;
+    if (lifetimes == null) {
+      lifetimes = new Lifetimes(this.commands, this.shapes);
+      this.lifetimes = lifetimes;
+    }
+    return lifetimes;
+  }
+
+  @Override
+  public Map<String, IReadOnlyShape> getShapes() {
+    return this.shapeView;
+  }
+
+  @Override
+  public IReadOnlyShape getShape(String id) {
+    return this.shapes.get(id);
+  }
+
+  @Override
+  public Map<String, List<IReadOnlyRotateCommand>> getCommands() {
+    return this.commandView;
+  }
+
+  @Override
+  public List<IReadOnlyRotateCommand> getCommands(String id) {
+    return this.commandView.get(id);
   }
 
   @Override
@@ -178,7 +273,7 @@ public class AnimationModel implements IAnimationModel {
   public String toString() {
     StringBuilder output = new StringBuilder();
     for (Map.Entry<String, List<IRotateCommand>> entry : this.commands.entrySet()) {
-      IShape shape = this.shapes.get(entry.getKey());
+      IShape shape = this.shapes.get(entry.getKey()).makeCopy();
       output.append("Shape ").append(entry.getKey()).append(" ").append(shape.getShapeType())
               .append("\n");
       for (ICommand command : entry.getValue()) {
@@ -215,44 +310,192 @@ public class AnimationModel implements IAnimationModel {
     return temp.toString();
   }
 
+  /**
+   * The shapes of an animation in the order they were declared, along with an interval tree over
+   * the ticks each shape is alive. It is built the first time a model is sampled.
+   */
+  private static final class Lifetimes {
+    private final IShape[] shapes;
+    private final List<List<IRotateCommand>> commands;
+    private final ShapeIntervalIndex index;
+
+    private Lifetimes(Map<String, List<IRotateCommand>> commands, Map<String, IShape> shapes) {
+      this.shapes = new IShape[commands.size()];
+      this.commands = new ArrayList<>(commands.size());
+      int[] starts = new int[commands.size()];
+      int[] ends = new int[commands.size()];
+      int slot = 0;
+      for (Map.Entry<String, List<IRotateCommand>> entry : commands.entrySet()) {
+        List<IRotateCommand> list = entry.getValue();
+        this.shapes[slot] = shapes.get(entry.getKey());
+        this.commands.add(list);
+        if (list.isEmpty()) {
+          starts[slot] = 0;
+          ends[slot] = -1;
+        }
+        else {
+          starts[slot] = list.get(0).getStartTime();
+          ends[slot] = list.get(list.size() - 1).getEndTime();
+        }
+        slot++;
+      }
+      this.index = new ShapeIntervalIndex(starts, ends);
+    }
+  }
+
+  /**
+   * The commands of this model as seen by a playback cursor, sampled relative to its bounds.
+   */
+  private class Timeline implements ITimeline {
+    private final Lifetimes lifetimes;
+
+    private Timeline(Lifetimes lifetimes) {
+      this.lifetimes = lifetimes;
+    }
+
+    @Override
+    public int shapeCount() {
+      return this.lifetimes.shapes.length;
+    }
+
+    @Override
+    public String shapeType(int slot) {
+      return this.lifetimes.shapes[slot].getShapeType();
+    }
+
+    @Override
+    public int commandCount(int slot) {
+      return this.lifetimes.commands.get(slot).size();
+    }
+
+    @Override
+    public int startTime(int slot, int index) {
+      return this.lifetimes.commands.get(slot).get(index).getStartTime();
+    }
+
+    @Override
+    public int endTime(int slot, int index) {
+      return this.lifetimes.commands.get(slot).get(index).getEndTime();
+    }
+
+    @Override
+    public boolean isStill(int slot, int index) {
+      return this.lifetimes.commands.get(slot).get(index).getType().equals("Nothing");
+    }
+
+    @Override
+    public void sample(int slot, int index, int time, FrameBuffer frame) {
+      this.lifetimes.commands.get(slot).get(index).setState(time, frame, slot);
+      frame.translate(slot, -x, -y);
+    }
+  }
+
   /**
    * A Builder class for the AnimationModel. Allows the user to give a list of commands and shapes,
-   * and with those fields the builder creates the model.
+   * and with those fields the builder creates the model. The shapes and commands are kept in
+   * persistent maps, so an edit copies only the O(log n) map nodes it touches plus the command
+   * list of the shape it changes, and building a model just hands it the current maps. A command
+   * list is only copied the first time it changes after it was handed out: until then the builder
+   * owns it and adds commands to it in place, so filling a shape one motion at a time takes
+   * amortized constant time per motion.
    */
   public static class AnimationModelBuilder implements IEditBuilder {
-    private LinkedHashMap<String, List<IRotateCommand>> commands;
-    private LinkedHashMap<String, IShape> shapes;
+    private PersistentMap<List<IRotateCommand>> commands;
+    private PersistentMap<IShape> shapes;
     private int x = 0; //left most x
     private int y = 0; //top most y
     private int width = 1000;
     private int height = 600;
+    private FrameCache frameCache;
+    private int frameCacheShapes;
+    private ParallelSampler sampler = ParallelSampler.createDefault();
+    private AnimationModel snapshot;
+    private int shapesWithoutCommands;
+    private int commandsWithoutShape;
+    private LinkedHashMap<String, List<IRotateCommand>> bulkCommands;
+    // the command lists no model or caller has seen yet, by shape, which can be changed in place.
+    private final Map<String, List<IRotateCommand>> owned = new HashMap<>();
+    private final Map<String, Integer> versions = new HashMap<>();
+    private int edits;
 
 
     /**
      * Constructor for the AnimationModelBuilder that initializes the empty list of commands.
      */
     public AnimationModelBuilder() {
-      this.commands = new LinkedHashMap<>();
-      this.shapes = new LinkedHashMap<>();
+      this.commands = PersistentMap.empty();
+      this.shapes = PersistentMap.empty();
     }
 
     /**
-     * Constructs a model based on the commands and shapes currently stored by the builder.
+     * Constructs a model based on the commands and shapes currently stored by the builder. The
+     * model is an immutable snapshot, and building again without an edit in between returns the
+     * same model, so its lifetime index and cached frames are kept.
      */
     public IAnimationModel build() {
-
-      for (String key : this.shapes.keySet()) {
-        if (!this.commands.containsKey(key)) {
-          throw new IllegalStateException("A shape must contain commands");
-        }
+      this.finishBulkLoad();
+      if (this.shapesWithoutCommands > 0) {
+        throw new IllegalStateException("A shape must contain commands");
       }
-      for (String key : this.commands.keySet()) {
-        if (!this.shapes.containsKey(key)) {
-          throw new IllegalStateException("A command must have an associated shape");
-        }
+      if (this.commandsWithoutShape > 0) {
+        throw new IllegalStateException("A command must have an associated shape");
+      }
+      this.owned.clear();
+      if (this.snapshot == null) {
+        this.snapshot = new AnimationModel(this.commands, this.shapes, this.x, this.y,
+                this.width, this.height, this.frameCache, this.sampler);
+      }
+      return this.snapshot;
+    }
+
+    /**
+     * Puts a bounded frame cache in front of getState for every model this builder creates. Each
+     * version of the animation gets its own cache, which is replaced with an empty one whenever
+     * the builder is edited, so a model built before an edit never shares frames with one built
+     * after it.
+     * @param maxShapes the total number of shapes the cache may hold across all of its frames.
+     * @return this builder.
+     */
+    public AnimationModelBuilder useFrameCache(int maxShapes) {
+      this.frameCache = new FrameCache(maxShapes);
+      this.frameCacheShapes = maxShapes;
+      this.snapshot = null;
+      return this;
+    }
+
+    /**
+     * Sets how the models this builder creates sample frames with many shapes. A frame with at
+     * least the given number of live shapes is split into chunks that are sampled on the given
+     * pool, and the shapes are still returned in the order they were declared. Frames are always
+     * sampled on the calling thread if the pool has a single worker. By default the common pool
+     * is used with a threshold of 4096 shapes.
+     * @param pool the pool to sample large frames on.
+     * @param threshold the fewest live shapes a frame needs before it is sampled in parallel.
+     * @return this builder.
+     * @throws IllegalArgumentException if the pool is null or the threshold is not positive.
+     */
+    public AnimationModelBuilder useParallelSampling(ForkJoinPool pool, int threshold) {
+      this.sampler = new ParallelSampler(pool, threshold);
+      this.snapshot = null;
+      return this;
+    }
+
+    /**
+     * Gets the frame cache used by the models built since the last edit.
+     * @return the frame cache, or null if frames are not cached.
+     */
+    public FrameCache getFrameCache() {
+      return this.frameCache;
+    }
+
+    // forgets the last model built and starts a new frame cache, since they no longer match the
+    // animation after an edit. Models that were already built keep their own cache, and the cache
+    // is only replaced if a model could be holding on to it.
+    private void edited() {
+      if (this.frameCache != null && this.snapshot != null) {
+        this.frameCache = new FrameCache(this.frameCacheShapes);
       }
-      return new AnimationModel(this.commands, this.shapes, this.x, this.y,
-              this.width, this.height);
+      this.snapshot = null;
     }
 
     /**
@@ -273,6 +516,7 @@ public class AnimationModel implements IAnimationModel {
       this.y = y;
       this.width = width;
       this.height = height;
+      this.edited();
       return this;
     }
 
@@ -307,7 +551,15 @@ public class AnimationModel implements IAnimationModel {
       if (shape == null) {
         throw new IllegalArgumentException("Type is invalid");
       }
-      this.shapes.put(name, shape);
+      this.shapes = this.shapes.with(name, shape);
+      this.versions.put(name, ++this.edits);
+      if (this.commands.containsKey(name)) {
+        this.commandsWithoutShape--;
+      }
+      else {
+        this.shapesWithoutCommands++;
+      }
+      this.edited();
       return this;
     }
 
@@ -337,15 +589,11 @@ public class AnimationModel implements IAnimationModel {
     public AnimationBuilder addMotion(String name, int t1, int x1, int y1, int w1, int h1, int r1,
                                       int g1, int b1, int t2, int x2, int y2, int w2, int h2,
                                       int r2, int g2, int b2) {
-      String type = this.getType(x1, y1, w1, h1, r1, g1, b1, x2, y2, w2, h2, r2, g2, b2);
+      String type = getType(x1, y1, w1, h1, r1, g1, b1, x2, y2, w2, h2, r2, g2, b2);
       IRotateCommand command = new SuperMasterCommand(type, t1, x1, y1, w1, h1, 0, r1, g1, b1,
               t2, x2, y2, w2, h2, 0, r2, g2, b2);
-      if (this.commands.containsKey(name)) {
-        this.addIfValidCommand(name, this.commands.get(name), command,
-                indexOfCommand(this.commands.get(name), command.getStartTime()) + 1);
-      } else {
-        this.commands.put(name, new ArrayList<>(Arrays.asList(command)));
-      }
+      this.addCommand(name, command);
+      this.edited();
       return this;
     }
 
@@ -353,22 +601,114 @@ public class AnimationModel implements IAnimationModel {
     public AnimationBuilder addMotion(String name, int t1, int x1, int y1, int w1, int h1, int o1,
                                       int r1, int g1, int b1, int t2, int x2, int y2, int w2,
                                       int h2, int o2, int r2, int g2, int b2) {
-      String type = this.getType(x1, y1, w1, h1, o1, r1, g1, b1, x2, y2, w2, h2, o2, r2, g2, b2);
+      String type = getType(x1, y1, w1, h1, o1, r1, g1, b1, x2, y2, w2, h2, o2, r2, g2, b2);
       IRotateCommand command = new SuperMasterCommand(type, t1, x1, y1, w1, h1, o1, r1, g1, b1,
               t2, x2, y2, w2, h2, o2, r2, g2, b2);
-      if (this.commands.containsKey(name)) {
-        this.addIfValidCommand(name, this.commands.get(name), command,
-                indexOfCommand(this.commands.get(name), command.getStartTime()) + 1);
-      } else {
-        this.commands.put(name, new ArrayList<>(Arrays.asList(command)));
+      this.addCommand(name, command);
+      this.edited();
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder startBulkLoad() {
+      if (this.bulkCommands == null) {
+        this.bulkCommands = new LinkedHashMap<>();
       }
       return this;
     }
 
-    // returns a description of a motion based off what properties are changed while it runs.
-    private String getType(int x1, int y1, int w1, int h1, int o1, int r1, int g1, int b1,
-                           int x2, int y2, int w2, int h2, int o2, int r2, int g2, int b2) {
-      String description = this.getType(x1, y1, w1, h1, r1, g1, b1, x2, y2, w2, h2, r2, g2, b2);
+    // sorts the motions added since bulk loading started into the commands of their shapes, and
+    // checks each shape's commands in a single pass over them. Motions added one at a time are
+    // checked again after this.
+    private void finishBulkLoad() {
+      if (this.bulkCommands == null) {
+        return;
+      }
+      LinkedHashMap<String, List<IRotateCommand>> added = this.bulkCommands;
+      this.bulkCommands = null;
+      for (Map.Entry<String, List<IRotateCommand>> entry : added.entrySet()) {
+        List<IRotateCommand> list = entry.getValue();
+        List<IRotateCommand> existing = this.commands.get(entry.getKey());
+        if (existing == null) {
+          if (this.shapes.containsKey(entry.getKey())) {
+            this.shapesWithoutCommands--;
+          }
+          else {
+            this.commandsWithoutShape++;
+          }
+        }
+        else {
+          list.addAll(0, existing);
+        }
+        // the sort is stable, so commands starting at the same tick stay in the order they came.
+        list.sort(Comparator.comparingInt(ICommand::getStartTime));
+        for (int i = 1; i < list.size(); i++) {
+          checkContinues(list.get(i - 1), list.get(i));
+        }
+        this.commands = this.commands.with(entry.getKey(), Collections.unmodifiableList(list));
+        this.owned.put(entry.getKey(), list);
+        this.versions.put(entry.getKey(), ++this.edits);
+      }
+    }
+
+    // checks that the next command starts when the previous one ends, with the shape in the same
+    // state, giving the same errors as addIfValidCommand.
+    private static void checkContinues(IRotateCommand previous, IRotateCommand next) {
+      if (previous.getEndTime() != next.getStartTime()) {
+        throw new IllegalArgumentException("Commands must overlap at their start/end times");
+      }
+      // a command that starts and ends on the same tick puts the shape in its end state.
+      boolean instant = next.getStartTime() == next.getEndTime();
+      if (previous.getEndX() != (instant ? next.getEndX() : next.getStartX())
+              || previous.getEndY() != (instant ? next.getEndY() : next.getStartY())
+              || previous.getEndWidth() != (instant ? next.getEndWidth() : next.getStartWidth())
+              || previous.getEndHeight() != (instant ? next.getEndHeight() : next.getStartHeight())
+              || previous.getEndOrientation()
+                  != (instant ? next.getEndOrientation() : next.getStartOrientation())
+              || previous.getEndColor().getRGB()
+                  != (instant ? next.getEndColor() : next.getStartColor()).getRGB()) {
+        throw new IllegalArgumentException("There is an illegal teleportation here");
+      }
+    }
+
+    // adds the command to the commands of the shape with the given name. A list the builder still
+    // owns is added to in place; any other is copied into a new list the builder owns, so that
+    // models already built keep the old one. While bulk loading the command is just set aside to
+    // be checked later.
+    private void addCommand(String name, IRotateCommand command) {
+      if (this.bulkCommands != null) {
+        this.bulkCommands.computeIfAbsent(name, key -> new ArrayList<>()).add(command);
+        return;
+      }
+      List<IRotateCommand> list = this.commands.get(name);
+      int index = 0;
+      if (list == null) {
+        if (this.shapes.containsKey(name)) {
+          this.shapesWithoutCommands--;
+        }
+        else {
+          this.commandsWithoutShape++;
+        }
+      }
+      else {
+        index = indexOfCommand(list, command.getStartTime()) + 1;
+        this.checkFits(name, list, command, index);
+      }
+      List<IRotateCommand> own = this.owned.get(name);
+      if (own == null) {
+        own = list == null ? new ArrayList<>() : new ArrayList<>(list);
+        this.owned.put(name, own);
+        this.commands = this.commands.with(name, Collections.unmodifiableList(own));
+      }
+      own.add(index, command);
+      this.versions.put(name, ++this.edits);
+    }
+
+    // returns a description of a motion based off what properties are changed while it runs. Models
+    // that store commands as plain numbers use it to describe them the same way.
+    static String getType(int x1, int y1, int w1, int h1, int o1, int r1, int g1, int b1,
+                          int x2, int y2, int w2, int h2, int o2, int r2, int g2, int b2) {
+      String description = getType(x1, y1, w1, h1, r1, g1, b1, x2, y2, w2, h2, r2, g2, b2);
 
       if (o1 != o2) {
         if (description.equals("Nothing")) {
@@ -383,8 +723,8 @@ public class AnimationModel implements IAnimationModel {
     }
 
     // returns a description of a motion based off what properties are changed while it runs.
-    private String getType(int x1, int y1, int w1, int h1, int r1, int g1, int b1, int x2, int y2,
-                           int w2, int h2, int r2, int g2, int b2) {
+    private static String getType(int x1, int y1, int w1, int h1, int r1, int g1, int b1,
+                                  int x2, int y2, int w2, int h2, int r2, int g2, int b2) {
       String description = "";
 
       if (x1 != x2 || y1 != y2) {
@@ -410,15 +750,15 @@ public class AnimationModel implements IAnimationModel {
      * allowed to start at the tick that the previous command ends. The shape's state as it was left
      * before the command must also match the state at its start time (if the shape would be at (10,
      * 10) when the command started, the first tick of the command must place it at (10, 10)).
+     * The given list is left alone; this only throws if the command does not fit.
      */
-    private void addIfValidCommand(String id, List<IRotateCommand> list, IRotateCommand command,
-                                   int addIndex) {
+    private void checkFits(String id, List<IRotateCommand> list, IRotateCommand command,
+                           int addIndex) {
       int startTick = command.getStartTime();
       IShape shapeCopy1 = this.shapes.get(id).makeCopy();
       IShape shapeCopy2 = this.shapes.get(id).makeCopy();
 
       if (addIndex == 0) {
-        list.add(addIndex, command);
         return;
       }
 
@@ -430,14 +770,18 @@ public class AnimationModel implements IAnimationModel {
       if (previousCommand.getEndTime() != startTick) {
         throw new IllegalArgumentException("Commands must overlap at their start/end times");
       }
-      else if (this.shapesAreEqual(shapeCopy1, shapeCopy2)) {
-        list.add(addIndex, command);
-      }
-      else {
+      else if (!this.shapesAreEqual(shapeCopy1, shapeCopy2)) {
         throw new IllegalArgumentException("There is an illegal teleportation here");
       }
     }
 
+    // returns an unmodifiable copy of the list without the command at the given index.
+    private static List<IRotateCommand> removed(List<IRotateCommand> list, int index) {
+      List<IRotateCommand> output = new ArrayList<>(list);
+      output.remove(index);
+      return Collections.unmodifiableList(output);
+    }
+
     //Checks if the two given shapes are equal.
     private boolean shapesAreEqual(IShape shape1, IShape shape2) {
       return shape1.getShapeType().equals(shape2.getShapeType())
@@ -451,17 +795,25 @@ public class AnimationModel implements IAnimationModel {
 
     @Override
     public IEditBuilder removeCommand(String id, int time) {
-      if (commands.get(id) == null) {
+      this.finishBulkLoad();
+      List<IRotateCommand> list = this.commands.get(id);
+      if (list == null) {
         throw new IllegalArgumentException("No commands associated with this id");
       }
-      for (int i = 0; i < commands.get(id).size(); i++) {
-        if (time == commands.get(id).get(i).getStartTime()) {
-          commands.get(id).remove(i);
+      for (int i = 0; i < list.size(); i++) {
+        if (time == list.get(i).getStartTime()) {
+          this.commands = this.commands.with(id, removed(list, i));
+          this.owned.remove(id);
+          this.versions.put(id, ++this.edits);
+          this.edited();
           return this;
         }
       }
-      if (time == commands.get(id).get(commands.get(id).size() - 1).getEndTime()) {
-        commands.get(id).remove(commands.get(id).size() - 1);
+      if (time == list.get(list.size() - 1).getEndTime()) {
+        this.commands = this.commands.with(id, removed(list, list.size() - 1));
+        this.owned.remove(id);
+        this.versions.put(id, ++this.edits);
+        this.edited();
         return this;
       }
       throw new IllegalArgumentException("No commands at this time.");
@@ -471,34 +823,50 @@ public class AnimationModel implements IAnimationModel {
 
     @Override
     public IEditBuilder removeShape(String id) {
-      if (!shapes.containsKey(id)) {
+      this.finishBulkLoad();
+      if (!this.shapes.containsKey(id)) {
         throw new IllegalArgumentException("No shape exists with this ID");
       }
-      shapes.remove(id);
-      commands.remove(id);
+      if (!this.commands.containsKey(id)) {
+        this.shapesWithoutCommands--;
+      }
+      this.shapes = this.shapes.without(id);
+      this.commands = this.commands.without(id);
+      this.owned.remove(id);
+      this.versions.remove(id);
+      this.edited();
       return this;
     }
 
     @Override
-    public LinkedHashMap<String, IReadOnlyShape> getShapes() {
-      LinkedHashMap<String, IReadOnlyShape> output = new LinkedHashMap<>();
-      for (String key : shapes.keySet()) {
-        output.put(key, shapes.get(key));
-      }
-      return output;
+    public Map<String, IReadOnlyShape> getShapes() {
+      return Collections.unmodifiableMap(this.shapes);
     }
 
     @Override
-    public LinkedHashMap<String, List<IReadOnlyRotateCommand>> getCommands() {
-      LinkedHashMap<String, List<IReadOnlyRotateCommand>> output = new LinkedHashMap<>();
-      for (String key : this.commands.keySet()) {
-        List<IReadOnlyRotateCommand> newCommands = new ArrayList<>();
-        for (IRotateCommand command : this.commands.get(key)) {
-          newCommands.add(command);
-        }
-        output.put(key, newCommands);
-      }
-      return output;
+    public IReadOnlyShape getShape(String id) {
+      return this.shapes.get(id);
+    }
+
+    @Override
+    public Map<String, List<IReadOnlyRotateCommand>> getCommands() {
+      this.finishBulkLoad();
+      this.owned.clear();
+      return new ReadOnlyCommandMap(this.commands);
+    }
+
+    @Override
+    public List<IReadOnlyRotateCommand> getCommands(String id) {
+      this.finishBulkLoad();
+      this.owned.remove(id);
+      List<IRotateCommand> list = this.commands.get(id);
+      return list == null ? null : Collections.unmodifiableList(list);
+    }
+
+    @Override
+    public int getVersion(String id) {
+      this.finishBulkLoad();
+      return this.versions.getOrDefault(id, -1);
     }
 
     @Override
@@ -514,7 +882,9 @@ public class AnimationModel implements IAnimationModel {
       int maxX = this.x;
       int maxY = this.y;
 
-      for (List<IReadOnlyRotateCommand> commandList : this.getCommands().values()) {
+      this.finishBulkLoad();
+      for (List<IReadOnlyRotateCommand> commandList : new ReadOnlyCommandMap(this.commands)
+              .values()) {
         minX = Math.min(minX,
                 commandList.get(0).getStartX());
         minY = Math.min(minY,
@@ -1,7 +1,20 @@
 package cs3500.animator.model;
 
+import java.awt.Dimension;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.regex.Pattern;
 
 /**
@@ -25,6 +38,8 @@ public class AnimationReader {
    * eight numbers for the end of the motion.  See {@link AnimationBuilder#addMotion}</li>
    * </ul>
    * </p>
+   * The builder is told to {@link AnimationBuilder#startBulkLoad bulk load} the motions, so every
+   * pair of neighbouring motions of a shape must meet, even if the file lists them out of order.
    *
    * @param readable The source of data for the animation
    * @param builder  A builder for helping to construct a new animation
@@ -34,9 +49,179 @@ public class AnimationReader {
   public static IAnimationModel parseFile(Readable readable, AnimationBuilder builder) {
     Objects.requireNonNull(readable, "Must have non-null readable source");
     Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
-    Scanner s = new Scanner(readable);
+    Scanner scanner = new Scanner(readable);
     // Split at whitespace, and ignore # comment lines
-    s.useDelimiter(Pattern.compile("(\\p{Space}+|#.*)+")); 
+    scanner.useDelimiter(Pattern.compile("(\\p{Space}+|#.*)+"));
+    return parse(new ScannerTokenSource(scanner), builder);
+  }
+
+  /**
+   * Reads the animation in the given file the same way as
+   * {@link #parseFile(Readable, AnimationBuilder)}, giving the builder the same calls and failing
+   * with the same errors. Instead of going through a Scanner, the file is mapped into memory and
+   * split into words straight from its bytes, which is several times faster on large files.
+   *
+   * @param file    The file to read, in UTF-8
+   * @param builder A builder for helping to construct a new animation
+   * @return the animation the builder builds
+   * @throws IOException if the file cannot be opened or is too large to map
+   */
+  public static IAnimationModel parseFile(Path file, AnimationBuilder builder)
+          throws IOException {
+    Objects.requireNonNull(file, "Must have non-null file");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("File is too large to map: " + file);
+      }
+      ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return parse(new ByteTokenSource(bytes), builder);
+    }
+  }
+
+  /**
+   * Reads the animation in the given file the same way as
+   * {@link #parseFile(Path, AnimationBuilder)}, but splits large files into chunks that start at
+   * the beginning of a line and reads the chunks at the same time on the given pool. The motions
+   * read from each chunk are handed to the builder in the order they appear in the file once every
+   * chunk is read, so the builder sees the same calls and checks every shape's motions the same
+   * way. If a chunk cannot be read on its own, for example because a line in it has an error or a
+   * motion continues onto the next chunk, the whole file is read again from the start on the
+   * calling thread, so errors are the same as when reading it in one piece.
+   *
+   * @param file      The file to read, in UTF-8
+   * @param builder   A builder for helping to construct a new animation
+   * @param pool      The pool to read the chunks on
+   * @param chunkSize The fewest bytes in each chunk. Files shorter than two chunks, or read on a
+   *                  pool with a single worker, are read in one piece
+   * @return the animation the builder builds
+   * @throws IOException if the file cannot be opened or is too large to map
+   * @throws IllegalArgumentException if the chunk size is not positive
+   */
+  public static IAnimationModel parseFile(Path file, AnimationBuilder builder, ForkJoinPool pool,
+                                          int chunkSize) throws IOException {
+    Objects.requireNonNull(file, "Must have non-null file");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    Objects.requireNonNull(pool, "Must have a pool to read on");
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("The chunk size must be positive");
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("File is too large to map: " + file);
+      }
+      ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      int size = bytes.limit();
+      if (size < 2L * chunkSize || pool.getParallelism() == 1) {
+        return parse(new ByteTokenSource(bytes), builder);
+      }
+
+      int chunkCount = Math.max(2, Math.min(size / chunkSize, pool.getParallelism() * 4));
+      List<ForkJoinTask<MotionRecorder>> chunks = new ArrayList<>();
+      int start = 0;
+      for (int i = 1; i <= chunkCount && start < size; i++) {
+        int end = i == chunkCount ? size
+                : lineStartAfter(bytes, (int) ((long) size * i / chunkCount));
+        if (end > start) {
+          ByteBuffer chunk = bytes.duplicate();
+          chunk.limit(end).position(start);
+          chunks.add(pool.submit(() -> readChunk(chunk)));
+          start = end;
+        }
+      }
+
+      List<MotionRecorder> recorded = new ArrayList<>();
+      for (ForkJoinTask<MotionRecorder> chunk : chunks) {
+        recorded.add(chunk.join());
+      }
+      if (recorded.contains(null)) {
+        return parse(new ByteTokenSource(bytes), builder);
+      }
+      builder.startBulkLoad();
+      for (MotionRecorder recorder : recorded) {
+        recorder.replay(builder);
+      }
+      return builder.build();
+    }
+  }
+
+  /**
+   * Starts reading the animation in the given file on a new thread and tells the listener about
+   * it as it loads, so that it can be shown before the whole file has been read. A snapshot of
+   * the animation is built every time the given number of motions has been read since the last
+   * one, unless a shape has been declared without any motions yet, in which case it is built as
+   * soon as that shape gets one. To keep every snapshot valid, motions are checked one at a time
+   * as they arrive instead of all at once at the end, so a shape's motions must be in the order
+   * they happen, with no gaps between them that a later motion fills in.
+   *
+   * @param file               The file to read, in UTF-8
+   * @param builder            A builder for helping to construct a new animation
+   * @param motionsPerSnapshot The number of motions to read between snapshots
+   * @param listener           The listener to tell about the animation as it loads
+   * @return the thread reading the file, which has already been started
+   * @throws IOException if the file cannot be opened or is too large to map
+   * @throws IllegalArgumentException if the number of motions per snapshot is not positive
+   */
+  public static Thread parseFileInBackground(Path file, AnimationBuilder builder,
+                                             int motionsPerSnapshot, ILoadListener listener)
+          throws IOException {
+    Objects.requireNonNull(file, "Must have non-null file");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    Objects.requireNonNull(listener, "Must have a listener to tell about the animation");
+    if (motionsPerSnapshot < 1) {
+      throw new IllegalArgumentException("The number of motions per snapshot must be positive");
+    }
+    ByteBuffer bytes;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("File is too large to map: " + file);
+      }
+      bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    Thread reader = new Thread(() -> {
+      PublishingBuilder publisher = new PublishingBuilder(builder, motionsPerSnapshot, listener);
+      IAnimationModel model;
+      try {
+        model = parse(new ByteTokenSource(bytes), publisher);
+      } catch (RuntimeException e) {
+        listener.loadFailed(e);
+        return;
+      }
+      listener.loadFinished(model, publisher.getNeededSpace());
+    }, "Animation reader");
+    reader.start();
+    return reader;
+  }
+
+  // finds the start of the first line that begins at or after the given index, or the end of the
+  // bytes if there is none.
+  private static int lineStartAfter(ByteBuffer bytes, int index) {
+    while (index < bytes.limit()) {
+      byte b = bytes.get(index);
+      index++;
+      if (b == '\n' || b == '\r') {
+        return index;
+      }
+    }
+    return index;
+  }
+
+  // reads the words of one chunk into a recorder, or returns null if the chunk cannot be read on
+  // its own.
+  private static MotionRecorder readChunk(ByteBuffer chunk) {
+    MotionRecorder recorder = new MotionRecorder();
+    try {
+      parse(new ByteTokenSource(chunk), recorder);
+      return recorder;
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  // reads every line of the given words into the builder and builds the animation.
+  private static IAnimationModel parse(ITokenSource s, AnimationBuilder builder) {
+    builder.startBulkLoad();
     while (s.hasNext()) {
       String word = s.next();
       switch (word) {
@@ -56,7 +241,7 @@ public class AnimationReader {
     return builder.build();
   }
 
-  private static void readCanvas(Scanner s, AnimationBuilder builder) {
+  private static void readCanvas(ITokenSource s, AnimationBuilder builder) {
     int[] vals = new int[4];
     String[] fieldNames = {"left", "top", "width", "height"};
     for (int i = 0; i < 4; i++) {
@@ -65,7 +250,7 @@ public class AnimationReader {
     builder.setBounds(vals[0], vals[1], vals[2], vals[3]);
   }
 
-  private static void readShape(Scanner s, AnimationBuilder builder) {
+  private static void readShape(ITokenSource s, AnimationBuilder builder) {
     String name;
     String type;
     if (s.hasNext()) {
@@ -81,7 +266,7 @@ public class AnimationReader {
     builder.declareShape(name, type);
   }
 
-  private static void readMotion(Scanner s, AnimationBuilder builder) {
+  private static void readMotion(ITokenSource s, AnimationBuilder builder) {
     String[] fieldNames = new String[]{
       "initial time",
       "initial x-coordinate", "initial y-coordinate",
@@ -120,7 +305,7 @@ public class AnimationReader {
             vals[16], vals[17]);
   }
   
-  private static int getInt(Scanner s, String label, String fieldName) {
+  private static int getInt(ITokenSource s, String label, String fieldName) {
     if (s.hasNextInt()) {
       return s.nextInt();
     } else if (s.hasNext()) {
@@ -133,4 +318,273 @@ public class AnimationReader {
     }
   }
 
+  /**
+   * A builder that passes every call on to another builder and hands a snapshot of it to a
+   * listener every so many motions. Bulk loading is never started on the other builder, since
+   * building a snapshot of a bulk load would check motions that are still missing the ones
+   * between them. It also keeps track of how far out the shapes go as each motion arrives, so the
+   * space needed to show them is handed over with each snapshot without looking through every
+   * motion again.
+   */
+  private static final class PublishingBuilder implements AnimationBuilder {
+    private final AnimationBuilder builder;
+    private final int motionsPerSnapshot;
+    private final ILoadListener listener;
+    private int motionsUntilSnapshot;
+    private int neededWidth;
+    private int neededHeight;
+
+    private PublishingBuilder(AnimationBuilder builder, int motionsPerSnapshot,
+                              ILoadListener listener) {
+      this.builder = builder;
+      this.motionsPerSnapshot = motionsPerSnapshot;
+      this.listener = listener;
+      this.motionsUntilSnapshot = motionsPerSnapshot;
+    }
+
+    @Override
+    public IAnimationModel build() {
+      return this.builder.build();
+    }
+
+    @Override
+    public AnimationBuilder setBounds(int x, int y, int width, int height) {
+      this.builder.setBounds(x, y, width, height);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder declareShape(String name, String type) {
+      this.builder.declareShape(name, type);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder addMotion(String name, int t1, int x1, int y1, int w1, int h1,
+                                      int r1, int g1, int b1, int t2, int x2, int y2, int w2,
+                                      int h2, int r2, int g2, int b2) {
+      this.builder.addMotion(name, t1, x1, y1, w1, h1, r1, g1, b1,
+              t2, x2, y2, w2, h2, r2, g2, b2);
+      this.reach(t1, x1, y1, w1, h1, t2, x2, y2, w2, h2);
+      this.motionAdded();
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder addMotion(String name, int t1, int x1, int y1, int w1, int h1,
+                                      int o1, int r1, int g1, int b1, int t2, int x2, int y2,
+                                      int w2, int h2, int o2, int r2, int g2, int b2) {
+      this.builder.addMotion(name, t1, x1, y1, w1, h1, o1, r1, g1, b1,
+              t2, x2, y2, w2, h2, o2, r2, g2, b2);
+      this.reach(t1, x1, y1, w1, h1, t2, x2, y2, w2, h2);
+      this.motionAdded();
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder addKeyframe(String name, int t, int x, int y, int w, int h,
+                                        int r, int g, int b) {
+      this.builder.addKeyframe(name, t, x, y, w, h, r, g, b);
+      this.reach(t, x, y, w, h, t, x, y, w, h);
+      this.motionAdded();
+      return this;
+    }
+
+    /**
+     * Gets the space needed to show every shape read so far: the right and bottom edges of the
+     * furthest states any motion puts a shape in.
+     * @return the needed space.
+     */
+    Dimension getNeededSpace() {
+      return new Dimension(this.neededWidth, this.neededHeight);
+    }
+
+    // grows the needed space to fit the states a motion starts and ends in. A motion that starts
+    // and ends on the same tick puts the shape straight in its end state, so only that counts.
+    private void reach(int t1, int x1, int y1, int w1, int h1,
+                       int t2, int x2, int y2, int w2, int h2) {
+      if (t1 != t2) {
+        this.neededWidth = Math.max(this.neededWidth, x1 + w1);
+        this.neededHeight = Math.max(this.neededHeight, y1 + h1);
+      }
+      this.neededWidth = Math.max(this.neededWidth, x2 + w2);
+      this.neededHeight = Math.max(this.neededHeight, y2 + h2);
+    }
+
+    // counts down to the next snapshot and publishes it once it is due and can be built.
+    private void motionAdded() {
+      this.motionsUntilSnapshot--;
+      if (this.motionsUntilSnapshot > 0) {
+        return;
+      }
+      IAnimationModel snapshot;
+      try {
+        snapshot = this.builder.build();
+      } catch (IllegalStateException e) {
+        // a shape has no motions yet, so try again after the next one.
+        return;
+      }
+      this.motionsUntilSnapshot = this.motionsPerSnapshot;
+      this.listener.snapshotLoaded(snapshot, this.getNeededSpace());
+    }
+  }
+
+  /**
+   * A builder that only writes down the calls made to it, in order, so they can be made again on
+   * another builder. Shape names are shared between the calls that use them.
+   */
+  private static final class MotionRecorder implements AnimationBuilder {
+    private static final byte BOUNDS = 0;
+    private static final byte SHAPE = 1;
+    private static final byte MOTION = 2;
+    private static final byte ROTATING_MOTION = 3;
+    private static final byte KEYFRAME = 4;
+
+    private final Map<String, String> names = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    private byte[] kinds = new byte[64];
+    private int[] values = new int[1024];
+    private int kindCount;
+    private int valueCount;
+
+    @Override
+    public IAnimationModel build() {
+      return null;
+    }
+
+    @Override
+    public AnimationBuilder setBounds(int x, int y, int width, int height) {
+      this.record(BOUNDS, x, y, width, height);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder declareShape(String name, String type) {
+      this.words.add(this.share(name));
+      this.words.add(type);
+      this.record(SHAPE);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder addMotion(String name, int t1, int x1, int y1, int w1, int h1,
+                                      int r1, int g1, int b1, int t2, int x2, int y2, int w2,
+                                      int h2, int r2, int g2, int b2) {
+      this.words.add(this.share(name));
+      this.record(MOTION, t1, x1, y1, w1, h1, r1, g1, b1, t2, x2, y2, w2, h2, r2, g2, b2);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder addMotion(String name, int t1, int x1, int y1, int w1, int h1,
+                                      int o1, int r1, int g1, int b1, int t2, int x2, int y2,
+                                      int w2, int h2, int o2, int r2, int g2, int b2) {
+      this.words.add(this.share(name));
+      this.record(ROTATING_MOTION, t1, x1, y1, w1, h1, o1, r1, g1, b1,
+              t2, x2, y2, w2, h2, o2, r2, g2, b2);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder addKeyframe(String name, int t, int x, int y, int w, int h,
+                                        int r, int g, int b) {
+      this.words.add(this.share(name));
+      this.record(KEYFRAME, t, x, y, w, h, r, g, b);
+      return this;
+    }
+
+    // makes every call written down so far on the given builder, in the order they were made.
+    private void replay(AnimationBuilder builder) {
+      int word = 0;
+      int[] v = this.values;
+      int i = 0;
+      for (int k = 0; k < this.kindCount; k++) {
+        switch (this.kinds[k]) {
+          case BOUNDS:
+            builder.setBounds(v[i], v[i + 1], v[i + 2], v[i + 3]);
+            i += 4;
+            break;
+          case SHAPE:
+            builder.declareShape(this.words.get(word), this.words.get(word + 1));
+            word += 2;
+            break;
+          case MOTION:
+            builder.addMotion(this.words.get(word++),
+                    v[i], v[i + 1], v[i + 2], v[i + 3], v[i + 4], v[i + 5], v[i + 6], v[i + 7],
+                    v[i + 8], v[i + 9], v[i + 10], v[i + 11], v[i + 12], v[i + 13], v[i + 14],
+                    v[i + 15]);
+            i += 16;
+            break;
+          case ROTATING_MOTION:
+            builder.addMotion(this.words.get(word++),
+                    v[i], v[i + 1], v[i + 2], v[i + 3], v[i + 4], v[i + 5], v[i + 6], v[i + 7],
+                    v[i + 8], v[i + 9], v[i + 10], v[i + 11], v[i + 12], v[i + 13], v[i + 14],
+                    v[i + 15], v[i + 16], v[i + 17]);
+            i += 18;
+            break;
+          default:
+            builder.addKeyframe(this.words.get(word++),
+                    v[i], v[i + 1], v[i + 2], v[i + 3], v[i + 4], v[i + 5], v[i + 6], v[i + 7]);
+            i += 8;
+        }
+      }
+    }
+
+    // gets the copy of the given name that this recorder already uses, so each shape's name is
+    // only stored once.
+    private String share(String name) {
+      String shared = this.names.putIfAbsent(name, name);
+      return shared == null ? name : shared;
+    }
+
+    // writes down a call of the given kind with the given arguments.
+    private void record(byte kind, int... args) {
+      if (this.kindCount == this.kinds.length) {
+        this.kinds = Arrays.copyOf(this.kinds, this.kinds.length * 2);
+      }
+      this.kinds[this.kindCount++] = kind;
+      if (this.valueCount + args.length > this.values.length) {
+        this.values = Arrays.copyOf(this.values,
+                Math.max(this.values.length * 2, this.valueCount + args.length));
+      }
+      System.arraycopy(args, 0, this.values, this.valueCount, args.length);
+      this.valueCount += args.length;
+    }
+  }
+
+  /**
+   * The words of a Readable as split by a Scanner.
+   */
+  private static final class ScannerTokenSource implements ITokenSource {
+    private final Scanner scanner;
+
+    private ScannerTokenSource(Scanner scanner) {
+      this.scanner = scanner;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return this.scanner.hasNext();
+    }
+
+    @Override
+    public String next() {
+      return this.scanner.next();
+    }
+
+    @Override
+    public boolean hasNextInt() {
+      return this.scanner.hasNextInt();
+    }
+
+    @Override
+    public int nextInt() {
+      return this.scanner.nextInt();
+    }
+
+    @Override
+    public String nextLine() {
+      return this.scanner.nextLine();
+    }
+  }
 }
@@ -0,0 +1,392 @@
+package cs3500.animator.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reads and writes animations in a compact binary format, so a file that has been converted once
+ * can be loaded again without tokenizing any text.
+ *
+ * <p>
+ * A file starts with the bytes {@code ANIM} and a version byte, followed by the canvas and a
+ * table with one entry per shape, in the order they are drawn. A shape's commands are split
+ * into pages of up to {@link #PAGE_SIZE} commands, and its entry holds its name and type followed
+ * by the first and last tick, number of commands and length in bytes of each of its pages. The
+ * pages of every shape follow the table in the same order, so the position of the commands
+ * running at any tick is known as soon as the table has been read. A page is stored as 18
+ * columns, one for each of the start and end time, x, y, width, height, orientation, red, green
+ * and blue of a command. Each start value is stored as its difference from the same end value of
+ * the command before it in the page, and each end value as its difference from its own start
+ * value, so the columns are mostly zeros for animations where each command picks up where the
+ * last one left off. Every number is a variable length int of 7 bits per byte, and signed
+ * numbers are zig zag encoded first so that small negative numbers stay short.
+ * </p>
+ */
+public final class BinaryAnimationFormat {
+  static final int VERSION = 2;
+  static final int FIELDS = 18;
+  static final int PAGE_SIZE = 32;
+  private static final byte[] MAGIC = {'A', 'N', 'I', 'M'};
+
+  private BinaryAnimationFormat() {
+  }
+
+  /**
+   * Writes the given animation to the given stream in the binary format. The stream is left
+   * open.
+   *
+   * @param model the animation to write.
+   * @param out   the stream to write to.
+   * @throws IOException if the stream cannot be written to.
+   */
+  public static void write(IAnimationModel model, OutputStream out) throws IOException {
+    Objects.requireNonNull(model, "Must have a model to write");
+    Objects.requireNonNull(out, "Must have a stream to write to");
+    ByteArrayOutputStream table = new ByteArrayOutputStream();
+    List<byte[]> blocks = new ArrayList<>();
+    // shapes are drawn in the order of their commands, which is the order their first motions
+    // were added in, so the table keeps that order for the shapes to be drawn the same way once
+    // they are read back.
+    Map<String, List<IReadOnlyRotateCommand>> allCommands = model.getCommands();
+    for (Map.Entry<String, List<IReadOnlyRotateCommand>> entry : allCommands.entrySet()) {
+      List<IReadOnlyRotateCommand> commands = entry.getValue();
+      writeString(table, entry.getKey());
+      writeString(table, model.getShape(entry.getKey()).getShapeType());
+      writeUnsigned(table, (commands.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+      for (int from = 0; from < commands.size(); from += PAGE_SIZE) {
+        List<IReadOnlyRotateCommand> page =
+                commands.subList(from, Math.min(commands.size(), from + PAGE_SIZE));
+        byte[] block = encodeBlock(page);
+        blocks.add(block);
+        writeSigned(table, page.get(0).getStartTime());
+        writeSigned(table, page.get(page.size() - 1).getEndTime());
+        writeUnsigned(table, page.size());
+        writeUnsigned(table, block.length);
+      }
+    }
+
+    ByteArrayOutputStream header = new ByteArrayOutputStream();
+    header.write(MAGIC);
+    header.write(VERSION);
+    writeSigned(header, model.getX());
+    writeSigned(header, model.getY());
+    writeSigned(header, model.getWidth());
+    writeSigned(header, model.getHeight());
+    writeUnsigned(header, allCommands.size());
+    header.writeTo(out);
+    table.writeTo(out);
+    for (byte[] block : blocks) {
+      out.write(block);
+    }
+  }
+
+  /**
+   * Checks if the given file starts like a binary animation.
+   *
+   * @param file the file to check.
+   * @return true if the file starts with the bytes of the binary format.
+   * @throws IOException if the file cannot be read.
+   */
+  public static boolean isBinary(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer start = ByteBuffer.allocate(MAGIC.length);
+      while (start.hasRemaining() && channel.read(start) != -1) {
+        // keep reading until the magic bytes are in or the file ends.
+      }
+      return !start.hasRemaining() && ByteBuffer.wrap(MAGIC).equals(start.flip());
+    }
+  }
+
+  /**
+   * Reads the binary animation in the given file into the builder. The file is mapped into
+   * memory and the numbers are handed straight to the builder, which is told to expect a bulk
+   * load, so each shape's commands are checked once at the end like a text file's are.
+   *
+   * @param file    the file to read.
+   * @param builder a builder for helping to construct a new animation.
+   * @return the animation the builder builds.
+   * @throws IOException if the file cannot be opened or is too large to map.
+   * @throws IllegalStateException if the file is not a binary animation of a known version or
+   *                               ends early.
+   */
+  public static IAnimationModel read(Path file, AnimationBuilder builder) throws IOException {
+    Objects.requireNonNull(file, "Must have non-null file");
+    Objects.requireNonNull(builder, "Must provide a non-null AnimationBuilder");
+    ByteBuffer bytes = map(file);
+    try {
+      Header header = readHeader(bytes);
+      builder.startBulkLoad();
+      builder.setBounds(header.x, header.y, header.width, header.height);
+      int[] values = new int[PAGE_SIZE * FIELDS];
+      for (ShapeEntry shape : header.shapes) {
+        builder.declareShape(shape.name, shape.type);
+        for (PageEntry page : shape.pages) {
+          if (values.length < page.commandCount * FIELDS) {
+            values = new int[page.commandCount * FIELDS];
+          }
+          bytes.position(page.offset);
+          decodeBlock(bytes, page.commandCount, values);
+          for (int row = 0; row < page.commandCount; row++) {
+            int i = row * FIELDS;
+            builder.addMotion(shape.name,
+                    values[i], values[i + 1], values[i + 2], values[i + 3], values[i + 4],
+                    values[i + 5], values[i + 6], values[i + 7], values[i + 8],
+                    values[i + 9], values[i + 10], values[i + 11], values[i + 12],
+                    values[i + 13], values[i + 14], values[i + 15], values[i + 16],
+                    values[i + 17]);
+          }
+        }
+      }
+    } catch (BufferUnderflowException e) {
+      throw new IllegalStateException("The binary animation ended early");
+    }
+    return builder.build();
+  }
+
+  /**
+   * Maps the whole of the given file into memory.
+   *
+   * @param file the file to map.
+   * @return the bytes of the file.
+   * @throws IOException if the file cannot be opened or is too large to map.
+   */
+  static ByteBuffer map(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("File is too large to map: " + file);
+      }
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+
+  /**
+   * Reads the canvas and shape table from the start of a binary animation, leaving the position
+   * of the bytes at the first page of commands.
+   *
+   * @param bytes the bytes of the file.
+   * @return the header of the file.
+   * @throws IllegalStateException if the bytes are not a binary animation of a known version.
+   * @throws BufferUnderflowException if the bytes end before the table does.
+   */
+  static Header readHeader(ByteBuffer bytes) {
+    for (byte b : MAGIC) {
+      if (!bytes.hasRemaining() || bytes.get() != b) {
+        throw new IllegalStateException("This is not a binary animation");
+      }
+    }
+    int version = bytes.get();
+    if (version != VERSION) {
+      throw new IllegalStateException("Unknown binary animation version: " + version);
+    }
+    int x = readSigned(bytes);
+    int y = readSigned(bytes);
+    int width = readSigned(bytes);
+    int height = readSigned(bytes);
+    int count = readUnsigned(bytes);
+    List<ShapeEntry> shapes = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      String name = readString(bytes);
+      String type = readString(bytes);
+      int pageCount = readUnsigned(bytes);
+      List<PageEntry> pages = new ArrayList<>();
+      for (int page = 0; page < pageCount; page++) {
+        pages.add(new PageEntry(readSigned(bytes), readSigned(bytes), readUnsigned(bytes),
+                readUnsigned(bytes)));
+      }
+      shapes.add(new ShapeEntry(name, type, pages));
+    }
+    int offset = bytes.position();
+    for (ShapeEntry shape : shapes) {
+      for (PageEntry page : shape.pages) {
+        page.offset = offset;
+        offset += page.length;
+        if (offset > bytes.limit() || offset < 0) {
+          throw new BufferUnderflowException();
+        }
+      }
+    }
+    return new Header(x, y, width, height, shapes);
+  }
+
+  /**
+   * Decodes the given number of commands from the current position of the bytes into rows of
+   * {@link #FIELDS} values, in the order {@link AnimationBuilder#addMotion} takes them with
+   * orientations.
+   *
+   * @param bytes  the bytes, positioned at the start of a page.
+   * @param count  the number of commands.
+   * @param values the array to decode into, which must hold at least count rows.
+   * @throws BufferUnderflowException if the bytes end before the commands do.
+   */
+  static void decodeBlock(ByteBuffer bytes, int count, int[] values) {
+    for (int column = 0; column < FIELDS; column++) {
+      for (int row = 0; row < count; row++) {
+        values[row * FIELDS + column] = readSigned(bytes);
+      }
+    }
+    int half = FIELDS / 2;
+    for (int row = 0; row < count; row++) {
+      int i = row * FIELDS;
+      for (int field = 0; field < half; field++) {
+        int previousEnd = row == 0 ? 0 : values[i - FIELDS + half + field];
+        values[i + field] += previousEnd;
+        values[i + half + field] += values[i + field];
+      }
+    }
+  }
+
+  // encodes the given page of commands as 18 delta coded columns.
+  private static byte[] encodeBlock(List<IReadOnlyRotateCommand> commands) {
+    int[] values = new int[commands.size() * FIELDS];
+    for (int row = 0; row < commands.size(); row++) {
+      IReadOnlyRotateCommand command = commands.get(row);
+      int i = row * FIELDS;
+      values[i] = command.getStartTime();
+      values[i + 1] = command.getStartX();
+      values[i + 2] = command.getStartY();
+      values[i + 3] = command.getStartWidth();
+      values[i + 4] = command.getStartHeight();
+      values[i + 5] = command.getStartOrientation();
+      values[i + 6] = command.getStartColor().getRed();
+      values[i + 7] = command.getStartColor().getGreen();
+      values[i + 8] = command.getStartColor().getBlue();
+      values[i + 9] = command.getEndTime();
+      values[i + 10] = command.getEndX();
+      values[i + 11] = command.getEndY();
+      values[i + 12] = command.getEndWidth();
+      values[i + 13] = command.getEndHeight();
+      values[i + 14] = command.getEndOrientation();
+      values[i + 15] = command.getEndColor().getRed();
+      values[i + 16] = command.getEndColor().getGreen();
+      values[i + 17] = command.getEndColor().getBlue();
+    }
+
+    ByteArrayOutputStream block = new ByteArrayOutputStream();
+    int half = FIELDS / 2;
+    for (int column = 0; column < FIELDS; column++) {
+      for (int row = 0; row < commands.size(); row++) {
+        int i = row * FIELDS;
+        int base;
+        if (column < half) {
+          base = row == 0 ? 0 : values[i - FIELDS + half + column];
+        }
+        else {
+          base = values[i + column - half];
+        }
+        writeSigned(block, values[i + column] - base);
+      }
+    }
+    return block.toByteArray();
+  }
+
+  // writes a non-negative int 7 bits at a time, lowest bits first, with the top bit of each byte
+  // set if more bytes follow.
+  private static void writeUnsigned(ByteArrayOutputStream out, int value) {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  // writes an int so that numbers close to zero are short whatever their sign.
+  private static void writeSigned(ByteArrayOutputStream out, int value) {
+    writeUnsigned(out, (value << 1) ^ (value >> 31));
+  }
+
+  // writes a string as its length in bytes followed by its UTF-8 bytes.
+  private static void writeString(ByteArrayOutputStream out, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeUnsigned(out, bytes.length);
+    out.write(bytes, 0, bytes.length);
+  }
+
+  // reads an int written by writeUnsigned.
+  private static int readUnsigned(ByteBuffer bytes) {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      byte b = bytes.get();
+      value |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalStateException("The binary animation has a number that is too long");
+  }
+
+  // reads an int written by writeSigned.
+  private static int readSigned(ByteBuffer bytes) {
+    int value = readUnsigned(bytes);
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  // reads a string written by writeString.
+  private static String readString(ByteBuffer bytes) {
+    byte[] value = new byte[readUnsigned(bytes)];
+    bytes.get(value);
+    return new String(value, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * The canvas and shape table at the start of a binary animation.
+   */
+  static final class Header {
+    final int x;
+    final int y;
+    final int width;
+    final int height;
+    final List<ShapeEntry> shapes;
+
+    private Header(int x, int y, int width, int height, List<ShapeEntry> shapes) {
+      this.x = x;
+      this.y = y;
+      this.width = width;
+      this.height = height;
+      this.shapes = shapes;
+    }
+  }
+
+  /**
+   * The entry of one shape in the table of a binary animation, with its pages in time order.
+   */
+  static final class ShapeEntry {
+    final String name;
+    final String type;
+    final List<PageEntry> pages;
+
+    private ShapeEntry(String name, String type, List<PageEntry> pages) {
+      this.name = name;
+      this.type = type;
+      this.pages = pages;
+    }
+  }
+
+  /**
+   * The entry of one page of a shape's commands, with the ticks they cover and where they are.
+   */
+  static final class PageEntry {
+    final int firstTick;
+    final int lastTick;
+    final int commandCount;
+    final int length;
+    int offset;
+
+    private PageEntry(int firstTick, int lastTick, int commandCount, int length) {
+      this.firstTick = firstTick;
+      this.lastTick = lastTick;
+      this.commandCount = commandCount;
+      this.length = length;
+    }
+  }
+}
@@ -0,0 +1,192 @@
+package cs3500.animator.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+/**
+ * Splits the bytes of an animation file into words without regular expressions, the same way the
+ * {@link java.util.Scanner} in {@link AnimationReader} splits its characters. Ints made of an
+ * optional sign and ASCII digits are parsed straight from the bytes. Anything else that a Scanner
+ * might still read as an int, such as a number with grouping commas, is handed to a Scanner so
+ * that both readers always agree. The bytes are read as UTF-8.
+ */
+final class ByteTokenSource implements ITokenSource {
+  private final ByteBuffer bytes;
+  private final int limit;
+  private int position;
+
+  // the word after the last call to peek, so hasNextInt and nextInt only parse it once.
+  private int peekStart = -1;
+  private int peekEnd;
+  private boolean peekIsInt;
+  private int peekValue;
+
+  /**
+   * Constructor for a source of the words between the position and limit of the given bytes.
+   * @param bytes the bytes to read. Only absolute gets are used, so its position is left alone.
+   */
+  ByteTokenSource(ByteBuffer bytes) {
+    this.bytes = bytes;
+    this.position = bytes.position();
+    this.limit = bytes.limit();
+  }
+
+  @Override
+  public boolean hasNext() {
+    this.skipDelimiters();
+    return this.position < this.limit;
+  }
+
+  @Override
+  public String next() {
+    if (!this.hasNext()) {
+      throw new NoSuchElementException();
+    }
+    int start = this.position;
+    this.position = this.wordEnd(start);
+    return this.decode(start, this.position);
+  }
+
+  @Override
+  public boolean hasNextInt() {
+    if (!this.hasNext()) {
+      return false;
+    }
+    this.peek();
+    return this.peekIsInt;
+  }
+
+  @Override
+  public int nextInt() {
+    if (!this.hasNext()) {
+      throw new NoSuchElementException();
+    }
+    this.peek();
+    if (!this.peekIsInt) {
+      throw new InputMismatchException(this.decode(this.peekStart, this.peekEnd));
+    }
+    this.position = this.peekEnd;
+    return this.peekValue;
+  }
+
+  @Override
+  public String nextLine() {
+    if (this.position >= this.limit) {
+      throw new NoSuchElementException("No line found");
+    }
+    int start = this.position;
+    int end = start;
+    while (end < this.limit && !isLineEnd(this.bytes.get(end))) {
+      end++;
+    }
+    this.position = end;
+    if (end < this.limit) {
+      this.position++;
+      if (this.bytes.get(end) == '\r' && this.position < this.limit
+              && this.bytes.get(this.position) == '\n') {
+        this.position++;
+      }
+    }
+    return this.decode(start, end);
+  }
+
+  // moves past whitespace and comments to the start of the next word or the end of the input.
+  private void skipDelimiters() {
+    while (this.position < this.limit) {
+      byte b = this.bytes.get(this.position);
+      if (isSpace(b)) {
+        this.position++;
+      }
+      else if (b == '#') {
+        while (this.position < this.limit && !isLineEnd(this.bytes.get(this.position))) {
+          this.position++;
+        }
+      }
+      else {
+        return;
+      }
+    }
+  }
+
+  // finds the end of the word starting at the given index.
+  private int wordEnd(int start) {
+    int end = start;
+    while (end < this.limit) {
+      byte b = this.bytes.get(end);
+      if (isSpace(b) || b == '#') {
+        break;
+      }
+      end++;
+    }
+    return end;
+  }
+
+  // parses the word at the current position, which must not be a delimiter, unless it was
+  // already parsed.
+  private void peek() {
+    if (this.peekStart == this.position) {
+      return;
+    }
+    this.peekStart = this.position;
+    this.peekEnd = this.wordEnd(this.position);
+
+    int index = this.peekStart;
+    boolean negative = false;
+    byte first = this.bytes.get(index);
+    if ((first == '-' || first == '+') && this.peekEnd - index > 1) {
+      negative = first == '-';
+      index++;
+    }
+    long value = 0;
+    for (; index < this.peekEnd; index++) {
+      byte b = this.bytes.get(index);
+      if (b < '0' || b > '9' || value > Integer.MAX_VALUE + 1L) {
+        this.peekSlowly();
+        return;
+      }
+      value = value * 10 + (b - '0');
+    }
+    value = negative ? -value : value;
+    this.peekIsInt = value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+    this.peekValue = (int) value;
+  }
+
+  // lets a Scanner decide if a word that is not plain digits is an int. A word without any digit
+  // cannot be one, and every digit that is not ASCII takes more than one byte.
+  private void peekSlowly() {
+    boolean digits = false;
+    for (int i = this.peekStart; i < this.peekEnd && !digits; i++) {
+      byte b = this.bytes.get(i);
+      digits = (b >= '0' && b <= '9') || b < 0;
+    }
+    if (!digits) {
+      this.peekIsInt = false;
+      return;
+    }
+    Scanner scanner = new Scanner(this.decode(this.peekStart, this.peekEnd));
+    this.peekIsInt = scanner.hasNextInt();
+    this.peekValue = this.peekIsInt ? scanner.nextInt() : 0;
+  }
+
+  // reads the given range of bytes as text.
+  private String decode(int start, int end) {
+    byte[] word = new byte[end - start];
+    for (int i = 0; i < word.length; i++) {
+      word[i] = this.bytes.get(start + i);
+    }
+    return new String(word, StandardCharsets.UTF_8);
+  }
+
+  // checks if the given byte is whitespace, the same characters as \p{Space}.
+  private static boolean isSpace(byte b) {
+    return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+  }
+
+  // checks if the given byte ends a line.
+  private static boolean isLineEnd(byte b) {
+    return b == '\n' || b == '\r';
+  }
+}
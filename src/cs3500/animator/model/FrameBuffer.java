@@ -0,0 +1,243 @@
+package cs3500.animator.model;
+
+import java.util.Arrays;
+
+/**
+ * A reusable frame of an animation stored as primitive arrays, one slot per shape in the order the
+ * shapes were declared. Sampling a model into the same frame buffer tick after tick only grows the
+ * arrays when the number of shapes grows, so steady playback does not create any objects.
+ * Shapes that are not running a command at the sampled tick are kept in their slot but marked as
+ * not visible.
+ */
+public class FrameBuffer {
+  private int size;
+  private String[] shapeTypes;
+  private int[] x;
+  private int[] y;
+  private int[] width;
+  private int[] height;
+  private int[] orientation;
+  private int[] color;
+  private boolean[] visible;
+  private int[] scratch;
+
+  /**
+   * Constructor for an empty frame buffer.
+   */
+  public FrameBuffer() {
+    this(0);
+  }
+
+  /**
+   * Constructor for a frame buffer with room for the given number of shapes.
+   * @param capacity the number of slots to allocate up front.
+   */
+  public FrameBuffer(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Cannot have a negative capacity");
+    }
+    this.shapeTypes = new String[capacity];
+    this.x = new int[capacity];
+    this.y = new int[capacity];
+    this.width = new int[capacity];
+    this.height = new int[capacity];
+    this.orientation = new int[capacity];
+    this.color = new int[capacity];
+    this.visible = new boolean[capacity];
+    this.scratch = new int[capacity];
+  }
+
+  /**
+   * Gets the number of slots in this frame.
+   * @return the number of shapes in the frame, visible or not.
+   */
+  public int getSize() {
+    return this.size;
+  }
+
+  /**
+   * Checks if the shape in the given slot is drawn in this frame.
+   * @param slot the index of the shape.
+   * @return true if the shape is running a command at the sampled tick.
+   */
+  public boolean isVisible(int slot) {
+    this.checkSlot(slot);
+    return this.visible[slot];
+  }
+
+  /**
+   * Gets the type of the shape in the given slot.
+   * @param slot the index of the shape.
+   * @return the shape type, such as "Rectangle" or "Ellipse".
+   */
+  public String getShapeType(int slot) {
+    this.checkSlot(slot);
+    return this.shapeTypes[slot];
+  }
+
+  /**
+   * Gets the x position of the shape in the given slot relative to the model's bounds.
+   * @param slot the index of the shape.
+   * @return the x position in pixels.
+   */
+  public int getX(int slot) {
+    this.checkSlot(slot);
+    return this.x[slot];
+  }
+
+  /**
+   * Gets the y position of the shape in the given slot relative to the model's bounds.
+   * @param slot the index of the shape.
+   * @return the y position in pixels.
+   */
+  public int getY(int slot) {
+    this.checkSlot(slot);
+    return this.y[slot];
+  }
+
+  /**
+   * Gets the width of the shape in the given slot.
+   * @param slot the index of the shape.
+   * @return the width in pixels.
+   */
+  public int getWidth(int slot) {
+    this.checkSlot(slot);
+    return this.width[slot];
+  }
+
+  /**
+   * Gets the height of the shape in the given slot.
+   * @param slot the index of the shape.
+   * @return the height in pixels.
+   */
+  public int getHeight(int slot) {
+    this.checkSlot(slot);
+    return this.height[slot];
+  }
+
+  /**
+   * Gets the orientation of the shape in the given slot.
+   * @param slot the index of the shape.
+   * @return the orientation in degrees.
+   */
+  public int getOrientation(int slot) {
+    this.checkSlot(slot);
+    return this.orientation[slot];
+  }
+
+  /**
+   * Gets the color of the shape in the given slot packed the same way as
+   * {@link java.awt.Color#getRGB()}.
+   * @param slot the index of the shape.
+   * @return the packed RGB value of the color, with an opaque alpha.
+   */
+  public int getColor(int slot) {
+    this.checkSlot(slot);
+    return this.color[slot];
+  }
+
+  /**
+   * Copies the contents of the given frame into this one, growing this frame if it is too small.
+   * @param other the frame to copy.
+   */
+  public void copyFrom(FrameBuffer other) {
+    this.resize(other.size);
+    System.arraycopy(other.shapeTypes, 0, this.shapeTypes, 0, other.size);
+    System.arraycopy(other.x, 0, this.x, 0, other.size);
+    System.arraycopy(other.y, 0, this.y, 0, other.size);
+    System.arraycopy(other.width, 0, this.width, 0, other.size);
+    System.arraycopy(other.height, 0, this.height, 0, other.size);
+    System.arraycopy(other.orientation, 0, this.orientation, 0, other.size);
+    System.arraycopy(other.color, 0, this.color, 0, other.size);
+    System.arraycopy(other.visible, 0, this.visible, 0, other.size);
+  }
+
+  /**
+   * Sets the number of slots in this frame, growing the arrays only if they are too small. Every
+   * slot starts out hidden until it is written.
+   * @param size the number of shapes in the frame.
+   */
+  void resize(int size) {
+    if (size > this.x.length) {
+      int capacity = Math.max(size, this.x.length * 2);
+      this.shapeTypes = Arrays.copyOf(this.shapeTypes, capacity);
+      this.x = Arrays.copyOf(this.x, capacity);
+      this.y = Arrays.copyOf(this.y, capacity);
+      this.width = Arrays.copyOf(this.width, capacity);
+      this.height = Arrays.copyOf(this.height, capacity);
+      this.orientation = Arrays.copyOf(this.orientation, capacity);
+      this.color = Arrays.copyOf(this.color, capacity);
+      this.visible = Arrays.copyOf(this.visible, capacity);
+      this.scratch = new int[capacity];
+    }
+    Arrays.fill(this.visible, 0, size, false);
+    this.size = size;
+  }
+
+  /**
+   * Gets a work array with room for every slot in this frame, which models use to list the shapes
+   * they need to sample without creating an array for every tick.
+   * @return an array at least as long as the size of this frame.
+   */
+  int[] scratch() {
+    return this.scratch;
+  }
+
+  /**
+   * Sets the type of the shape in the given slot.
+   * @param slot the index of the shape.
+   * @param shapeType the type of the shape.
+   */
+  void setShapeType(int slot, String shapeType) {
+    this.shapeTypes[slot] = shapeType;
+  }
+
+  /**
+   * Writes the state of a visible shape into the given slot.
+   * @param slot the index of the shape.
+   * @param x the x position of the shape.
+   * @param y the y position of the shape.
+   * @param width the width of the shape.
+   * @param height the height of the shape.
+   * @param orientation the orientation of the shape in degrees.
+   * @param red the red value of the shape's color.
+   * @param green the green value of the shape's color.
+   * @param blue the blue value of the shape's color.
+   */
+  void set(int slot, int x, int y, int width, int height, int orientation,
+           int red, int green, int blue) {
+    this.x[slot] = x;
+    this.y[slot] = y;
+    this.width[slot] = width;
+    this.height[slot] = height;
+    this.orientation[slot] = orientation;
+    this.color[slot] = 0xFF000000 | (red << 16) | (green << 8) | blue;
+    this.visible[slot] = true;
+  }
+
+  /**
+   * Marks the shape in the given slot as not drawn in this frame.
+   * @param slot the index of the shape.
+   */
+  void hide(int slot) {
+    this.visible[slot] = false;
+  }
+
+  /**
+   * Moves the shape in the given slot by the given amount.
+   * @param slot the index of the shape.
+   * @param dx the change in x.
+   * @param dy the change in y.
+   */
+  void translate(int slot, int dx, int dy) {
+    this.x[slot] += dx;
+    this.y[slot] += dy;
+  }
+
+  // makes sure a slot read from outside this package is part of the current frame.
+  private void checkSlot(int slot) {
+    if (slot < 0 || slot >= this.size) {
+      throw new IndexOutOfBoundsException("No shape in slot " + slot);
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package cs3500.animator.model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * A bounded cache of animation frames keyed by tick. Each stored frame is an unmodifiable list of
+ * shapes that nothing else changes, so a frame can be handed out to any number of callers and
+ * threads. The cache is bounded by the total number of shapes it holds rather than the number of
+ * frames, so a scene with many shapes keeps fewer ticks around. When the budget is exceeded the
+ * least recently used frames are evicted first.
+ */
+public class FrameCache {
+  private final LinkedHashMap<Integer, List<IReadOnlyShape>> frames;
+  private final int maxShapes;
+  private int cachedShapes;
+  private int hits;
+  private int misses;
+
+  /**
+   * Constructor for a frame cache that holds at most the given number of shapes across all of
+   * its frames.
+   * @param maxShapes the total number of shapes that may be cached at once.
+   * @throws IllegalArgumentException if the budget is not positive.
+   */
+  public FrameCache(int maxShapes) {
+    if (maxShapes < 1) {
+      throw new IllegalArgumentException("A frame cache must be able to hold a shape");
+    }
+    this.frames = new LinkedHashMap<>(16, 0.75f, true);
+    this.maxShapes = maxShapes;
+  }
+
+  /**
+   * Gets the frame stored for the given tick, counting the lookup as a hit or a miss.
+   * @param tick the tick of the frame.
+   * @return the cached frame, or null if there is no frame for that tick.
+   */
+  public synchronized List<IReadOnlyShape> get(int tick) {
+    List<IReadOnlyShape> frame = this.frames.get(tick);
+    if (frame == null) {
+      this.misses++;
+    }
+    else {
+      this.hits++;
+    }
+    return frame;
+  }
+
+  /**
+   * Stores the given frame as the frame for the given tick. The frame must not be changed after
+   * it is stored, since every later lookup of the tick shares it.
+   * @param tick the tick of the frame.
+   * @param frame the unmodifiable shapes as they are at that tick.
+   * @return the frame that was stored.
+   */
+  public synchronized List<IReadOnlyShape> put(int tick, List<IReadOnlyShape> frame) {
+    List<IReadOnlyShape> old = this.frames.put(tick, frame);
+    if (old != null) {
+      this.cachedShapes -= old.size();
+    }
+    this.cachedShapes += frame.size();
+    this.evict();
+    return frame;
+  }
+
+  /**
+   * Gets the number of lookups that found a frame.
+   * @return the number of cache hits.
+   */
+  public synchronized int getHits() {
+    return this.hits;
+  }
+
+  /**
+   * Gets the number of lookups that did not find a frame.
+   * @return the number of cache misses.
+   */
+  public synchronized int getMisses() {
+    return this.misses;
+  }
+
+  /**
+   * Gets the number of frames currently held by the cache.
+   * @return the number of cached frames.
+   */
+  public synchronized int size() {
+    return this.frames.size();
+  }
+
+  // removes the least recently used frames until the cache is back under its shape budget. The
+  // most recent frame is always kept, even if it alone is over the budget.
+  private void evict() {
+    while (this.cachedShapes > this.maxShapes && this.frames.size() > 1) {
+      Integer eldest = this.frames.keySet().iterator().next();
+      this.cachedShapes -= this.frames.remove(eldest).size();
+    }
+  }
+}
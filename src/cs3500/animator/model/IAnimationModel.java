@@ -1,7 +1,7 @@
 package cs3500.animator.model;
 
-import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface for the model for the Animation. Can return the instantaneous state of the model
@@ -19,17 +19,52 @@ public interface IAnimationModel {
   List<IReadOnlyShape> getState(int time);
 
   /**
-   * Getter for each of the shapes in the map.
+   * Writes the instantaneous state of the animation at the given time into the given frame, one
+   * slot per shape in the order the shapes were declared. Shapes that are not running a command
+   * at that time are marked as not visible. Reusing the same frame for every tick means sampling
+   * does not create any objects once the frame is big enough.
+   * @param time in ticks
+   * @param frame the frame to overwrite with the state of the animation.
+   */
+  void getState(int time, FrameBuffer frame);
+
+  /**
+   * Creates a cursor that plays this animation forward from the given tick. Asking the cursor for
+   * each tick in turn gives the same frames as calling getState for each tick, but only does work
+   * for the shapes that change from one tick to the next.
+   * @param startTick the first tick the cursor produces.
+   * @return a new cursor positioned at the given tick.
+   */
+  IPlaybackCursor cursor(int startTick);
+
+  /**
+   * Getter for each of the shapes in the map. The map is an unmodifiable view of the shapes in
+   * the order they were declared, so getting it does not copy anything.
    * @return the map linking ID to each unique shape.
    */
-  LinkedHashMap<String, IReadOnlyShape> getShapes();
+  Map<String, IReadOnlyShape> getShapes();
 
+  /**
+   * Getter for the shape with the given ID.
+   * @param id the ID of the shape.
+   * @return the shape, or null if no shape has that ID.
+   */
+  IReadOnlyShape getShape(String id);
 
   /**
-   * Getter for all of the commands from the model.
+   * Getter for all of the commands from the model. The map and its lists are unmodifiable views
+   * of the commands of each shape in time order, so getting them does not copy anything.
    * @return the map linking the list of commands to the ID of the shape.
    */
-  LinkedHashMap<String, List<IReadOnlyRotateCommand>> getCommands();
+  Map<String, List<IReadOnlyRotateCommand>> getCommands();
+
+  /**
+   * Getter for the commands of the shape with the given ID.
+   * @param id the ID of the shape.
+   * @return an unmodifiable view of the shape's commands in time order, or null if no shape with
+   *         that ID has any commands.
+   */
+  List<IReadOnlyRotateCommand> getCommands(String id);
 
   /**
    * Getter for the x location of the model.
@@ -1,8 +1,8 @@
 package cs3500.animator.model;
 
 import java.awt.Dimension;
-import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents the builder for an editable view.
@@ -25,16 +25,43 @@ public interface IEditBuilder extends AnimationBuilder {
   IEditBuilder removeShape(String id);
 
   /**
-   * Gets the commands from the builder.
+   * Gets the commands from the builder. The map and its lists are unmodifiable snapshots that
+   * are not changed by later edits to the builder, and getting them does not copy anything.
    * @return a mapping of the ids to the commands in the builder.
    */
-  LinkedHashMap<String, List<IReadOnlyRotateCommand>> getCommands();
+  Map<String, List<IReadOnlyRotateCommand>> getCommands();
 
   /**
-   * Gets the shapes from the builder.
+   * Gets the commands of one shape from the builder.
+   * @param id the id of the shape.
+   * @return an unmodifiable view of the shape's commands in time order, or null if no shape with
+   *         that id has any commands.
+   */
+  List<IReadOnlyRotateCommand> getCommands(String id);
+
+  /**
+   * Gets the shapes from the builder. The map is an unmodifiable snapshot that is not changed by
+   * later edits to the builder.
    * @return a mapping of the ids to the shapes in the builder.
    */
-  LinkedHashMap<String, IReadOnlyShape> getShapes();
+  Map<String, IReadOnlyShape> getShapes();
+
+  /**
+   * Gets one shape from the builder.
+   * @param id the id of the shape.
+   * @return the shape, or null if no shape has that id.
+   */
+  IReadOnlyShape getShape(String id);
+
+  /**
+   * Gets the version of one shape in the builder. The version changes every time the shape is
+   * declared or one of its commands is added or removed, and no two versions of shapes in the
+   * same builder are ever the same, so something made from a shape can be reused for as long as
+   * the shape's version stays the same.
+   * @param id the id of the shape.
+   * @return the version of the shape, or -1 if it has never been declared or given a command.
+   */
+  int getVersion(String id);
 
   /**
    * Gets the needed space from the builder.
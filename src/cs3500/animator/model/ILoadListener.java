@@ -0,0 +1,37 @@
+package cs3500.animator.model;
+
+import java.awt.Dimension;
+
+/**
+ * Represents a listener that is told about an animation while its file is read in the background
+ * by {@link AnimationReader#parseFileInBackground}. Every method is called on the thread reading
+ * the file.
+ */
+public interface ILoadListener {
+  /**
+   * Called each time enough of the file has been read to build a newer version of the
+   * animation. The model holds every shape and motion read so far and does not change as more of
+   * the file is read.
+   *
+   * @param model the animation read so far.
+   * @param neededSpace the space needed to show every shape read so far, kept up to date as each
+   *                    motion is read so listeners do not have to look through all of them.
+   */
+  void snapshotLoaded(IAnimationModel model, Dimension neededSpace);
+
+  /**
+   * Called once the whole file has been read.
+   *
+   * @param model the whole animation.
+   * @param neededSpace the space needed to show every shape in the animation.
+   */
+  void loadFinished(IAnimationModel model, Dimension neededSpace);
+
+  /**
+   * Called instead of {@link #loadFinished} if the file has an error in it. No more snapshots
+   * are loaded after this.
+   *
+   * @param error the error the reader or builder failed with.
+   */
+  void loadFailed(RuntimeException error);
+}
@@ -0,0 +1,29 @@
+package cs3500.animator.model;
+
+/**
+ * A cursor that plays an animation forward one tick at a time. It remembers which command each
+ * shape is running between ticks, so moving to the next tick only updates the shapes whose command
+ * changes or whose command is still interpolating, instead of looking up every shape again.
+ */
+public interface IPlaybackCursor {
+
+  /**
+   * Gets the tick that the next call to {@link #advance()} will produce.
+   * @return the next tick of this cursor.
+   */
+  int getTick();
+
+  /**
+   * Moves the animation to the next tick and returns its state. The returned frame belongs to the
+   * cursor and is overwritten by the next call, so callers that keep a frame must copy it.
+   * @return the state of the animation at the tick {@link #getTick()} returned before this call.
+   */
+  FrameBuffer advance();
+
+  /**
+   * Jumps the cursor to the given tick, so the next call to {@link #advance()} produces that tick.
+   * This looks up every shape again, so it costs as much as a call to getState.
+   * @param tick the tick to move the cursor to.
+   */
+  void seek(int tick);
+}
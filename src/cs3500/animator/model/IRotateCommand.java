@@ -4,4 +4,13 @@ package cs3500.animator.model;
  * Represents a command that supports rotating shapes
  */
 public interface IRotateCommand extends IReadOnlyRotateCommand, ICommand {
+  /**
+   * Writes the instantaneous state of a shape at the given time after doing this command into the
+   * given slot of a frame, without creating any objects. Throws an exception if the time is not
+   * within the start and end times of this command.
+   * @param time in ticks that the shape gets changed to.
+   * @param frame the frame to write the state into.
+   * @param slot the index of the shape in the frame.
+   */
+  void setState(int time, FrameBuffer frame, int slot);
 }
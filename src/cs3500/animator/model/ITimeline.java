@@ -0,0 +1,63 @@
+package cs3500.animator.model;
+
+/**
+ * The commands of every shape of a model, numbered by slot and by index within a slot, as needed
+ * by a {@link PlaybackCursor}. Each model provides its own so the cursor can read its commands
+ * without creating any objects.
+ */
+interface ITimeline {
+
+  /**
+   * Gets the number of shapes in the animation.
+   * @return the number of slots.
+   */
+  int shapeCount();
+
+  /**
+   * Gets the type of the shape in the given slot.
+   * @param slot the index of the shape.
+   * @return the type of the shape.
+   */
+  String shapeType(int slot);
+
+  /**
+   * Gets the number of commands of the shape in the given slot.
+   * @param slot the index of the shape.
+   * @return the number of commands of that shape.
+   */
+  int commandCount(int slot);
+
+  /**
+   * Gets the start time of a command.
+   * @param slot the index of the shape.
+   * @param index the index of the command within that shape's commands.
+   * @return the tick the command starts on.
+   */
+  int startTime(int slot, int index);
+
+  /**
+   * Gets the end time of a command.
+   * @param slot the index of the shape.
+   * @param index the index of the command within that shape's commands.
+   * @return the tick the command ends on.
+   */
+  int endTime(int slot, int index);
+
+  /**
+   * Checks if a command leaves the shape the same on every tick it runs.
+   * @param slot the index of the shape.
+   * @param index the index of the command within that shape's commands.
+   * @return true if the start and end values of the command are all the same.
+   */
+  boolean isStill(int slot, int index);
+
+  /**
+   * Writes the state of the shape at the given time, as set by the given command, into its slot
+   * of the frame, relative to the bounds of the model.
+   * @param slot the index of the shape.
+   * @param index the index of the command within that shape's commands.
+   * @param time the tick to sample, which must be within the command.
+   * @param frame the frame to write into.
+   */
+  void sample(int slot, int index, int time, FrameBuffer frame);
+}
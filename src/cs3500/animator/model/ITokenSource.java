@@ -0,0 +1,43 @@
+package cs3500.animator.model;
+
+/**
+ * A source of the whitespace separated words of an animation file, with the same meaning as the
+ * {@link java.util.Scanner} methods of the same names. Text from a {@code #} to the end of its line
+ * is a comment and is skipped like whitespace.
+ */
+interface ITokenSource {
+
+  /**
+   * Checks if there is another word.
+   * @return true if there is another word.
+   */
+  boolean hasNext();
+
+  /**
+   * Reads the next word.
+   * @return the next word.
+   * @throws java.util.NoSuchElementException if there are no more words.
+   */
+  String next();
+
+  /**
+   * Checks if the next word is an int.
+   * @return true if there is a next word and it is an int.
+   */
+  boolean hasNextInt();
+
+  /**
+   * Reads the next word as an int.
+   * @return the value of the next word.
+   * @throws java.util.InputMismatchException if the next word is not an int.
+   * @throws java.util.NoSuchElementException if there are no more words.
+   */
+  int nextInt();
+
+  /**
+   * Reads the rest of the current line, without the line separator.
+   * @return the rest of the line.
+   * @throws java.util.NoSuchElementException if there is no more input.
+   */
+  String nextLine();
+}
@@ -0,0 +1,592 @@
+package cs3500.animator.model;
+
+import java.awt.Color;
+import java.awt.geom.Point2D;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Represents an animation whose commands are stored in dense int columns instead of one object per
+ * command. The commands of every shape sit next to each other in the columns, in time order, and
+ * the shape in slot i owns the commands from offsets[i] up to offsets[i + 1]. Colors are packed
+ * into a single int and command types are stored as an index into a small table of names, so a
+ * command costs a fixed number of ints no matter how many there are. Read-only command objects
+ * are only created when someone asks for them through getCommands.
+ */
+public class PackedAnimationModel implements IAnimationModel {
+  private final String[] ids;
+  private final IShape[] shapes;
+  private final int[] offsets;
+  private final String[] typeNames;
+  private final byte[] types;
+  private final int[] startTime;
+  private final int[] startX;
+  private final int[] startY;
+  private final int[] startWidth;
+  private final int[] startHeight;
+  private final int[] startOrientation;
+  private final int[] startColor;
+  private final int[] endTime;
+  private final int[] endX;
+  private final int[] endY;
+  private final int[] endWidth;
+  private final int[] endHeight;
+  private final int[] endOrientation;
+  private final int[] endColor;
+  private final ShapeIntervalIndex index;
+  private final int x;
+  private final int y;
+  private final int width;
+  private final int height;
+  private final ParallelSampler sampler;
+  private volatile Map<String, IReadOnlyShape> shapeView;
+  private volatile Map<String, List<IReadOnlyRotateCommand>> commandView;
+
+  /**
+   * A private constructor that packs the commands of the given model into columns. Use
+   * {@link #copyOf(IAnimationModel)} or the {@link PackedModelBuilder} to create one.
+   * @param model the model whose shapes and commands are packed.
+   * @param sampler splits the shapes of large frames across threads.
+   */
+  private PackedAnimationModel(IAnimationModel model, ParallelSampler sampler) {
+    Map<String, IReadOnlyShape> modelShapes = model.getShapes();
+    Map<String, List<IReadOnlyRotateCommand>> modelCommands = model.getCommands();
+
+    int numShapes = modelCommands.size();
+    int numCommands = 0;
+    for (List<IReadOnlyRotateCommand> list : modelCommands.values()) {
+      numCommands += list.size();
+    }
+
+    this.ids = new String[numShapes];
+    this.shapes = new IShape[numShapes];
+    this.offsets = new int[numShapes + 1];
+    this.types = new byte[numCommands];
+    this.startTime = new int[numCommands];
+    this.startX = new int[numCommands];
+    this.startY = new int[numCommands];
+    this.startWidth = new int[numCommands];
+    this.startHeight = new int[numCommands];
+    this.startOrientation = new int[numCommands];
+    this.startColor = new int[numCommands];
+    this.endTime = new int[numCommands];
+    this.endX = new int[numCommands];
+    this.endY = new int[numCommands];
+    this.endWidth = new int[numCommands];
+    this.endHeight = new int[numCommands];
+    this.endOrientation = new int[numCommands];
+    this.endColor = new int[numCommands];
+
+    List<String> names = new ArrayList<>();
+    int slot = 0;
+    int index = 0;
+    for (Map.Entry<String, List<IReadOnlyRotateCommand>> entry : modelCommands.entrySet()) {
+      this.ids[slot] = entry.getKey();
+      this.shapes[slot] = newShape(modelShapes.get(entry.getKey()).getShapeType());
+      this.offsets[slot] = index;
+      for (IReadOnlyRotateCommand command : entry.getValue()) {
+        int type = names.indexOf(command.getType());
+        if (type == -1) {
+          type = names.size();
+          names.add(command.getType());
+        }
+        this.types[index] = (byte) type;
+        this.startTime[index] = command.getStartTime();
+        this.startX[index] = command.getStartX();
+        this.startY[index] = command.getStartY();
+        this.startWidth[index] = command.getStartWidth();
+        this.startHeight[index] = command.getStartHeight();
+        this.startOrientation[index] = command.getStartOrientation();
+        this.startColor[index] = command.getStartColor().getRGB();
+        this.endTime[index] = command.getEndTime();
+        this.endX[index] = command.getEndX();
+        this.endY[index] = command.getEndY();
+        this.endWidth[index] = command.getEndWidth();
+        this.endHeight[index] = command.getEndHeight();
+        this.endOrientation[index] = command.getEndOrientation();
+        this.endColor[index] = command.getEndColor().getRGB();
+        index++;
+      }
+      slot++;
+    }
+    this.offsets[numShapes] = index;
+    this.typeNames = names.toArray(new String[0]);
+
+    int[] lifetimeStarts = new int[numShapes];
+    int[] lifetimeEnds = new int[numShapes];
+    for (slot = 0; slot < numShapes; slot++) {
+      if (this.offsets[slot] == this.offsets[slot + 1]) {
+        lifetimeEnds[slot] = -1;
+      }
+      else {
+        lifetimeStarts[slot] = this.startTime[this.offsets[slot]];
+        lifetimeEnds[slot] = this.endTime[this.offsets[slot + 1] - 1];
+      }
+    }
+    this.index = new ShapeIntervalIndex(lifetimeStarts, lifetimeEnds);
+
+    this.x = model.getX();
+    this.y = model.getY();
+    this.width = model.getWidth();
+    this.height = model.getHeight();
+    this.sampler = sampler;
+  }
+
+  /**
+   * Creates a packed copy of the given model, with the same shapes, commands and bounds.
+   * @param model the model to copy.
+   * @return a packed model that plays the same animation.
+   */
+  public static PackedAnimationModel copyOf(IAnimationModel model) {
+    return new PackedAnimationModel(model, ParallelSampler.createDefault());
+  }
+
+  /**
+   * Creates a packed copy of the given model that samples frames with at least the given number
+   * of live shapes in parallel on the given pool.
+   * @param model the model to copy.
+   * @param pool the pool to sample large frames on.
+   * @param threshold the fewest live shapes a frame needs before it is sampled in parallel.
+   * @return a packed model that plays the same animation.
+   * @throws IllegalArgumentException if the pool is null or the threshold is not positive.
+   */
+  public static PackedAnimationModel copyOf(IAnimationModel model, ForkJoinPool pool,
+                                            int threshold) {
+    return new PackedAnimationModel(model, new ParallelSampler(pool, threshold));
+  }
+
+  // creates a new shape of the given type at its default state.
+  private static IShape newShape(String type) {
+    switch (type) {
+      case "Rectangle":
+        return new Rectangle();
+      case "Ellipse":
+        return new Ellipse();
+      default:
+        throw new IllegalArgumentException("Type is invalid");
+    }
+  }
+
+  @Override
+  public List<IReadOnlyShape> getState(int time) {
+    int[] alive = new int[this.shapes.length];
+    int count = this.index.query(time, alive);
+    List<IReadOnlyShape> output = new ArrayList<>(count);
+    if (this.sampler.shouldSplit(count)) {
+      IShape[] snapshots = new IShape[this.shapes.length];
+      this.sampler.forEach(alive, count, slot -> snapshots[slot] = this.snapshot(slot, time));
+      for (int i = 0; i < count; i++) {
+        if (snapshots[alive[i]] != null) {
+          output.add(snapshots[alive[i]]);
+        }
+      }
+    }
+    else {
+      for (int i = 0; i < count; i++) {
+        IShape shape = this.snapshot(alive[i], time);
+        if (shape != null) {
+          output.add(shape);
+        }
+      }
+    }
+    return Collections.unmodifiableList(output);
+  }
+
+  @Override
+  public void getState(int time, FrameBuffer frame) {
+    frame.resize(this.shapes.length);
+    for (int slot = 0; slot < this.shapes.length; slot++) {
+      frame.setShapeType(slot, this.shapes[slot].getShapeType());
+    }
+    int[] alive = frame.scratch();
+    int count = this.index.query(time, alive);
+    if (this.sampler.shouldSplit(count)) {
+      this.sampler.forEach(alive, count, slot -> this.sample(slot, time, frame));
+    }
+    else {
+      for (int i = 0; i < count; i++) {
+        this.sample(alive[i], time, frame);
+      }
+    }
+  }
+
+  // builds a new shape in the state the shape in the given slot is in at the given time, or
+  // returns null if it is not running a command at that time.
+  private IShape snapshot(int slot, int time) {
+    int index = this.indexOfCommand(slot, time);
+    if (index == -1 || time > this.endTime[index]) {
+      return null;
+    }
+    Point2D position = new Point2D.Double(
+            this.valueAt(index, time, this.startX, this.endX) - this.x,
+            this.valueAt(index, time, this.startY, this.endY) - this.y);
+    int width = this.valueAt(index, time, this.startWidth, this.endWidth);
+    int height = this.valueAt(index, time, this.startHeight, this.endHeight);
+    int orientation = this.valueAt(index, time, this.startOrientation, this.endOrientation);
+    Color color = new Color(this.colorAt(index, time, 16), this.colorAt(index, time, 8),
+            this.colorAt(index, time, 0));
+    if (this.shapes[slot].getShapeType().equals("Ellipse")) {
+      return new Ellipse(width, height, position, orientation, color);
+    }
+    return new Rectangle(width, height, position, orientation, color);
+  }
+
+  // writes the state of the shape in the given slot into the frame, if it is running a command at
+  // the given time.
+  private void sample(int slot, int time, FrameBuffer frame) {
+    int index = this.indexOfCommand(slot, time);
+    if (index == -1 || time > this.endTime[index]) {
+      return;
+    }
+    frame.set(slot,
+            this.valueAt(index, time, this.startX, this.endX) - this.x,
+            this.valueAt(index, time, this.startY, this.endY) - this.y,
+            this.valueAt(index, time, this.startWidth, this.endWidth),
+            this.valueAt(index, time, this.startHeight, this.endHeight),
+            this.valueAt(index, time, this.startOrientation, this.endOrientation),
+            this.colorAt(index, time, 16), this.colorAt(index, time, 8),
+            this.colorAt(index, time, 0));
+  }
+
+  @Override
+  public IPlaybackCursor cursor(int startTick) {
+    return new PlaybackCursor(new Timeline(), startTick);
+  }
+
+  // interpolates one column of the given command at the given time the same way MasterCommand
+  // does, so both models produce the same frames.
+  private int valueAt(int index, int time, int[] starts, int[] ends) {
+    int t1 = this.startTime[index];
+    int t2 = this.endTime[index];
+    if (t1 == t2) {
+      return ends[index];
+    }
+    return ((ends[index] - starts[index]) * (time - t1)) / (t2 - t1) + starts[index];
+  }
+
+  // interpolates one 8 bit channel of the packed colors of the given command.
+  private int colorAt(int index, int time, int shift) {
+    int t1 = this.startTime[index];
+    int t2 = this.endTime[index];
+    int start = (this.startColor[index] >> shift) & 0xFF;
+    int end = (this.endColor[index] >> shift) & 0xFF;
+    if (t1 == t2) {
+      return end;
+    }
+    return ((end - start) * (time - t1)) / (t2 - t1) + start;
+  }
+
+  // finds the last command of the shape in the given slot that starts at or before the given
+  // time, or -1 if every command starts after it.
+  private int indexOfCommand(int slot, int time) {
+    int low = this.offsets[slot];
+    int high = this.offsets[slot + 1] - 1;
+    int found = -1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (this.startTime[middle] <= time) {
+        found = middle;
+        low = middle + 1;
+      }
+      else {
+        high = middle - 1;
+      }
+    }
+    return found;
+  }
+
+  @Override
+  public Map<String, IReadOnlyShape> getShapes() {
+    this.buildViews();
+    return this.shapeView;
+  }
+
+  @Override
+  public IReadOnlyShape getShape(String id) {
+    return this.getShapes().get(id);
+  }
+
+  @Override
+  public Map<String, List<IReadOnlyRotateCommand>> getCommands() {
+    this.buildViews();
+    return this.commandView;
+  }
+
+  @Override
+  public List<IReadOnlyRotateCommand> getCommands(String id) {
+    return this.getCommands().get(id);
+  }
+
+  // builds the maps handed out by getShapes and getCommands the first time either is asked for.
+  // They are kept after that, since nothing in this model changes.
+  private synchronized void buildViews() {
+    if (this.shapeView != null) {
+      return;
+    }
+    LinkedHashMap<String, IReadOnlyShape> shapeMap = new LinkedHashMap<>();
+    LinkedHashMap<String, List<IReadOnlyRotateCommand>> commandMap = new LinkedHashMap<>();
+    for (int slot = 0; slot < this.shapes.length; slot++) {
+      shapeMap.put(this.ids[slot], this.shapes[slot]);
+      commandMap.put(this.ids[slot], new CommandList(slot));
+    }
+    this.commandView = Collections.unmodifiableMap(commandMap);
+    this.shapeView = Collections.unmodifiableMap(shapeMap);
+  }
+
+  @Override
+  public int getX() {
+    return this.x;
+  }
+
+  @Override
+  public int getY() {
+    return this.y;
+  }
+
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  @Override
+  public int getFinalTick() {
+    int output = 0;
+    for (int slot = 0; slot < this.shapes.length; slot++) {
+      if (this.offsets[slot + 1] > this.offsets[slot]) {
+        output = Math.max(output, this.endTime[this.offsets[slot + 1] - 1]);
+      }
+    }
+    return output;
+  }
+
+  /**
+   * The command columns of this model as seen by a playback cursor.
+   */
+  private class Timeline implements ITimeline {
+
+    @Override
+    public int shapeCount() {
+      return shapes.length;
+    }
+
+    @Override
+    public String shapeType(int slot) {
+      return shapes[slot].getShapeType();
+    }
+
+    @Override
+    public int commandCount(int slot) {
+      return offsets[slot + 1] - offsets[slot];
+    }
+
+    @Override
+    public int startTime(int slot, int index) {
+      return startTime[offsets[slot] + index];
+    }
+
+    @Override
+    public int endTime(int slot, int index) {
+      return endTime[offsets[slot] + index];
+    }
+
+    @Override
+    public boolean isStill(int slot, int index) {
+      return typeNames[types[offsets[slot] + index]].equals("Nothing");
+    }
+
+    @Override
+    public void sample(int slot, int index, int time, FrameBuffer frame) {
+      int row = offsets[slot] + index;
+      frame.set(slot,
+              valueAt(row, time, startX, endX) - x,
+              valueAt(row, time, startY, endY) - y,
+              valueAt(row, time, startWidth, endWidth),
+              valueAt(row, time, startHeight, endHeight),
+              valueAt(row, time, startOrientation, endOrientation),
+              colorAt(row, time, 16), colorAt(row, time, 8), colorAt(row, time, 0));
+    }
+  }
+
+  /**
+   * The commands of one shape, creating a read-only command for an index only when it is read.
+   */
+  private class CommandList extends AbstractList<IReadOnlyRotateCommand> {
+    private final int slot;
+
+    private CommandList(int slot) {
+      this.slot = slot;
+    }
+
+    @Override
+    public IReadOnlyRotateCommand get(int index) {
+      if (index < 0 || index >= this.size()) {
+        throw new IndexOutOfBoundsException("No command at index " + index);
+      }
+      return new PackedCommand(offsets[this.slot] + index);
+    }
+
+    @Override
+    public int size() {
+      return offsets[this.slot + 1] - offsets[this.slot];
+    }
+  }
+
+  /**
+   * A read-only view of one row of the command columns.
+   */
+  private class PackedCommand implements IReadOnlyRotateCommand {
+    private final int index;
+
+    private PackedCommand(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public int getStartTime() {
+      return startTime[this.index];
+    }
+
+    @Override
+    public int getEndTime() {
+      return endTime[this.index];
+    }
+
+    @Override
+    public String getType() {
+      return typeNames[types[this.index]];
+    }
+
+    @Override
+    public int getStartX() {
+      return startX[this.index];
+    }
+
+    @Override
+    public int getStartY() {
+      return startY[this.index];
+    }
+
+    @Override
+    public int getStartWidth() {
+      return startWidth[this.index];
+    }
+
+    @Override
+    public int getStartHeight() {
+      return startHeight[this.index];
+    }
+
+    @Override
+    public Color getStartColor() {
+      return new Color(startColor[this.index]);
+    }
+
+    @Override
+    public int getEndX() {
+      return endX[this.index];
+    }
+
+    @Override
+    public int getEndY() {
+      return endY[this.index];
+    }
+
+    @Override
+    public int getEndWidth() {
+      return endWidth[this.index];
+    }
+
+    @Override
+    public int getEndHeight() {
+      return endHeight[this.index];
+    }
+
+    @Override
+    public Color getEndColor() {
+      return new Color(endColor[this.index]);
+    }
+
+    @Override
+    public int getStartOrientation() {
+      return startOrientation[this.index];
+    }
+
+    @Override
+    public int getEndOrientation() {
+      return endOrientation[this.index];
+    }
+  }
+
+  /**
+   * A builder for a packed model. It checks every shape and motion the same way the
+   * {@link AnimationModel.AnimationModelBuilder} does, then packs the result into columns when the
+   * model is built.
+   */
+  public static class PackedModelBuilder implements AnimationBuilder {
+    private final AnimationModel.AnimationModelBuilder delegate;
+
+    /**
+     * Constructor for a builder of packed models with no shapes.
+     */
+    public PackedModelBuilder() {
+      this.delegate = new AnimationModel.AnimationModelBuilder();
+    }
+
+    @Override
+    public IAnimationModel build() {
+      return copyOf(this.delegate.build());
+    }
+
+    @Override
+    public AnimationBuilder setBounds(int x, int y, int width, int height) {
+      this.delegate.setBounds(x, y, width, height);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder declareShape(String name, String type) {
+      this.delegate.declareShape(name, type);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder addMotion(String name, int t1, int x1, int y1, int w1, int h1, int r1,
+                                      int g1, int b1, int t2, int x2, int y2, int w2, int h2,
+                                      int r2, int g2, int b2) {
+      this.delegate.addMotion(name, t1, x1, y1, w1, h1, r1, g1, b1,
+              t2, x2, y2, w2, h2, r2, g2, b2);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder addMotion(String name, int t1, int x1, int y1, int w1, int h1, int o1,
+                                      int r1, int g1, int b1, int t2, int x2, int y2, int w2,
+                                      int h2, int o2, int r2, int g2, int b2) {
+      this.delegate.addMotion(name, t1, x1, y1, w1, h1, o1, r1, g1, b1,
+              t2, x2, y2, w2, h2, o2, r2, g2, b2);
+      return this;
+    }
+
+    @Override
+    public AnimationBuilder addKeyframe(String name, int t, int x, int y, int w,
+                                        int h, int r, int g, int b) {
+      throw new UnsupportedOperationException("This method is unneeded.");
+    }
+
+    @Override
+    public AnimationBuilder startBulkLoad() {
+      this.delegate.startBulkLoad();
+      return this;
+    }
+  }
+}
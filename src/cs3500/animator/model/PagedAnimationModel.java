@@ -0,0 +1,589 @@
+package cs3500.animator.model;
+
+import java.awt.Color;
+import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents an animation that is read from a file in the binary format a page at a time, as its
+ * commands are needed, instead of being loaded all at once. Only the table of shapes stays in
+ * memory: the name and type of every shape, and the ticks covered by each page of its commands
+ * and where that page is in the file. A page is decoded the first time a frame or
+ * {@link #getCommands} needs it, and pages are kept in a cache that holds a bounded number of
+ * commands, dropping the least recently used pages first. A viewer that only looks at part of a
+ * long animation only pages in the commands running in that part, so animations with far more
+ * commands than fit on the heap can still be played and scrubbed through.
+ */
+public class PagedAnimationModel implements IAnimationModel {
+  private static final int FIELDS = BinaryAnimationFormat.FIELDS;
+  private static final int HALF = FIELDS / 2;
+
+  private final ByteBuffer bytes;
+  private final String[] ids;
+  private final IShape[] shapes;
+  private final int[] commandCounts;
+  private final int[] firstPages;
+  private final int[] pageFirstTicks;
+  private final int[] pageFirstRows;
+  private final int[] pageCounts;
+  private final int[] pageOffsets;
+  private final ShapeIntervalIndex index;
+  private final int finalTick;
+  private final int x;
+  private final int y;
+  private final int width;
+  private final int height;
+  private final ParallelSampler sampler;
+  private final PageCache pages;
+  private final Map<String, IReadOnlyShape> shapeView;
+  private final Map<String, List<IReadOnlyRotateCommand>> commandView;
+
+  /**
+   * A private constructor for a model over the given bytes of a binary animation. Use
+   * {@link #open} to create one.
+   * @param bytes the bytes of the file.
+   * @param maxCommands the most commands the page cache may hold.
+   */
+  private PagedAnimationModel(ByteBuffer bytes, int maxCommands) {
+    BinaryAnimationFormat.Header header = BinaryAnimationFormat.readHeader(bytes);
+    int numShapes = header.shapes.size();
+    this.bytes = bytes;
+    this.ids = new String[numShapes];
+    this.shapes = new IShape[numShapes];
+    this.commandCounts = new int[numShapes];
+    this.firstPages = new int[numShapes + 1];
+    int numPages = 0;
+    for (BinaryAnimationFormat.ShapeEntry entry : header.shapes) {
+      numPages += entry.pages.size();
+    }
+    this.pageFirstTicks = new int[numPages];
+    this.pageFirstRows = new int[numPages];
+    this.pageCounts = new int[numPages];
+    this.pageOffsets = new int[numPages];
+    int[] lifetimeStarts = new int[numShapes];
+    int[] lifetimeEnds = new int[numShapes];
+    int lastTick = 0;
+    int pageIndex = 0;
+    LinkedHashMap<String, IReadOnlyShape> shapeMap = new LinkedHashMap<>();
+    LinkedHashMap<String, List<IReadOnlyRotateCommand>> commandMap = new LinkedHashMap<>();
+    for (int slot = 0; slot < numShapes; slot++) {
+      BinaryAnimationFormat.ShapeEntry entry = header.shapes.get(slot);
+      this.ids[slot] = entry.name;
+      this.shapes[slot] = newShape(entry.type);
+      this.firstPages[slot] = pageIndex;
+      lifetimeStarts[slot] = 0;
+      lifetimeEnds[slot] = -1;
+      for (BinaryAnimationFormat.PageEntry page : entry.pages) {
+        if (this.commandCounts[slot] == 0) {
+          lifetimeStarts[slot] = page.firstTick;
+        }
+        lifetimeEnds[slot] = page.lastTick;
+        this.pageFirstTicks[pageIndex] = page.firstTick;
+        this.pageFirstRows[pageIndex] = this.commandCounts[slot];
+        this.pageCounts[pageIndex] = page.commandCount;
+        this.pageOffsets[pageIndex] = page.offset;
+        this.commandCounts[slot] += page.commandCount;
+        pageIndex++;
+      }
+      lastTick = Math.max(lastTick, lifetimeEnds[slot]);
+      shapeMap.put(entry.name, this.shapes[slot]);
+      commandMap.put(entry.name, new CommandList(slot));
+    }
+    this.firstPages[numShapes] = pageIndex;
+    this.index = new ShapeIntervalIndex(lifetimeStarts, lifetimeEnds);
+    this.finalTick = lastTick;
+    this.x = header.x;
+    this.y = header.y;
+    this.width = header.width;
+    this.height = header.height;
+    this.sampler = ParallelSampler.createDefault();
+    this.pages = new PageCache(maxCommands);
+    this.shapeView = Collections.unmodifiableMap(shapeMap);
+    this.commandView = Collections.unmodifiableMap(commandMap);
+  }
+
+  /**
+   * Opens the given binary animation. Only its table of shapes is read now, and each page of
+   * commands is read from the file when it is first needed.
+   * @param file the file in the binary format.
+   * @param maxCommands the most commands to keep in memory at once. A single page with more
+   *                    commands than this is still paged in, but is dropped again as soon as
+   *                    another page is needed.
+   * @return a model that plays the animation in the file.
+   * @throws IOException if the file cannot be opened or is too large to map.
+   * @throws IllegalStateException if the file is not a binary animation of a known version or
+   *                               ends early.
+   * @throws IllegalArgumentException if the number of commands to keep is not positive.
+   */
+  public static PagedAnimationModel open(Path file, int maxCommands) throws IOException {
+    if (maxCommands < 1) {
+      throw new IllegalArgumentException("The page cache must be able to hold a command");
+    }
+    ByteBuffer bytes = BinaryAnimationFormat.map(file);
+    try {
+      return new PagedAnimationModel(bytes, maxCommands);
+    } catch (BufferUnderflowException e) {
+      throw new IllegalStateException("The binary animation ended early");
+    }
+  }
+
+  // creates a new shape of the given type at its default state.
+  private static IShape newShape(String type) {
+    switch (type.toLowerCase()) {
+      case "rectangle":
+        return new Rectangle();
+      case "ellipse":
+        return new Ellipse();
+      default:
+        throw new IllegalStateException("Type is invalid");
+    }
+  }
+
+  @Override
+  public List<IReadOnlyShape> getState(int time) {
+    int[] alive = new int[this.shapes.length];
+    int count = this.index.query(time, alive);
+    List<IReadOnlyShape> output = new ArrayList<>(count);
+    if (this.sampler.shouldSplit(count)) {
+      IShape[] snapshots = new IShape[this.shapes.length];
+      this.sampler.forEach(alive, count, slot -> snapshots[slot] = this.snapshot(slot, time));
+      for (int i = 0; i < count; i++) {
+        if (snapshots[alive[i]] != null) {
+          output.add(snapshots[alive[i]]);
+        }
+      }
+    }
+    else {
+      for (int i = 0; i < count; i++) {
+        IShape shape = this.snapshot(alive[i], time);
+        if (shape != null) {
+          output.add(shape);
+        }
+      }
+    }
+    return Collections.unmodifiableList(output);
+  }
+
+  @Override
+  public void getState(int time, FrameBuffer frame) {
+    frame.resize(this.shapes.length);
+    for (int slot = 0; slot < this.shapes.length; slot++) {
+      frame.setShapeType(slot, this.shapes[slot].getShapeType());
+    }
+    int[] alive = frame.scratch();
+    int count = this.index.query(time, alive);
+    if (this.sampler.shouldSplit(count)) {
+      this.sampler.forEach(alive, count, slot -> this.sample(slot, time, frame));
+    }
+    else {
+      for (int i = 0; i < count; i++) {
+        this.sample(alive[i], time, frame);
+      }
+    }
+  }
+
+  // builds a new shape in the state the shape in the given slot is in at the given time, or
+  // returns null if it is not running a command at that time.
+  private IShape snapshot(int slot, int time) {
+    int pageIndex = this.pageAt(slot, time);
+    if (pageIndex == -1) {
+      return null;
+    }
+    int[] page = this.page(pageIndex);
+    int row = indexOfCommand(page, time);
+    if (row == -1 || time > page[row * FIELDS + HALF]) {
+      return null;
+    }
+    int i = row * FIELDS;
+    Point2D position = new Point2D.Double(valueAt(page, i, 1, time) - this.x,
+            valueAt(page, i, 2, time) - this.y);
+    Color color = new Color(valueAt(page, i, 6, time), valueAt(page, i, 7, time),
+            valueAt(page, i, 8, time));
+    if (this.shapes[slot].getShapeType().equals("Ellipse")) {
+      return new Ellipse(valueAt(page, i, 3, time), valueAt(page, i, 4, time), position,
+              valueAt(page, i, 5, time), color);
+    }
+    return new Rectangle(valueAt(page, i, 3, time), valueAt(page, i, 4, time), position,
+            valueAt(page, i, 5, time), color);
+  }
+
+  // writes the state of the shape in the given slot into the frame, if it is running a command at
+  // the given time.
+  private void sample(int slot, int time, FrameBuffer frame) {
+    int pageIndex = this.pageAt(slot, time);
+    if (pageIndex == -1) {
+      return;
+    }
+    int[] page = this.page(pageIndex);
+    int row = indexOfCommand(page, time);
+    if (row != -1 && time <= page[row * FIELDS + HALF]) {
+      this.set(page, row, time, frame, slot);
+    }
+  }
+
+  // writes the state given by a row of a page at the given time into a slot of the frame.
+  private void set(int[] page, int row, int time, FrameBuffer frame, int slot) {
+    int i = row * FIELDS;
+    frame.set(slot, valueAt(page, i, 1, time) - this.x, valueAt(page, i, 2, time) - this.y,
+            valueAt(page, i, 3, time), valueAt(page, i, 4, time), valueAt(page, i, 5, time),
+            valueAt(page, i, 6, time), valueAt(page, i, 7, time), valueAt(page, i, 8, time));
+  }
+
+  // interpolates one field of the command starting at the given index of a page at the given
+  // time the same way MasterCommand does, so this model produces the same frames as the others.
+  private static int valueAt(int[] page, int i, int field, int time) {
+    int t1 = page[i];
+    int t2 = page[i + HALF];
+    int start = page[i + field];
+    int end = page[i + HALF + field];
+    if (t1 == t2) {
+      return end;
+    }
+    return ((end - start) * (time - t1)) / (t2 - t1) + start;
+  }
+
+  // finds the last command in the page that starts at or before the given time, or -1 if every
+  // command starts after it.
+  private static int indexOfCommand(int[] page, int time) {
+    int low = 0;
+    int high = page.length / FIELDS - 1;
+    int found = -1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (page[middle * FIELDS] <= time) {
+        found = middle;
+        low = middle + 1;
+      }
+      else {
+        high = middle - 1;
+      }
+    }
+    return found;
+  }
+
+  // finds the last page of the shape in the given slot that starts at or before the given time,
+  // or -1 if every page starts after it.
+  private int pageAt(int slot, int time) {
+    int low = this.firstPages[slot];
+    int high = this.firstPages[slot + 1] - 1;
+    int found = -1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (this.pageFirstTicks[middle] <= time) {
+        found = middle;
+        low = middle + 1;
+      }
+      else {
+        high = middle - 1;
+      }
+    }
+    return found;
+  }
+
+  // finds the page of the shape in the given slot that holds the command at the given index.
+  private int pageOfRow(int slot, int index) {
+    int low = this.firstPages[slot];
+    int high = this.firstPages[slot + 1] - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (this.pageFirstRows[middle] <= index) {
+        low = middle;
+      }
+      else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  // gets the decoded commands of the given page, reading them from the file if they are not in
+  // the cache.
+  private int[] page(int pageIndex) {
+    int[] page = this.pages.get(pageIndex);
+    if (page == null) {
+      page = new int[this.pageCounts[pageIndex] * FIELDS];
+      ByteBuffer block = this.bytes.duplicate();
+      block.position(this.pageOffsets[pageIndex]);
+      BinaryAnimationFormat.decodeBlock(block, this.pageCounts[pageIndex], page);
+      this.pages.put(pageIndex, page);
+    }
+    return page;
+  }
+
+  /**
+   * Gets the number of commands currently paged in.
+   * @return the number of commands held by the page cache.
+   */
+  public int getCachedCommands() {
+    return this.pages.size();
+  }
+
+  @Override
+  public IPlaybackCursor cursor(int startTick) {
+    return new PlaybackCursor(new Timeline(), startTick);
+  }
+
+  @Override
+  public Map<String, IReadOnlyShape> getShapes() {
+    return this.shapeView;
+  }
+
+  @Override
+  public IReadOnlyShape getShape(String id) {
+    return this.shapeView.get(id);
+  }
+
+  @Override
+  public Map<String, List<IReadOnlyRotateCommand>> getCommands() {
+    return this.commandView;
+  }
+
+  @Override
+  public List<IReadOnlyRotateCommand> getCommands(String id) {
+    return this.commandView.get(id);
+  }
+
+  @Override
+  public int getX() {
+    return this.x;
+  }
+
+  @Override
+  public int getY() {
+    return this.y;
+  }
+
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  @Override
+  public int getFinalTick() {
+    return this.finalTick;
+  }
+
+  /**
+   * A bounded cache of decoded pages keyed by their index in the file. It is bounded by the total
+   * number of commands it holds, and the least recently used pages are dropped first. The most
+   * recent page is always kept, even if it alone is over the budget.
+   */
+  private static final class PageCache {
+    private final LinkedHashMap<Integer, int[]> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxCommands;
+    private int cachedCommands;
+
+    private PageCache(int maxCommands) {
+      this.maxCommands = maxCommands;
+    }
+
+    // gets the page with the given index, or null if it is not cached.
+    private synchronized int[] get(int pageIndex) {
+      return this.pages.get(pageIndex);
+    }
+
+    // stores the page with the given index and drops pages until the cache is under its budget.
+    private synchronized void put(int pageIndex, int[] page) {
+      int[] old = this.pages.put(pageIndex, page);
+      if (old != null) {
+        this.cachedCommands -= old.length / FIELDS;
+      }
+      this.cachedCommands += page.length / FIELDS;
+      while (this.cachedCommands > this.maxCommands && this.pages.size() > 1) {
+        Integer eldest = this.pages.keySet().iterator().next();
+        this.cachedCommands -= this.pages.remove(eldest).length / FIELDS;
+      }
+    }
+
+    // gets the number of commands in the cached pages.
+    private synchronized int size() {
+      return this.cachedCommands;
+    }
+  }
+
+  /**
+   * The commands of this model as seen by a playback cursor, paged in as the cursor reaches them.
+   */
+  private class Timeline implements ITimeline {
+
+    @Override
+    public int shapeCount() {
+      return shapes.length;
+    }
+
+    @Override
+    public String shapeType(int slot) {
+      return shapes[slot].getShapeType();
+    }
+
+    @Override
+    public int commandCount(int slot) {
+      return commandCounts[slot];
+    }
+
+    @Override
+    public int startTime(int slot, int index) {
+      int pageIndex = pageOfRow(slot, index);
+      return page(pageIndex)[(index - pageFirstRows[pageIndex]) * FIELDS];
+    }
+
+    @Override
+    public int endTime(int slot, int index) {
+      int pageIndex = pageOfRow(slot, index);
+      return page(pageIndex)[(index - pageFirstRows[pageIndex]) * FIELDS + HALF];
+    }
+
+    @Override
+    public boolean isStill(int slot, int index) {
+      int pageIndex = pageOfRow(slot, index);
+      int[] page = page(pageIndex);
+      int i = (index - pageFirstRows[pageIndex]) * FIELDS;
+      for (int field = 1; field < HALF; field++) {
+        if (page[i + field] != page[i + HALF + field]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public void sample(int slot, int index, int time, FrameBuffer frame) {
+      int pageIndex = pageOfRow(slot, index);
+      set(page(pageIndex), index - pageFirstRows[pageIndex], time, frame, slot);
+    }
+  }
+
+  /**
+   * The commands of one shape, paging them in when one is read. Each command read keeps the page
+   * it came from, so it stays valid after the page is dropped from the cache.
+   */
+  private class CommandList extends AbstractList<IReadOnlyRotateCommand> {
+    private final int slot;
+
+    private CommandList(int slot) {
+      this.slot = slot;
+    }
+
+    @Override
+    public IReadOnlyRotateCommand get(int index) {
+      if (index < 0 || index >= this.size()) {
+        throw new IndexOutOfBoundsException("No command at index " + index);
+      }
+      int pageIndex = pageOfRow(this.slot, index);
+      return new PagedCommand(page(pageIndex), (index - pageFirstRows[pageIndex]) * FIELDS);
+    }
+
+    @Override
+    public int size() {
+      return commandCounts[this.slot];
+    }
+  }
+
+  /**
+   * A read-only view of one row of a decoded page.
+   */
+  private static final class PagedCommand implements IReadOnlyRotateCommand {
+    private final int[] page;
+    private final int i;
+
+    private PagedCommand(int[] page, int i) {
+      this.page = page;
+      this.i = i;
+    }
+
+    @Override
+    public int getStartTime() {
+      return this.page[this.i];
+    }
+
+    @Override
+    public int getEndTime() {
+      return this.page[this.i + HALF];
+    }
+
+    @Override
+    public String getType() {
+      int[] p = this.page;
+      int s = this.i;
+      int e = this.i + HALF;
+      return AnimationModel.AnimationModelBuilder.getType(
+              p[s + 1], p[s + 2], p[s + 3], p[s + 4], p[s + 5], p[s + 6], p[s + 7], p[s + 8],
+              p[e + 1], p[e + 2], p[e + 3], p[e + 4], p[e + 5], p[e + 6], p[e + 7], p[e + 8]);
+    }
+
+    @Override
+    public int getStartX() {
+      return this.page[this.i + 1];
+    }
+
+    @Override
+    public int getStartY() {
+      return this.page[this.i + 2];
+    }
+
+    @Override
+    public int getStartWidth() {
+      return this.page[this.i + 3];
+    }
+
+    @Override
+    public int getStartHeight() {
+      return this.page[this.i + 4];
+    }
+
+    @Override
+    public Color getStartColor() {
+      return new Color(this.page[this.i + 6], this.page[this.i + 7], this.page[this.i + 8]);
+    }
+
+    @Override
+    public int getEndX() {
+      return this.page[this.i + HALF + 1];
+    }
+
+    @Override
+    public int getEndY() {
+      return this.page[this.i + HALF + 2];
+    }
+
+    @Override
+    public int getEndWidth() {
+      return this.page[this.i + HALF + 3];
+    }
+
+    @Override
+    public int getEndHeight() {
+      return this.page[this.i + HALF + 4];
+    }
+
+    @Override
+    public Color getEndColor() {
+      return new Color(this.page[this.i + HALF + 6], this.page[this.i + HALF + 7],
+              this.page[this.i + HALF + 8]);
+    }
+
+    @Override
+    public int getStartOrientation() {
+      return this.page[this.i + 5];
+    }
+
+    @Override
+    public int getEndOrientation() {
+      return this.page[this.i + HALF + 5];
+    }
+  }
+}
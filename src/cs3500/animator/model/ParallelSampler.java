@@ -0,0 +1,109 @@
+package cs3500.animator.model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Samples the shapes of a frame on a fork-join pool when there are enough of them to be worth
+ * splitting. Every shape is written to its own slot, so the chunks never touch the same data and
+ * the order of the shapes in the frame is the same as when they are sampled one at a time.
+ */
+final class ParallelSampler {
+  static final int DEFAULT_THRESHOLD = 4096;
+
+  private final ForkJoinPool pool;
+  private final int threshold;
+
+  /**
+   * Constructor for a sampler that splits frames with at least the given number of live shapes
+   * across the given pool.
+   * @param pool the pool to sample on.
+   * @param threshold the fewest live shapes a frame needs before it is sampled in parallel.
+   */
+  ParallelSampler(ForkJoinPool pool, int threshold) {
+    if (pool == null) {
+      throw new IllegalArgumentException("Must have a pool to sample on");
+    }
+    if (threshold < 1) {
+      throw new IllegalArgumentException("The threshold must be positive");
+    }
+    this.pool = pool;
+    this.threshold = threshold;
+  }
+
+  /**
+   * Creates a sampler on the common fork-join pool with the default threshold.
+   * @return the default sampler.
+   */
+  static ParallelSampler createDefault() {
+    return new ParallelSampler(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * Checks if a frame with the given number of live shapes should be sampled in parallel. Frames
+   * are never split when the pool only has one worker.
+   * @param count the number of shapes to sample.
+   * @return true if the shapes should be handed to {@link #forEach}.
+   */
+  boolean shouldSplit(int count) {
+    return count >= this.threshold && this.pool.getParallelism() > 1;
+  }
+
+  /**
+   * Runs the given task for every slot in the first count entries of the given array, splitting
+   * the work into chunks across the pool and waiting for all of them to finish.
+   * @param slots the slots to sample.
+   * @param count the number of slots to sample.
+   * @param task the work to do for each slot.
+   */
+  void forEach(int[] slots, int count, ISlotTask task) {
+    int grain = Math.max(this.threshold / 4,
+            count / (this.pool.getParallelism() * 4) + 1);
+    this.pool.invoke(new Chunk(slots, 0, count, grain, task));
+  }
+
+  /**
+   * The work to do for one slot of a frame.
+   */
+  interface ISlotTask {
+    /**
+     * Samples the shape in the given slot.
+     * @param slot the index of the shape.
+     */
+    void run(int slot);
+  }
+
+  /**
+   * A range of slots that splits itself in half until it is small enough to run directly.
+   */
+  private static final class Chunk extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int[] slots;
+    private final int from;
+    private final int to;
+    private final int grain;
+    private final ISlotTask task;
+
+    private Chunk(int[] slots, int from, int to, int grain, ISlotTask task) {
+      this.slots = slots;
+      this.from = from;
+      this.to = to;
+      this.grain = grain;
+      this.task = task;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.to - this.from <= this.grain) {
+        for (int i = this.from; i < this.to; i++) {
+          this.task.run(this.slots[i]);
+        }
+        return;
+      }
+      int middle = (this.from + this.to) >>> 1;
+      invokeAll(new Chunk(this.slots, this.from, middle, this.grain, this.task),
+              new Chunk(this.slots, middle, this.to, this.grain, this.task));
+    }
+  }
+}
@@ -0,0 +1,293 @@
+package cs3500.animator.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable map from ids to values that keeps its entries in the order they were first added,
+ * like a LinkedHashMap. Changing it with {@link #with} or {@link #without} returns a new map and
+ * leaves this one alone, and the new map shares everything but the O(log n) nodes on the paths it
+ * changed. That makes it cheap to hand out a snapshot of a growing animation after every edit.
+ * The entries are kept in a 32-way trie indexed by the position they were added at, and a
+ * red-black tree maps each id to its position. Removing an id leaves an empty position behind,
+ * and the map is rebuilt once more than half of its positions are empty.
+ * @param <V> the type of the values.
+ */
+final class PersistentMap<V> extends AbstractMap<String, V> {
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+  private static final PersistentMap<Object> EMPTY =
+          new PersistentMap<>(null, new Object[WIDTH], 0, 0, 0);
+
+  private final Node index;
+  private final Object[] root;
+  private final int shift;
+  private final int length;
+  private final int size;
+  private final Set<Map.Entry<String, V>> entries;
+
+  private PersistentMap(Node index, Object[] root, int shift, int length, int size) {
+    this.index = index;
+    this.root = root;
+    this.shift = shift;
+    this.length = length;
+    this.size = size;
+    this.entries = new Entries();
+  }
+
+  /**
+   * Gets the map with no entries.
+   * @param <V> the type of the values.
+   * @return an empty map.
+   */
+  @SuppressWarnings("unchecked")
+  static <V> PersistentMap<V> empty() {
+    return (PersistentMap<V>) EMPTY;
+  }
+
+  /**
+   * Creates a map with the given value for the given id. An id that is already in the map keeps
+   * its place in the order, and a new id goes at the end.
+   * @param id the id of the value.
+   * @param value the value to store, which must not be null.
+   * @return the changed map.
+   */
+  PersistentMap<V> with(String id, V value) {
+    if (value == null) {
+      throw new IllegalArgumentException("Cannot store a null value");
+    }
+    Map.Entry<String, V> entry = new AbstractMap.SimpleImmutableEntry<>(id, value);
+    int position = this.positionOf(id);
+    if (position != -1) {
+      return new PersistentMap<>(this.index, this.set(position, entry), this.shift, this.length,
+              this.size);
+    }
+
+    Object[] newRoot = this.root;
+    int newShift = this.shift;
+    if (this.length == 1 << (this.shift + BITS)) {
+      newRoot = new Object[WIDTH];
+      newRoot[0] = this.root;
+      newShift += BITS;
+    }
+    newRoot = setIn(newRoot, newShift, this.length, entry);
+    Node newIndex = blacken(insert(this.index, id, this.length));
+    return new PersistentMap<>(newIndex, newRoot, newShift, this.length + 1, this.size + 1);
+  }
+
+  /**
+   * Creates a map without the given id.
+   * @param id the id to remove.
+   * @return the changed map, or this map if it does not have the id.
+   */
+  PersistentMap<V> without(String id) {
+    int position = this.positionOf(id);
+    if (position == -1) {
+      return this;
+    }
+    PersistentMap<V> output = new PersistentMap<>(this.index, this.set(position, null),
+            this.shift, this.length, this.size - 1);
+    if (output.length > WIDTH && output.size < output.length / 2) {
+      PersistentMap<V> compacted = empty();
+      for (Map.Entry<String, V> entry : output.entrySet()) {
+        compacted = compacted.with(entry.getKey(), entry.getValue());
+      }
+      return compacted;
+    }
+    return output;
+  }
+
+  @Override
+  public V get(Object key) {
+    if (!(key instanceof String)) {
+      return null;
+    }
+    int position = this.positionOf((String) key);
+    return position == -1 ? null : this.entryAt(position).getValue();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key instanceof String && this.positionOf((String) key) != -1;
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  @Override
+  public Set<Map.Entry<String, V>> entrySet() {
+    return this.entries;
+  }
+
+  // finds the position of the given id, or -1 if it is not in the map or was removed.
+  private int positionOf(String id) {
+    Node node = this.index;
+    while (node != null) {
+      int compare = id.compareTo(node.id);
+      if (compare < 0) {
+        node = node.left;
+      }
+      else if (compare > 0) {
+        node = node.right;
+      }
+      else {
+        return this.entryAt(node.position) == null ? -1 : node.position;
+      }
+    }
+    return -1;
+  }
+
+  // gets the entry stored at the given position, which is null if it was removed.
+  @SuppressWarnings("unchecked")
+  private Map.Entry<String, V> entryAt(int position) {
+    Object[] node = this.root;
+    for (int level = this.shift; level > 0; level -= BITS) {
+      node = (Object[]) node[(position >>> level) & MASK];
+    }
+    return (Map.Entry<String, V>) node[position & MASK];
+  }
+
+  // copies the path to the given position with the entry replaced, returning the new root.
+  private Object[] set(int position, Map.Entry<String, V> entry) {
+    return setIn(this.root, this.shift, position, entry);
+  }
+
+  // copies the path through the given trie node down to the given position, creating nodes that
+  // do not exist yet, and returns the copy of the node.
+  private static Object[] setIn(Object[] node, int level, int position, Object value) {
+    Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+    if (level == 0) {
+      copy[position & MASK] = value;
+    }
+    else {
+      int child = (position >>> level) & MASK;
+      copy[child] = setIn((Object[]) copy[child], level - BITS, position, value);
+    }
+    return copy;
+  }
+
+  // adds the id to the tree or moves it to a new position, copying the path to it and
+  // rebalancing the copy the way Okasaki's red-black trees do.
+  private static Node insert(Node node, String id, int position) {
+    if (node == null) {
+      return new Node(true, null, id, position, null);
+    }
+    int compare = id.compareTo(node.id);
+    if (compare < 0) {
+      return balance(node.red, insert(node.left, id, position), node.id, node.position,
+              node.right);
+    }
+    else if (compare > 0) {
+      return balance(node.red, node.left, node.id, node.position,
+              insert(node.right, id, position));
+    }
+    return new Node(node.red, node.left, id, position, node.right);
+  }
+
+  // fixes a black node with a red child that has a red child of its own.
+  private static Node balance(boolean red, Node left, String id, int position, Node right) {
+    if (!red) {
+      if (isRed(left) && isRed(left.left)) {
+        return new Node(true, black(left.left), left.id, left.position,
+                new Node(false, left.right, id, position, right));
+      }
+      if (isRed(left) && isRed(left.right)) {
+        return new Node(true, new Node(false, left.left, left.id, left.position, left.right.left),
+                left.right.id, left.right.position,
+                new Node(false, left.right.right, id, position, right));
+      }
+      if (isRed(right) && isRed(right.left)) {
+        return new Node(true, new Node(false, left, id, position, right.left.left),
+                right.left.id, right.left.position,
+                new Node(false, right.left.right, right.id, right.position, right.right));
+      }
+      if (isRed(right) && isRed(right.right)) {
+        return new Node(true, new Node(false, left, id, position, right.left),
+                right.id, right.position, black(right.right));
+      }
+    }
+    return new Node(red, left, id, position, right);
+  }
+
+  // checks if the given node is red, counting missing nodes as black.
+  private static boolean isRed(Node node) {
+    return node != null && node.red;
+  }
+
+  // gets a black copy of the given node.
+  private static Node black(Node node) {
+    return new Node(false, node.left, node.id, node.position, node.right);
+  }
+
+  // makes the root of a tree black.
+  private static Node blacken(Node node) {
+    return node.red ? black(node) : node;
+  }
+
+  /**
+   * A node of the red-black tree from ids to positions.
+   */
+  private static final class Node {
+    private final boolean red;
+    private final Node left;
+    private final String id;
+    private final int position;
+    private final Node right;
+
+    private Node(boolean red, Node left, String id, int position, Node right) {
+      this.red = red;
+      this.left = left;
+      this.id = id;
+      this.position = position;
+      this.right = right;
+    }
+  }
+
+  /**
+   * The entries of the map in the order they were added.
+   */
+  private class Entries extends AbstractSet<Map.Entry<String, V>> {
+
+    @Override
+    public Iterator<Map.Entry<String, V>> iterator() {
+      return new Iterator<Map.Entry<String, V>>() {
+        private int position = this.skip(0);
+
+        @Override
+        public boolean hasNext() {
+          return this.position < length;
+        }
+
+        @Override
+        public Map.Entry<String, V> next() {
+          if (!this.hasNext()) {
+            throw new NoSuchElementException();
+          }
+          Map.Entry<String, V> entry = entryAt(this.position);
+          this.position = this.skip(this.position + 1);
+          return entry;
+        }
+
+        // finds the first position at or after the given one that has not been removed.
+        private int skip(int from) {
+          while (from < length && entryAt(from) == null) {
+            from++;
+          }
+          return from;
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
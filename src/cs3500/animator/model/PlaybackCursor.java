@@ -0,0 +1,172 @@
+package cs3500.animator.model;
+
+import java.util.Arrays;
+
+/**
+ * A sweep-line implementation of {@link IPlaybackCursor}. It keeps the command each shape is on,
+ * a min-heap of the next tick at which each shape starts, switches or ends a command, and the set
+ * of shapes whose current command is interpolating. Advancing one tick pops the shapes whose
+ * boundary has been reached and resamples only those and the interpolating shapes, so the work
+ * per tick is proportional to the shapes that actually change.
+ */
+final class PlaybackCursor implements IPlaybackCursor {
+  private static final int NONE = Integer.MAX_VALUE;
+
+  private final ITimeline timeline;
+  private final FrameBuffer frame;
+  private final int[] commandIndex;
+  private final int[] nextEvent;
+  private final int[] heap;
+  private final int[] moving;
+  private final int[] movingPosition;
+  private int heapSize;
+  private int movingSize;
+  private int tick;
+
+  /**
+   * Constructor for a cursor over the given timeline, positioned at the given tick.
+   * @param timeline the commands of the model being played.
+   * @param tick the first tick the cursor produces.
+   */
+  PlaybackCursor(ITimeline timeline, int tick) {
+    this.timeline = timeline;
+    int n = timeline.shapeCount();
+    this.frame = new FrameBuffer(n);
+    this.commandIndex = new int[n];
+    this.nextEvent = new int[n];
+    this.heap = new int[n];
+    this.moving = new int[n];
+    this.movingPosition = new int[n];
+    this.seek(tick);
+  }
+
+  @Override
+  public int getTick() {
+    return this.tick;
+  }
+
+  @Override
+  public FrameBuffer advance() {
+    int time = this.tick;
+    while (this.heapSize > 0 && this.nextEvent[this.heap[0]] <= time) {
+      int slot = this.heap[0];
+      while (this.commandIndex[slot] + 1 < this.timeline.commandCount(slot)
+              && this.timeline.startTime(slot, this.commandIndex[slot] + 1) <= time) {
+        this.commandIndex[slot]++;
+      }
+      this.update(slot, time);
+      this.siftDown(0);
+    }
+    for (int i = 0; i < this.movingSize; i++) {
+      int slot = this.moving[i];
+      this.timeline.sample(slot, this.commandIndex[slot], time, this.frame);
+    }
+    this.tick++;
+    return this.frame;
+  }
+
+  @Override
+  public void seek(int tick) {
+    int n = this.timeline.shapeCount();
+    this.tick = tick;
+    this.frame.resize(n);
+    this.heapSize = 0;
+    this.movingSize = 0;
+    Arrays.fill(this.movingPosition, -1);
+    for (int slot = 0; slot < n; slot++) {
+      this.frame.setShapeType(slot, this.timeline.shapeType(slot));
+      this.commandIndex[slot] = this.lastStartingBy(slot, tick);
+      this.update(slot, tick);
+      this.heap[this.heapSize] = slot;
+      this.heapSize++;
+    }
+    for (int i = this.heapSize / 2 - 1; i >= 0; i--) {
+      this.siftDown(i);
+    }
+  }
+
+  // samples the given slot with its current command at the given time, or hides it if that
+  // command is over, and works out the next tick at which something happens to it. Does not
+  // restore the heap order.
+  private void update(int slot, int time) {
+    int index = this.commandIndex[slot];
+    int next = index + 1 < this.timeline.commandCount(slot)
+            ? this.timeline.startTime(slot, index + 1) : NONE;
+
+    if (index != -1 && time <= this.timeline.endTime(slot, index)) {
+      this.timeline.sample(slot, index, time, this.frame);
+      int end = this.timeline.endTime(slot, index);
+      this.nextEvent[slot] = Math.min(next, end + 1);
+      if (end > time && !this.timeline.isStill(slot, index)) {
+        this.addMoving(slot);
+      }
+      else {
+        this.removeMoving(slot);
+      }
+    }
+    else {
+      this.frame.hide(slot);
+      this.nextEvent[slot] = next;
+      this.removeMoving(slot);
+    }
+  }
+
+  // finds the last command of the given slot that starts at or before the given tick.
+  private int lastStartingBy(int slot, int tick) {
+    int low = 0;
+    int high = this.timeline.commandCount(slot) - 1;
+    int found = -1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (this.timeline.startTime(slot, middle) <= tick) {
+        found = middle;
+        low = middle + 1;
+      }
+      else {
+        high = middle - 1;
+      }
+    }
+    return found;
+  }
+
+  // adds a slot to the set of interpolating shapes if it isn't already in it.
+  private void addMoving(int slot) {
+    if (this.movingPosition[slot] == -1) {
+      this.moving[this.movingSize] = slot;
+      this.movingPosition[slot] = this.movingSize;
+      this.movingSize++;
+    }
+  }
+
+  // removes a slot from the set of interpolating shapes by swapping in the last one.
+  private void removeMoving(int slot) {
+    int position = this.movingPosition[slot];
+    if (position != -1) {
+      int last = this.moving[--this.movingSize];
+      this.moving[position] = last;
+      this.movingPosition[last] = position;
+      this.movingPosition[slot] = -1;
+    }
+  }
+
+  // restores the heap order below the given position after its event moved later.
+  private void siftDown(int position) {
+    int slot = this.heap[position];
+    while (true) {
+      int child = 2 * position + 1;
+      if (child >= this.heapSize) {
+        break;
+      }
+      if (child + 1 < this.heapSize
+              && this.nextEvent[this.heap[child + 1]] < this.nextEvent[this.heap[child]]) {
+        child++;
+      }
+      if (this.nextEvent[this.heap[child]] >= this.nextEvent[slot]) {
+        break;
+      }
+      this.heap[position] = this.heap[child];
+      position = child;
+    }
+    this.heap[position] = slot;
+  }
+}
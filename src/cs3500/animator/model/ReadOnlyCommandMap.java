@@ -0,0 +1,83 @@
+package cs3500.animator.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An unmodifiable view of the commands of each shape in an animation. Nothing is copied: the view
+ * reads straight through to the map it was made from, so it always shows the commands as they are
+ * now, and each list it hands out is an unmodifiable view of the list stored in that map.
+ */
+final class ReadOnlyCommandMap extends AbstractMap<String, List<IReadOnlyRotateCommand>> {
+  private final Map<String, ? extends List<? extends IReadOnlyRotateCommand>> commands;
+  private final Set<Map.Entry<String, List<IReadOnlyRotateCommand>>> entries;
+
+  /**
+   * Constructor for a view of the given commands.
+   * @param commands the map of shape ids to their commands in time order.
+   */
+  ReadOnlyCommandMap(Map<String, ? extends List<? extends IReadOnlyRotateCommand>> commands) {
+    this.commands = commands;
+    this.entries = new Entries();
+  }
+
+  @Override
+  public List<IReadOnlyRotateCommand> get(Object key) {
+    List<? extends IReadOnlyRotateCommand> list = this.commands.get(key);
+    if (list == null) {
+      return null;
+    }
+    return Collections.<IReadOnlyRotateCommand>unmodifiableList(list);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return this.commands.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return this.commands.size();
+  }
+
+  @Override
+  public Set<Map.Entry<String, List<IReadOnlyRotateCommand>>> entrySet() {
+    return this.entries;
+  }
+
+  /**
+   * The entries of the view, in the order of the map it reads from.
+   */
+  private class Entries extends AbstractSet<Map.Entry<String, List<IReadOnlyRotateCommand>>> {
+
+    @Override
+    public Iterator<Map.Entry<String, List<IReadOnlyRotateCommand>>> iterator() {
+      Iterator<? extends Map.Entry<String, ? extends List<? extends IReadOnlyRotateCommand>>>
+              iterator = commands.entrySet().iterator();
+      return new Iterator<Map.Entry<String, List<IReadOnlyRotateCommand>>>() {
+        @Override
+        public boolean hasNext() {
+          return iterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, List<IReadOnlyRotateCommand>> next() {
+          Map.Entry<String, ? extends List<? extends IReadOnlyRotateCommand>> entry =
+                  iterator.next();
+          return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(),
+                  Collections.<IReadOnlyRotateCommand>unmodifiableList(entry.getValue()));
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return commands.size();
+    }
+  }
+}
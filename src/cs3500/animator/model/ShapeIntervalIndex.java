@@ -0,0 +1,157 @@
+package cs3500.animator.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A centered interval tree over the lifetimes of the shapes in an animation, where a shape's
+ * lifetime runs from the start of its first command to the end of its last. Asking which shapes
+ * are alive at a tick only visits the tree nodes on one root-to-leaf path plus the shapes it
+ * reports, so a random-access query costs O(log n + k) for k live shapes instead of checking
+ * every shape. Shapes are identified by their slot, the index they were given when the index was
+ * built.
+ */
+final class ShapeIntervalIndex {
+  private final int[] starts;
+  private final int[] ends;
+  private final int[] centers;
+  private final int[] lefts;
+  private final int[] rights;
+  private final int[] firsts;
+  private final int[] lasts;
+  private final int[] byStart;
+  private final int[] byEnd;
+  private final int root;
+
+  /**
+   * Builds the tree over the given lifetimes. A slot whose end is before its start is never
+   * alive, which is how shapes without commands are represented.
+   * @param starts the first tick of each slot's lifetime.
+   * @param ends the last tick of each slot's lifetime.
+   */
+  ShapeIntervalIndex(int[] starts, int[] ends) {
+    if (starts.length != ends.length) {
+      throw new IllegalArgumentException("Every lifetime needs a start and an end");
+    }
+    this.starts = starts.clone();
+    this.ends = ends.clone();
+
+    List<Integer> slots = new ArrayList<>();
+    for (int slot = 0; slot < starts.length; slot++) {
+      if (starts[slot] <= ends[slot]) {
+        slots.add(slot);
+      }
+    }
+
+    // a tree over n intervals has at most n nodes, since every node holds at least one interval.
+    int n = slots.size();
+    this.centers = new int[n];
+    this.lefts = new int[n];
+    this.rights = new int[n];
+    this.firsts = new int[n];
+    this.lasts = new int[n];
+    this.byStart = new int[n];
+    this.byEnd = new int[n];
+    int[] counts = new int[2];
+    this.root = this.build(slots, counts);
+  }
+
+  /**
+   * Gets the number of slots this index was built over.
+   * @return the number of shapes, alive or not.
+   */
+  int size() {
+    return this.starts.length;
+  }
+
+  /**
+   * Writes the slots of the shapes that are alive at the given tick into the given array, in
+   * increasing slot order so that the shapes keep their draw order.
+   * @param time the tick to look up.
+   * @param out where to write the slots. Must have room for every slot in the index.
+   * @return the number of slots written.
+   */
+  int query(int time, int[] out) {
+    int count = 0;
+    int node = this.root;
+    while (node != -1) {
+      if (time < this.centers[node]) {
+        for (int i = this.firsts[node]; i < this.lasts[node]; i++) {
+          if (this.starts[this.byStart[i]] > time) {
+            break;
+          }
+          out[count++] = this.byStart[i];
+        }
+        node = this.lefts[node];
+      }
+      else if (time > this.centers[node]) {
+        for (int i = this.firsts[node]; i < this.lasts[node]; i++) {
+          if (this.ends[this.byEnd[i]] < time) {
+            break;
+          }
+          out[count++] = this.byEnd[i];
+        }
+        node = this.rights[node];
+      }
+      else {
+        System.arraycopy(this.byStart, this.firsts[node], out, count,
+                this.lasts[node] - this.firsts[node]);
+        count += this.lasts[node] - this.firsts[node];
+        node = -1;
+      }
+    }
+    Arrays.sort(out, 0, count);
+    return count;
+  }
+
+  // builds the subtree over the given slots and returns its node, or -1 if there are no slots.
+  // counts holds the number of nodes and the number of sorted slots handed out so far.
+  private int build(List<Integer> slots, int[] counts) {
+    if (slots.isEmpty()) {
+      return -1;
+    }
+
+    int[] endpoints = new int[slots.size() * 2];
+    for (int i = 0; i < slots.size(); i++) {
+      endpoints[2 * i] = this.starts[slots.get(i)];
+      endpoints[2 * i + 1] = this.ends[slots.get(i)];
+    }
+    Arrays.sort(endpoints);
+    int center = endpoints[slots.size()];
+
+    List<Integer> left = new ArrayList<>();
+    List<Integer> right = new ArrayList<>();
+    List<Integer> here = new ArrayList<>();
+    for (int slot : slots) {
+      if (this.ends[slot] < center) {
+        left.add(slot);
+      }
+      else if (this.starts[slot] > center) {
+        right.add(slot);
+      }
+      else {
+        here.add(slot);
+      }
+    }
+
+    int node = counts[0]++;
+    this.centers[node] = center;
+    this.firsts[node] = counts[1];
+    this.lasts[node] = counts[1] + here.size();
+    counts[1] += here.size();
+
+    here.sort((a, b) -> Integer.compare(this.starts[a], this.starts[b]));
+    for (int i = 0; i < here.size(); i++) {
+      this.byStart[this.firsts[node] + i] = here.get(i);
+    }
+    here.sort((a, b) -> Integer.compare(this.ends[b], this.ends[a]));
+    for (int i = 0; i < here.size(); i++) {
+      this.byEnd[this.firsts[node] + i] = here.get(i);
+    }
+
+    this.lefts[node] = this.build(left, counts);
+    this.rights[node] = this.build(right, counts);
+    return node;
+  }
+}
@@ -45,6 +45,24 @@ public class SuperMasterCommand extends MasterCommand implements IRotateCommand
     return super.setState(time, shape);
   }
 
+  @Override
+  public void setState(int time, FrameBuffer frame, int slot) {
+    if (time < this.startTime || time > this.endTime) {
+      throw new IllegalArgumentException("Invalid time input.");
+    }
+    frame.set(slot,
+            this.findPointAt(time, this.getStartX(), this.getEndX()),
+            this.findPointAt(time, this.getStartY(), this.getEndY()),
+            this.findPointAt(time, this.getStartWidth(), this.getEndWidth()),
+            this.findPointAt(time, this.getStartHeight(), this.getEndHeight()),
+            this.findPointAt(time, this.startOrientation, this.endOrientation),
+            this.findPointAt(time, this.getStartColor().getRed(), this.getEndColor().getRed()),
+            this.findPointAt(time, this.getStartColor().getGreen(),
+                    this.getEndColor().getGreen()),
+            this.findPointAt(time, this.getStartColor().getBlue(),
+                    this.getEndColor().getBlue()));
+  }
+
   /**
    * Gets the orientation of this command which the starting orientation the shape.
    *
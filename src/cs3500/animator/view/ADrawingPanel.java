@@ -5,6 +5,7 @@ import java.util.List;
 
 import javax.swing.JPanel;
 
+import cs3500.animator.model.FrameBuffer;
 import cs3500.animator.model.IReadOnlyShape;
 
 /**
@@ -12,10 +13,14 @@ import cs3500.animator.model.IReadOnlyShape;
  */
 public abstract class ADrawingPanel extends JPanel implements IDrawingPanel {
   protected List<IReadOnlyShape> shapes;
+  protected final FrameBuffer frame;
+  private boolean hasFrame;
 
   protected ADrawingPanel() {
     super();
     this.shapes = null;
+    this.frame = new FrameBuffer();
+    this.hasFrame = false;
   }
 
   @Override
@@ -24,14 +29,35 @@ public abstract class ADrawingPanel extends JPanel implements IDrawingPanel {
     if (this.shapes != null) {
       this.drawShapesOn(g);
     }
+    else {
+      synchronized (this.frame) {
+        if (this.hasFrame) {
+          this.drawFrameOn(g);
+        }
+      }
+    }
   }
 
   // delegates the actual painting of shapes to the extending class.
   protected abstract void drawShapesOn(Graphics g);
 
+  // delegates the actual painting of the current frame to the extending class. Called while
+  // holding the lock on the frame.
+  protected abstract void drawFrameOn(Graphics g);
+
   @Override
   public void draw(List<IReadOnlyShape> shapes) {
     this.shapes = shapes;
     this.repaint();
   }
+
+  @Override
+  public void draw(FrameBuffer frame) {
+    synchronized (this.frame) {
+      this.frame.copyFrom(frame);
+      this.hasFrame = true;
+    }
+    this.shapes = null;
+    this.repaint();
+  }
 }
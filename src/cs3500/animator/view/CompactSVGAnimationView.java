@@ -0,0 +1,281 @@
+package cs3500.animator.view;
+
+import java.util.Arrays;
+import java.util.List;
+
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IReadOnlyCommand;
+import cs3500.animator.model.IReadOnlyRotateCommand;
+
+/**
+ * Represents a view that writes the same animation as {@link SVGAnimationView} in far fewer
+ * bytes. Where the SVG view writes an animate element for every attribute each command changes,
+ * this view joins the changes one attribute goes through back to back into a single element
+ * that steps through a list of values at the given key times. Values that lie on a straight line
+ * between their neighbours are left out, as are attributes and times already given by SVG's
+ * defaults, and times are written in seconds when they are whole seconds. Each attribute still
+ * takes the same value at every moment as it does in the SVG view's document, so the two render
+ * the same.
+ */
+public class CompactSVGAnimationView extends SVGAnimationView {
+
+  /**
+   * Constructor for a compact SVG view that takes in the model for the animation and the
+   * tickspeed.
+   * @param model model used for the animation.
+   * @param ticksPerSecond is the tickspeed of the animation.
+   */
+  public CompactSVGAnimationView(IAnimationModel model, int ticksPerSecond) {
+    super(model, ticksPerSecond);
+  }
+
+  /**
+   * Constructor for a compact SVG view that writes the document to the given output as it plays.
+   * @param model model used for the animation.
+   * @param ticksPerSecond is the tickspeed of the animation.
+   * @param out where the document is written.
+   */
+  public CompactSVGAnimationView(IAnimationModel model, int ticksPerSecond, Appendable out) {
+    super(model, ticksPerSecond, out);
+  }
+
+  @Override
+  protected void appendShape(StringBuilder output, String id, String shapeType,
+                             List<IReadOnlyRotateCommand> commands) {
+    String type = getTag(shapeType);
+    boolean rect = type.equals("rect");
+    IReadOnlyCommand first = commands.get(0);
+    output.append("<").append(type).append(" id=\"").append(id);
+    if (rect) {
+      output.append("\" x=\"").append(first.getStartX() - this.x)
+              .append("\" y=\"").append(first.getStartY() - this.y)
+              .append("\" width=\"").append(first.getStartWidth())
+              .append("\" height=\"").append(first.getStartHeight());
+    }
+    else {
+      output.append("\" cx=\"").append(first.getStartX() - this.x + first.getStartWidth() / 2)
+              .append("\" cy=\"").append(first.getStartY() - this.y + first.getStartHeight() / 2)
+              .append("\" rx=\"").append(first.getStartWidth() / 2)
+              .append("\" ry=\"").append(first.getStartHeight() / 2);
+    }
+    output.append("\" fill=\"rgb(").append(first.getStartColor().getRed()).append(",")
+            .append(first.getStartColor().getGreen()).append(",")
+            .append(first.getStartColor().getBlue()).append(")\">\n");
+
+    Track horizontal = new Track(rect ? "x" : "cx", false);
+    Track vertical = new Track(rect ? "y" : "cy", false);
+    Track tall = new Track(rect ? "height" : "ry", false);
+    Track wide = new Track(rect ? "width" : "rx", false);
+    Track fill = new Track("fill", true);
+    for (IReadOnlyRotateCommand command : commands) {
+      if (command.getStartOrientation() != command.getEndOrientation()) {
+        if (rect || type.equals("ellipse")) {
+          this.appendRotation(output, command);
+        }
+        continue;
+      }
+      int begin = command.getStartTime() * this.multiplier;
+      int end = command.getEndTime() * this.multiplier;
+      if (command.getStartX() != command.getEndX()) {
+        int offset = rect ? 0 : command.getStartWidth() / 2;
+        int endOffset = rect ? 0 : command.getEndWidth() / 2;
+        horizontal.add(output, begin, end, command.getStartX() - this.x + offset, 0, 0,
+                command.getEndX() - this.x + endOffset, 0, 0);
+      }
+      if (command.getStartY() != command.getEndY()) {
+        int offset = rect ? 0 : command.getStartHeight() / 2;
+        int endOffset = rect ? 0 : command.getEndHeight() / 2;
+        vertical.add(output, begin, end, command.getStartY() - this.y + offset, 0, 0,
+                command.getEndY() - this.y + endOffset, 0, 0);
+      }
+      if (command.getStartHeight() != command.getEndHeight()) {
+        int scale = rect ? 1 : 2;
+        tall.add(output, begin, end, command.getStartHeight() / scale, 0, 0,
+                command.getEndHeight() / scale, 0, 0);
+      }
+      if (command.getStartWidth() != command.getEndWidth()) {
+        int scale = rect ? 1 : 2;
+        wide.add(output, begin, end, command.getStartWidth() / scale, 0, 0,
+                command.getEndWidth() / scale, 0, 0);
+      }
+      if (command.getStartColor().getRGB() != command.getEndColor().getRGB()) {
+        fill.add(output, begin, end, command.getStartColor().getRed(),
+                command.getStartColor().getGreen(), command.getStartColor().getBlue(),
+                command.getEndColor().getRed(), command.getEndColor().getGreen(),
+                command.getEndColor().getBlue());
+      }
+    }
+    horizontal.finish(output);
+    vertical.finish(output);
+    tall.finish(output);
+    wide.finish(output);
+    fill.finish(output);
+    output.append("</").append(type).append(">\n");
+  }
+
+  // appends a time in milliseconds, in whole seconds when it is one.
+  private static void appendTime(StringBuilder output, int millis) {
+    if (millis % 1000 == 0) {
+      output.append(millis / 1000).append("s");
+    }
+    else {
+      output.append(millis).append("ms");
+    }
+  }
+
+  // appends the given fraction of the duration of an animation as a key time, with enough
+  // decimal places to land within a hundredth of a millisecond of the exact time.
+  private static void appendKeyTime(StringBuilder output, long time, long duration) {
+    if (time == 0 || time == duration) {
+      output.append(time == 0 ? "0" : "1");
+      return;
+    }
+    int places = Long.toString(duration).length() + 2;
+    long scale = 1;
+    for (int i = 0; i < places; i++) {
+      scale *= 10;
+    }
+    long digits = (time * scale + duration / 2) / duration;
+    while (digits % 10 == 0) {
+      digits /= 10;
+      places--;
+    }
+    String text = Long.toString(digits);
+    output.append("0.");
+    for (int i = text.length(); i < places; i++) {
+      output.append('0');
+    }
+    output.append(text);
+  }
+
+  /**
+   * The changes one attribute of a shape goes through, gathered into runs that follow on from
+   * each other. A run is written as one element once the next change cannot join it: when the
+   * next change starts from a different value than the run ended on, or either of them takes no
+   * time. Between two changes in a run the attribute holds its value, just as the first change's
+   * frozen end value would have held it.
+   */
+  private static final class Track {
+    private final String attribute;
+    private final boolean color;
+    private int[] times;
+    private int[] values;
+    private int size;
+
+    private Track(String attribute, boolean color) {
+      this.attribute = attribute;
+      this.color = color;
+      this.times = new int[8];
+      this.values = new int[24];
+      this.size = 0;
+    }
+
+    // adds a change from one value to another between the given times, writing out the run so
+    // far first if the change does not follow on from it. Values without color use only the
+    // first of their three parts.
+    private void add(StringBuilder output, int begin, int end, int fromA, int fromB, int fromC,
+                     int toA, int toB, int toC) {
+      if (this.size > 0) {
+        int last = this.size - 1;
+        boolean follows = begin >= this.times[last] && end > begin
+                && this.values[3 * last] == fromA && this.values[3 * last + 1] == fromB
+                && this.values[3 * last + 2] == fromC;
+        if (!follows) {
+          this.finish(output);
+        }
+      }
+      if (this.size == 0 || this.times[this.size - 1] != begin) {
+        this.addPoint(begin, fromA, fromB, fromC);
+      }
+      this.addPoint(end, toA, toB, toC);
+      if (end == begin) {
+        this.finish(output);
+      }
+    }
+
+    // adds a value at a time to the run, replacing the last value if it lies on a straight line
+    // between the one before it and the new one.
+    private void addPoint(int time, int a, int b, int c) {
+      if (this.size >= 2 && this.isBetween(time, a, b, c)) {
+        this.size--;
+      }
+      if (this.size == this.times.length) {
+        this.times = Arrays.copyOf(this.times, 2 * this.size);
+        this.values = Arrays.copyOf(this.values, 6 * this.size);
+      }
+      this.times[this.size] = time;
+      this.values[3 * this.size] = a;
+      this.values[3 * this.size + 1] = b;
+      this.values[3 * this.size + 2] = c;
+      this.size++;
+    }
+
+    // checks if the last point of the run lies on the line from the point before it to the new
+    // point, so that interpolating straight across it gives the same values.
+    private boolean isBetween(int time, int a, int b, int c) {
+      int middle = this.size - 1;
+      long before = this.times[middle] - this.times[middle - 1];
+      long after = time - this.times[middle];
+      return before > 0 && after > 0 && this.isBetween(middle, 0, before, after, a)
+              && this.isBetween(middle, 1, before, after, b)
+              && this.isBetween(middle, 2, before, after, c);
+    }
+
+    // checks if one part of the point at the given index changes at the same rate before and
+    // after it.
+    private boolean isBetween(int middle, int part, long before, long after, int next) {
+      long rise = this.values[3 * middle + part] - this.values[3 * (middle - 1) + part];
+      long nextRise = next - this.values[3 * middle + part];
+      return rise * after == nextRise * before;
+    }
+
+    // writes the run so far as one element and starts a new one.
+    private void finish(StringBuilder output) {
+      if (this.size == 0) {
+        return;
+      }
+      int begin = this.times[0];
+      int duration = this.times[this.size - 1] - begin;
+      output.append("<animate attributeName=\"").append(this.attribute).append("\" begin=\"");
+      appendTime(output, begin);
+      output.append("\" dur=\"");
+      appendTime(output, duration);
+      if (this.size == 2) {
+        output.append("\" from=\"");
+        this.appendValue(output, 0);
+        output.append("\" to=\"");
+        this.appendValue(output, 1);
+      }
+      else {
+        output.append("\" values=\"");
+        for (int i = 0; i < this.size; i++) {
+          if (i > 0) {
+            output.append(';');
+          }
+          this.appendValue(output, i);
+        }
+        output.append("\" keyTimes=\"");
+        for (int i = 0; i < this.size; i++) {
+          if (i > 0) {
+            output.append(';');
+          }
+          appendKeyTime(output, this.times[i] - begin, duration);
+        }
+      }
+      output.append("\" fill=\"freeze\"/>\n");
+      this.size = 0;
+    }
+
+    // appends the value at the given index of the run.
+    private void appendValue(StringBuilder output, int i) {
+      if (this.color) {
+        output.append("rgb(").append(this.values[3 * i]).append(",")
+                .append(this.values[3 * i + 1]).append(",").append(this.values[3 * i + 2])
+                .append(")");
+      }
+      else {
+        output.append(this.values[3 * i]);
+      }
+    }
+  }
+}
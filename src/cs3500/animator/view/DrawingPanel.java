@@ -8,6 +8,7 @@ import cs3500.animator.model.IReadOnlyShape;
  * Represents a drawing panel for the GUI view, which draws the shapes at each tick of an animation.
  */
 public class DrawingPanel extends ADrawingPanel implements IDrawingPanel {
+  private final FramePainter painter;
 
   /**
    * A default constructor for a drawing panel which just calls the default constructor
@@ -15,6 +16,7 @@ public class DrawingPanel extends ADrawingPanel implements IDrawingPanel {
    */
   public DrawingPanel() {
     super();
+    this.painter = new FramePainter();
   }
 
   @Override
@@ -25,4 +27,9 @@ public class DrawingPanel extends ADrawingPanel implements IDrawingPanel {
       shape.draw(g2D);
     }
   }
+
+  @Override
+  protected void drawFrameOn(Graphics g) {
+    this.painter.paint((Graphics2D) g, this.frame);
+  }
 }
@@ -25,6 +25,7 @@ import javax.swing.event.ListSelectionListener;
 
 import cs3500.animator.controller.IRotateKeyframe;
 import cs3500.animator.controller.RotateKeyframe;
+import cs3500.animator.model.FrameBuffer;
 import cs3500.animator.model.IReadOnlyShape;
 
 /**
@@ -235,6 +236,11 @@ public class EditingView extends JFrame implements IEditableView, ListSelectionL
     this.drawingPanel.draw(shapes);
   }
 
+  @Override
+  public void display(FrameBuffer frame) {
+    this.drawingPanel.draw(frame);
+  }
+
   @Override
   public List<IShapeCell> getShapes() {
     List<IShapeCell> output = new ArrayList<>();
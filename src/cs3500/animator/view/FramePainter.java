@@ -0,0 +1,69 @@
+package cs3500.animator.view;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+
+import cs3500.animator.model.FrameBuffer;
+
+/**
+ * Paints the visible shapes of a frame onto a graphics context, in the order of their slots.
+ * The color of each slot is kept between frames, so painting a frame doesn't create a color for
+ * every shape. A painter is not safe to share between threads.
+ */
+final class FramePainter {
+  private Color[] colors;
+
+  /**
+   * Constructor for a painter that has not painted a frame yet.
+   */
+  FramePainter() {
+    this.colors = new Color[0];
+  }
+
+  /**
+   * Paints the given frame.
+   * @param g the graphics context to paint on.
+   * @param frame the frame to paint.
+   */
+  void paint(Graphics2D g, FrameBuffer frame) {
+    if (this.colors.length < frame.getSize()) {
+      this.colors = new Color[frame.getSize()];
+    }
+    for (int i = 0; i < frame.getSize(); i++) {
+      if (!frame.isVisible(i)) {
+        continue;
+      }
+      g.setColor(this.colorOf(frame, i));
+
+      int x = frame.getX(i);
+      int y = frame.getY(i);
+      int width = frame.getWidth(i);
+      int height = frame.getHeight(i);
+      double theta = Math.toRadians(frame.getOrientation(i));
+      double centerX = x + ((double) width) / 2;
+      double centerY = y + ((double) height) / 2;
+
+      if (theta != 0) {
+        g.rotate(theta, centerX, centerY);
+      }
+      if (frame.getShapeType(i).equals("Ellipse")) {
+        g.fillOval(x, y, width, height);
+      }
+      else {
+        g.fillRect(x, y, width, height);
+      }
+      if (theta != 0) {
+        g.rotate(-theta, centerX, centerY);
+      }
+    }
+  }
+
+  // reuses the color last used for this slot if it has not changed.
+  private Color colorOf(FrameBuffer frame, int slot) {
+    int rgb = frame.getColor(slot);
+    if (this.colors[slot] == null || this.colors[slot].getRGB() != rgb) {
+      this.colors[slot] = new Color(rgb);
+    }
+    return this.colors[slot];
+  }
+}
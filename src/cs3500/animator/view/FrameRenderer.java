@@ -0,0 +1,96 @@
+package cs3500.animator.view;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.ExecutorService;
+
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IPlaybackCursor;
+
+/**
+ * Draws the ticks of an animation into an image offscreen, without a window, so it works when
+ * there is no display. The renderer keeps its own image and playback cursor and draws every tick
+ * into the same image, so a renderer belongs to one thread at a time; render from several
+ * threads by giving each its own renderer. Shapes are filled by a {@link Rasterizer} straight
+ * into the image's pixels rather than through a graphics context, or by a {@link TiledRenderer}
+ * that splits each frame among several workers.
+ */
+final class FrameRenderer {
+  private static final int TILE_SIZE = 256;
+
+  private final IPlaybackCursor cursor;
+  private final BufferedImage image;
+  private final Rasterizer rasterizer;
+  private final TiledRenderer tiles;
+
+  /**
+   * Constructor for a renderer that draws the given animation into an image the size of its
+   * bounds, with a white background.
+   * @param model the animation to draw.
+   */
+  FrameRenderer(IAnimationModel model) {
+    this(model, null, 1);
+  }
+
+  /**
+   * Constructor for a renderer that draws the given animation into an image the size of its
+   * bounds, with a white background, splitting each frame into tiles drawn by several workers.
+   * @param model the animation to draw.
+   * @param executor runs the workers, or null to draw each frame on the calling thread.
+   * @param workers how many tiles are drawn at once; with one worker each frame is drawn on the
+   *                calling thread.
+   */
+  FrameRenderer(IAnimationModel model, ExecutorService executor, int workers) {
+    if (model == null) {
+      throw new IllegalArgumentException("Model must not be null.");
+    }
+    if (model.getWidth() <= 0 || model.getHeight() <= 0) {
+      throw new IllegalArgumentException("The animation has no area to draw.");
+    }
+    this.cursor = model.cursor(0);
+    this.image = new BufferedImage(model.getWidth(), model.getHeight(),
+            BufferedImage.TYPE_INT_RGB);
+    if (executor == null || workers <= 1) {
+      this.rasterizer = new Rasterizer(this.getPixels(), model.getWidth(), model.getHeight());
+      this.tiles = null;
+    }
+    else {
+      this.rasterizer = null;
+      this.tiles = new TiledRenderer(this.getPixels(), model.getWidth(), model.getHeight(),
+              TILE_SIZE, executor, workers);
+    }
+  }
+
+  /**
+   * Draws the animation at the given tick. Rendering the tick after the last one rendered just
+   * moves the cursor forward, while any other tick makes the cursor look every shape up again.
+   * @param tick the tick to draw.
+   * @return the image the tick was drawn into, which is drawn over by the next call.
+   */
+  BufferedImage render(int tick) {
+    if (tick < 0) {
+      throw new IllegalArgumentException("Cannot render a negative tick.");
+    }
+    if (this.cursor.getTick() != tick) {
+      this.cursor.seek(tick);
+    }
+    if (this.tiles != null) {
+      this.tiles.render(this.cursor.advance());
+    }
+    else {
+      this.rasterizer.clear(0xFFFFFF);
+      this.rasterizer.paint(this.cursor.advance());
+    }
+    return this.image;
+  }
+
+  /**
+   * Gets the pixels of the image this renderer draws into, one int per pixel, row by row, with
+   * the color in its low 24 bits as 0xRRGGBB. Changing them changes the image, but each call to
+   * {@link #render} draws every pixel again.
+   * @return the pixels of the last rendered tick.
+   */
+  int[] getPixels() {
+    return ((DataBufferInt) this.image.getRaster().getDataBuffer()).getData();
+  }
+}
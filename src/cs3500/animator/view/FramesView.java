@@ -0,0 +1,117 @@
+package cs3500.animator.view;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import cs3500.animator.model.IAnimationModel;
+
+/**
+ * Represents a view that renders every tick of an animation offscreen and writes it to a
+ * directory as a numbered sequence of PNG images, {@code frame-00000.png} for tick 0 and so on,
+ * with the numbers padded to the same width. The view never opens a window, so it can run on a
+ * machine without a display. Frames are drawn and encoded by several workers at once; each
+ * worker has its own image and playback cursor and takes the ticks a run at a time, so most
+ * frames only move its cursor forward by one tick.
+ */
+public class FramesView implements IView {
+  private static final int TICKS_PER_RUN = 32;
+
+  private final IAnimationModel model;
+  private final Path directory;
+  private final ExecutorService executor;
+  private final int workers;
+
+  /**
+   * Constructor for a frames view that renders on the given executor.
+   * @param model the animation to render.
+   * @param directory the directory the images are written to, created if it does not exist.
+   * @param executor runs the workers that render the frames.
+   * @param workers the number of frames rendered at once.
+   */
+  public FramesView(IAnimationModel model, Path directory, ExecutorService executor,
+                    int workers) {
+    if (model == null || directory == null || executor == null) {
+      throw new IllegalArgumentException("Arguments must not be null.");
+    }
+    if (workers <= 0) {
+      throw new IllegalArgumentException("Must render with at least one worker.");
+    }
+    this.model = model;
+    this.directory = directory;
+    this.executor = executor;
+    this.workers = workers;
+  }
+
+  /**
+   * Renders every tick from 0 to the final tick of the animation and waits for all of them to be
+   * written.
+   * @throws IllegalStateException if a frame could not be written or rendering was interrupted.
+   */
+  @Override
+  public void play() {
+    try {
+      Files.createDirectories(this.directory);
+    }
+    catch (IOException e) {
+      throw new IllegalStateException("Could not create " + this.directory, e);
+    }
+    int finalTick = this.model.getFinalTick();
+    String format = "frame-%0" + Math.max(5, Integer.toString(finalTick).length()) + "d.png";
+    AtomicInteger next = new AtomicInteger(0);
+    List<Future<?>> running = new ArrayList<>();
+    for (int i = 0; i < this.workers; i++) {
+      running.add(this.executor.submit(() -> this.render(next, finalTick, format)));
+    }
+    try {
+      for (Future<?> worker : running) {
+        worker.get();
+      }
+    }
+    catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Could not render the frames", e.getCause());
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while rendering the frames", e);
+    }
+    finally {
+      for (Future<?> worker : running) {
+        worker.cancel(true);
+      }
+    }
+  }
+
+  // renders runs of ticks until every tick up to the final one has been taken, giving up early
+  // once another worker has failed.
+  private void render(AtomicInteger next, int finalTick, String format) {
+    FrameRenderer renderer = new FrameRenderer(this.model);
+    int start = next.getAndAdd(TICKS_PER_RUN);
+    while (start <= finalTick && !Thread.currentThread().isInterrupted()) {
+      int end = Math.min(finalTick, start + TICKS_PER_RUN - 1);
+      for (int tick = start; tick <= end; tick++) {
+        Path file = this.directory.resolve(String.format(format, tick));
+        try {
+          if (!ImageIO.write(renderer.render(tick), "png", file.toFile())) {
+            throw new IllegalStateException("There is no PNG writer available");
+          }
+        }
+        catch (IOException e) {
+          throw new IllegalStateException("Could not write " + file, e);
+        }
+      }
+      start = next.getAndAdd(TICKS_PER_RUN);
+    }
+  }
+}
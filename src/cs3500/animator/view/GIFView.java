@@ -0,0 +1,355 @@
+package cs3500.animator.view;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.IndexColorModel;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOInvalidTreeException;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+
+import cs3500.animator.model.FrameBuffer;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IPlaybackCursor;
+import cs3500.animator.model.IReadOnlyRotateCommand;
+
+/**
+ * Represents a view that writes an animation as a looping animated GIF. Ticks are sampled at the
+ * given speed, as often as a GIF can show them: every tick while a tick lasts at least two
+ * hundredths of a second, and every few ticks when ticks are shorter, with each frame shown for
+ * as long as its ticks would have lasted.
+ *
+ * <p>Frames are drawn offscreen on the given executor while the calling thread encodes the ones
+ * already drawn, with a bounded queue between the two. Shapes are drawn without antialiasing, so
+ * a frame only holds the colors of its shapes and the white background. Frames are drawn
+ * straight onto a palette that has all of those colors, so the writer never has to quantize
+ * them. The first palette holds every color the commands start and end with and becomes the
+ * GIF's global color table, so every frame that needs no other colors is written without a color
+ * table of its own, and a scene whose colors never change is written with a single one. A frame
+ * caught partway through a change of color gets the last palette it fits in, or that palette
+ * with its colors added, or just its own colors once that would take more than 256; frames with
+ * more than 256 colors of their own are left to the writer to quantize.</p>
+ */
+public class GIFView implements IView {
+  private static final int MIN_DELAY = 2;
+  private static final int MAX_COLORS = 256;
+  private static final Frame END = new Frame(null, 0);
+
+  private final IAnimationModel model;
+  private final int ticksPerSecond;
+  private final OutputStream out;
+  private final ExecutorService executor;
+  private final int maxPending;
+
+  /**
+   * Constructor for a GIF view that draws its frames on the given executor.
+   * @param model the animation to write.
+   * @param ticksPerSecond is the tickspeed of the animation.
+   * @param out where the GIF is written; it is not closed.
+   * @param executor runs the drawing of the frames.
+   * @param maxPending the most frames drawn and waiting to be encoded at once.
+   */
+  public GIFView(IAnimationModel model, int ticksPerSecond, OutputStream out,
+                 ExecutorService executor, int maxPending) {
+    if (model == null || out == null || executor == null) {
+      throw new IllegalArgumentException("Arguments must not be null.");
+    }
+    if (ticksPerSecond <= 0) {
+      throw new IllegalArgumentException("Ticks per second must be positive.");
+    }
+    if (maxPending <= 0) {
+      throw new IllegalArgumentException("Must have room for at least one frame.");
+    }
+    if (model.getWidth() <= 0 || model.getHeight() <= 0) {
+      throw new IllegalArgumentException("The animation has no area to draw.");
+    }
+    this.model = model;
+    this.ticksPerSecond = ticksPerSecond;
+    this.out = out;
+    this.executor = executor;
+    this.maxPending = maxPending;
+  }
+
+  /**
+   * Gets the number of ticks between the frames this view writes.
+   * @return the fewest ticks that last at least two hundredths of a second.
+   */
+  public int getTicksPerFrame() {
+    return Math.max(1, (MIN_DELAY * this.ticksPerSecond + 99) / 100);
+  }
+
+  /**
+   * Draws and encodes every frame, returning once the whole GIF has been written.
+   * @throws IllegalStateException if the GIF could not be written or writing was interrupted.
+   */
+  @Override
+  public void play() {
+    BlockingQueue<Frame> frames = new ArrayBlockingQueue<>(this.maxPending);
+    ConcurrentLinkedQueue<BufferedImage> spare = new ConcurrentLinkedQueue<>();
+    Future<?> drawing = this.executor.submit(() -> this.draw(frames, spare));
+    try {
+      this.encode(frames, spare);
+      drawing.get();
+    }
+    catch (IOException e) {
+      throw new IllegalStateException("Could not write the GIF", e);
+    }
+    catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Could not draw the GIF", e.getCause());
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while writing the GIF", e);
+    }
+    finally {
+      drawing.cancel(true);
+    }
+  }
+
+  // draws the sampled ticks in order and hands them to the encoder, ending with END even if
+  // drawing fails so the encoder does not wait forever.
+  private void draw(BlockingQueue<Frame> frames, ConcurrentLinkedQueue<BufferedImage> spare) {
+    try {
+      int step = this.getTicksPerFrame();
+      int finalTick = this.model.getFinalTick();
+      IPlaybackCursor cursor = this.model.cursor(0);
+      FramePainter painter = new FramePainter();
+      int[] base = this.commandColors();
+      IndexColorModel basePalette = base.length <= MAX_COLORS ? paletteOf(base) : null;
+      int[] colors = base;
+      IndexColorModel palette = basePalette;
+      for (int tick = 0; tick <= finalTick; tick += step) {
+        if (cursor.getTick() != tick) {
+          cursor.seek(tick);
+        }
+        FrameBuffer frame = cursor.advance();
+        int[] needed = colorsOf(frame);
+        if (colors != base && contains(base, needed)) {
+          colors = base;
+          palette = basePalette;
+        }
+        else if (!contains(colors, needed)) {
+          int[] both = union(colors, needed);
+          colors = both.length <= MAX_COLORS ? both : needed;
+          palette = colors.length <= MAX_COLORS ? paletteOf(colors) : null;
+        }
+        BufferedImage image = this.imageFor(palette, spare);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        painter.paint(g, frame);
+        g.dispose();
+        frames.put(new Frame(image, this.delayOf(tick, Math.min(tick + step, finalTick + 1))));
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    finally {
+      if (!Thread.currentThread().isInterrupted()) {
+        try {
+          frames.put(END);
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+
+  // writes the frames as they are drawn until the last one, handing each image back to be drawn
+  // over once it has been written.
+  private void encode(BlockingQueue<Frame> frames, ConcurrentLinkedQueue<BufferedImage> spare)
+          throws IOException, InterruptedException {
+    ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+    try (ImageOutputStream stream = ImageIO.createImageOutputStream(this.out)) {
+      writer.setOutput(stream);
+      writer.prepareWriteSequence(null);
+      ImageWriteParam param = writer.getDefaultWriteParam();
+      boolean first = true;
+      for (Frame frame = frames.take(); frame != END; frame = frames.take()) {
+        IIOMetadata metadata = metadataOf(writer, param, frame, first);
+        writer.writeToSequence(new IIOImage(frame.image, null, metadata), param);
+        spare.add(frame.image);
+        first = false;
+      }
+      writer.endWriteSequence();
+    }
+    finally {
+      writer.dispose();
+    }
+  }
+
+  // takes a spare image drawn with the given palette, or creates one; a null palette gives a
+  // full color image.
+  private BufferedImage imageFor(IndexColorModel palette,
+                                 ConcurrentLinkedQueue<BufferedImage> spare) {
+    for (BufferedImage image = spare.poll(); image != null; image = spare.poll()) {
+      if (palette == null ? image.getType() == BufferedImage.TYPE_INT_RGB
+              : image.getColorModel() == palette) {
+        return image;
+      }
+    }
+    if (palette == null) {
+      return new BufferedImage(this.model.getWidth(), this.model.getHeight(),
+              BufferedImage.TYPE_INT_RGB);
+    }
+    return new BufferedImage(this.model.getWidth(), this.model.getHeight(),
+            BufferedImage.TYPE_BYTE_INDEXED, palette);
+  }
+
+  // gets how long the frame covering the ticks from start up to end is shown, in hundredths of a
+  // second, rounding the times the frames start at rather than each delay so they do not drift.
+  private int delayOf(int start, int end) {
+    long from = (start * 100L + this.ticksPerSecond / 2) / this.ticksPerSecond;
+    long to = (end * 100L + this.ticksPerSecond / 2) / this.ticksPerSecond;
+    return (int) Math.min(0xFFFF, to - from);
+  }
+
+  // gets the distinct colors the commands of the animation start and end with, and the
+  // background, in order. These are all the colors of a scene whose colors never change.
+  private int[] commandColors() {
+    int[] colors = new int[16];
+    int size = 0;
+    colors[size++] = 0xFFFFFF;
+    for (List<IReadOnlyRotateCommand> commands : this.model.getCommands().values()) {
+      for (IReadOnlyRotateCommand command : commands) {
+        if (size + 2 > colors.length) {
+          size = distinct(colors, size);
+          if (size + 2 > colors.length) {
+            colors = Arrays.copyOf(colors, 2 * colors.length);
+          }
+        }
+        colors[size++] = command.getStartColor().getRGB() & 0xFFFFFF;
+        colors[size++] = command.getEndColor().getRGB() & 0xFFFFFF;
+      }
+    }
+    return Arrays.copyOf(colors, distinct(colors, size));
+  }
+
+  // gets the distinct colors of the visible shapes in the frame and the background, in order.
+  private static int[] colorsOf(FrameBuffer frame) {
+    int[] colors = new int[frame.getSize() + 1];
+    int size = 0;
+    colors[size++] = 0xFFFFFF;
+    for (int i = 0; i < frame.getSize(); i++) {
+      if (frame.isVisible(i)) {
+        colors[size++] = frame.getColor(i) & 0xFFFFFF;
+      }
+    }
+    return Arrays.copyOf(colors, distinct(colors, size));
+  }
+
+  // sorts the first colors of the array and moves the distinct ones to the front, returning how
+  // many there are.
+  private static int distinct(int[] colors, int size) {
+    Arrays.sort(colors, 0, size);
+    int distinct = 0;
+    for (int i = 0; i < size; i++) {
+      if (distinct == 0 || colors[distinct - 1] != colors[i]) {
+        colors[distinct++] = colors[i];
+      }
+    }
+    return distinct;
+  }
+
+  // checks if every one of the needed colors is one of the given colors, both in order.
+  private static boolean contains(int[] colors, int[] needed) {
+    int i = 0;
+    for (int color : needed) {
+      while (i < colors.length && colors[i] < color) {
+        i++;
+      }
+      if (i == colors.length || colors[i] != color) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // gets the distinct colors in either of the given colors, in order.
+  private static int[] union(int[] colors, int[] others) {
+    int[] both = Arrays.copyOf(colors, colors.length + others.length);
+    System.arraycopy(others, 0, both, colors.length, others.length);
+    return Arrays.copyOf(both, distinct(both, both.length));
+  }
+
+  // creates a palette of exactly the given colors.
+  private static IndexColorModel paletteOf(int[] colors) {
+    int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(colors.length - 1));
+    return new IndexColorModel(bits, colors.length, colors, 0, false, -1,
+            DataBuffer.TYPE_BYTE);
+  }
+
+  // creates the metadata that shows a frame for its delay, making the first frame loop the GIF.
+  private static IIOMetadata metadataOf(ImageWriter writer, ImageWriteParam param, Frame frame,
+                                        boolean first) throws IIOInvalidTreeException {
+    IIOMetadata metadata = writer.getDefaultImageMetadata(
+            new ImageTypeSpecifier(frame.image), param);
+    String format = metadata.getNativeMetadataFormatName();
+    IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+
+    IIOMetadataNode control = child(root, "GraphicControlExtension");
+    control.setAttribute("disposalMethod", "none");
+    control.setAttribute("userInputFlag", "FALSE");
+    control.setAttribute("transparentColorFlag", "FALSE");
+    control.setAttribute("delayTime", Integer.toString(frame.delay));
+    control.setAttribute("transparentColorIndex", "0");
+
+    if (first) {
+      IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+      loop.setAttribute("applicationID", "NETSCAPE");
+      loop.setAttribute("authenticationCode", "2.0");
+      loop.setUserObject(new byte[] {1, 0, 0});
+      child(root, "ApplicationExtensions").appendChild(loop);
+    }
+    metadata.setFromTree(format, root);
+    return metadata;
+  }
+
+  // gets the child of the node with the given name, adding it if there is none.
+  private static IIOMetadataNode child(IIOMetadataNode node, String name) {
+    for (int i = 0; i < node.getLength(); i++) {
+      if (node.item(i).getNodeName().equals(name)) {
+        return (IIOMetadataNode) node.item(i);
+      }
+    }
+    IIOMetadataNode child = new IIOMetadataNode(name);
+    node.appendChild(child);
+    return child;
+  }
+
+  /**
+   * A drawn frame waiting to be encoded, with how long it is shown for.
+   */
+  private static final class Frame {
+    private final BufferedImage image;
+    private final int delay;
+
+    private Frame(BufferedImage image, int delay) {
+      this.image = image;
+      this.delay = delay;
+    }
+  }
+}
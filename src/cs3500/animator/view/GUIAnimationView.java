@@ -8,17 +8,20 @@ import java.awt.Dimension;
 
 import javax.swing.JFrame;
 import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
 
 import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IPlaybackCursor;
 import cs3500.animator.model.IReadOnlyCommand;
 import cs3500.animator.model.IReadOnlyRotateCommand;
-import cs3500.animator.model.IReadOnlyShape;
 
 /**
  * Represents a visual view that displays the animation as a swing animation.
  */
 public class GUIAnimationView extends JFrame implements IView {
   private IAnimationModel model;
+  private volatile IAnimationModel latest;
+  private volatile boolean loading;
   private Timer timer;
   private ADrawingPanel panel;
   private final int tempo;
@@ -31,6 +34,19 @@ public class GUIAnimationView extends JFrame implements IView {
    * @param ticksPerSecond is the tickRate of the animation that can be adjusted.
    */
   public GUIAnimationView(IAnimationModel model, int ticksPerSecond) {
+    this(model, ticksPerSecond, false);
+  }
+
+  /**
+   * Constructor for a GUIAnimation view that can start playing an animation while the rest of
+   * it is still loading. Until {@link #update} is given the whole animation, playback waits at
+   * the last tick loaded so far instead of stopping there.
+   *
+   * @param model the part of the animation loaded so far.
+   * @param ticksPerSecond is the tickRate of the animation that can be adjusted.
+   * @param loading whether more of the animation is still loading.
+   */
+  public GUIAnimationView(IAnimationModel model, int ticksPerSecond, boolean loading) {
     super();
 
     if (model == null) {
@@ -41,10 +57,12 @@ public class GUIAnimationView extends JFrame implements IView {
     }
 
     this.model = model;
+    this.latest = model;
+    this.loading = loading;
     this.tempo = ticksPerSecond;
 
     this.panel = new DrawingPanel();
-    this.panel.setPreferredSize(this.getNeededSpace());
+    this.panel.setPreferredSize(getNeededSpace(model));
 
     JScrollPane scrollPane = new JScrollPane(this.panel);
 
@@ -60,14 +78,36 @@ public class GUIAnimationView extends JFrame implements IView {
   @Override
   public void play() {
     this.setVisible(true);
-    this.timer.schedule(new DrawFrameTask(this.model.getFinalTick()), 0, 1000 / this.tempo);
+    this.timer.schedule(new DrawFrameTask(this.model), 0, 1000 / this.tempo);
+  }
+
+  /**
+   * Switches to a newer version of the animation, such as one that has loaded more of its file.
+   * Playback carries on from the same tick on the next frame, and the panel is resized to the
+   * given space, which the caller works out as the animation loads so that each update does not
+   * have to look through every command.
+   *
+   * @param model the newer version of the animation.
+   * @param neededSpace the space needed to show every shape in the newer version.
+   * @param loading whether more of the animation is still loading.
+   */
+  public void update(IAnimationModel model, Dimension neededSpace, boolean loading) {
+    if (model == null || neededSpace == null) {
+      throw new IllegalArgumentException("Arguments must not be null.");
+    }
+    this.latest = model;
+    this.loading = loading;
+    SwingUtilities.invokeLater(() -> {
+      this.panel.setPreferredSize(neededSpace);
+      this.panel.revalidate();
+    });
   }
 
   // returns a dimension exactly big enough so that no shape in the animation goes outside of it.
-  private Dimension getNeededSpace() {
+  private static Dimension getNeededSpace(IAnimationModel model) {
     int outputWidth = 0;
     int outputHeight = 0;
-    for (List<IReadOnlyRotateCommand> commandList : this.model.getCommands().values()) {
+    for (List<IReadOnlyRotateCommand> commandList : model.getCommands().values()) {
       outputWidth = Math.max(outputWidth,
               commandList.get(0).getStartX() + commandList.get(0).getStartWidth());
       outputHeight = Math.max(outputHeight,
@@ -85,26 +125,44 @@ public class GUIAnimationView extends JFrame implements IView {
    * A {@link TimerTask} that updates this visual view at each tick of the animation.
    */
   private class DrawFrameTask extends TimerTask {
-    private int tick = 0;
-    private final int finalTick;
+    private IAnimationModel model;
+    private int finalTick;
+    private IPlaybackCursor cursor;
 
-    // takes a final tick at which to stop the animation.
-    private DrawFrameTask(int finalTick) {
+    // takes the model to play, which is swapped for a newer one whenever more of it has loaded.
+    private DrawFrameTask(IAnimationModel model) {
       super();
-      this.finalTick = finalTick;
+      this.model = model;
+      this.finalTick = model.getFinalTick();
+      this.cursor = model.cursor(0);
     }
 
     /**
-     * The action to be performed by this timer task.
+     * The action to be performed by this timer task. A playback cursor moves the animation
+     * forward, so each tick only updates the shapes that change and reuses the same frame. While
+     * the animation is still loading, the last frame loaded so far stays up until more arrives.
      */
     @Override
     public void run() {
-      if (this.tick >= this.finalTick) {
+      // update sets the model before it stops loading, so once loading has stopped the model
+      // read after it is the whole animation.
+      boolean waiting = loading;
+      IAnimationModel loaded = latest;
+      if (loaded != this.model) {
+        this.model = loaded;
+        this.finalTick = loaded.getFinalTick();
+        this.cursor = loaded.cursor(this.cursor.getTick());
+      }
+      if (this.cursor.getTick() > this.finalTick) {
+        if (!waiting) {
+          timer.cancel();
+        }
+        return;
+      }
+      if (this.cursor.getTick() >= this.finalTick && !waiting) {
         timer.cancel();
       }
-      List<IReadOnlyShape> shapesAtTick = model.getState(this.tick);
-      panel.draw(shapesAtTick);
-      this.tick ++;
+      panel.draw(this.cursor.advance());
     }
   }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package cs3500.animator.view;
 
 import java.util.List;
 
+import cs3500.animator.model.FrameBuffer;
 import cs3500.animator.model.IReadOnlyShape;
 
 /**
@@ -14,4 +15,11 @@ public interface IDrawingPanel {
    * @param shapes is the list of shapes that are painted on the screen.
    */
   void draw(List<IReadOnlyShape> shapes);
+
+  /**
+   * Paints the visible shapes of the given frame onto the panel on the screen. The frame is copied,
+   * so the caller may overwrite it with the next tick as soon as this method returns.
+   * @param frame is the frame whose shapes are painted on the screen.
+   */
+  void draw(FrameBuffer frame);
 }
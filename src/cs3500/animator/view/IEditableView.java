@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 
 import cs3500.animator.controller.IRotateKeyframe;
+import cs3500.animator.model.FrameBuffer;
 import cs3500.animator.model.IReadOnlyShape;
 
 /**
@@ -19,6 +20,13 @@ public interface IEditableView extends IView {
    */
   void display(List<IReadOnlyShape> shapes);
 
+  /**
+   * Displays the visible shapes of the given frame. The frame is copied, so the caller may reuse
+   * it for the next tick.
+   * @param frame the frame to display in the view
+   */
+  void display(FrameBuffer frame);
+
   /**
    * Gets the shapes that are being displayed in the list of shapes the user sees.
    *
@@ -0,0 +1,126 @@
+package cs3500.animator.view;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+
+import cs3500.animator.model.IAnimationModel;
+
+/**
+ * Represents a view that streams every tick of an animation as an uncompressed frame, for piping
+ * into a video encoder. The stream starts with a one line header, {@code RGBA <width> <height>
+ * <ticks per second>}, followed by one frame per tick from 0 to the final tick, each frame its
+ * pixels row by row as red, green, blue and alpha bytes.
+ *
+ * <p>Frames are drawn offscreen into the same image every tick and copied in one bulk copy into
+ * the same direct buffer, which is handed to the channel as it is, so streaming makes no objects
+ * per frame. Given an executor, the view splits the drawing of each frame among several workers,
+ * which shortens the time each frame of a large canvas takes.</p>
+ */
+public class RGBAStreamView implements IView {
+  protected final IAnimationModel model;
+  protected final int ticksPerSecond;
+  private final WritableByteChannel out;
+  private final ExecutorService executor;
+  private final int workers;
+
+  /**
+   * Constructor for a view that streams the frames of the model to the given channel.
+   * @param model the animation to stream.
+   * @param ticksPerSecond is the tickspeed of the animation, which is the frame rate of the
+   *                       stream.
+   * @param out where the frames are written; it is not closed.
+   */
+  public RGBAStreamView(IAnimationModel model, int ticksPerSecond, WritableByteChannel out) {
+    this(model, ticksPerSecond, out, null, 1);
+  }
+
+  /**
+   * Constructor for a view that streams the frames of the model to the given channel, drawing
+   * each frame on several workers.
+   * @param model the animation to stream.
+   * @param ticksPerSecond is the tickspeed of the animation, which is the frame rate of the
+   *                       stream.
+   * @param out where the frames are written; it is not closed.
+   * @param executor runs the workers, or null to draw on the thread that plays the view.
+   * @param workers how many parts of a frame are drawn at once.
+   */
+  public RGBAStreamView(IAnimationModel model, int ticksPerSecond, WritableByteChannel out,
+                        ExecutorService executor, int workers) {
+    if (model == null || out == null) {
+      throw new IllegalArgumentException("Arguments must not be null.");
+    }
+    if (ticksPerSecond <= 0) {
+      throw new IllegalArgumentException("Ticks per second must be positive.");
+    }
+    this.model = model;
+    this.ticksPerSecond = ticksPerSecond;
+    this.out = out;
+    this.executor = executor;
+    this.workers = workers;
+  }
+
+  /**
+   * Writes the header and every frame of the animation.
+   * @throws IllegalStateException if the stream could not be written.
+   */
+  @Override
+  public void play() {
+    FrameRenderer renderer = new FrameRenderer(this.model, this.executor, this.workers);
+    ByteBuffer frame = ByteBuffer.allocateDirect(this.getFrameLength());
+    try {
+      this.write(ByteBuffer.wrap(this.getHeader().getBytes(StandardCharsets.US_ASCII)));
+      for (int tick = 0; tick <= this.model.getFinalTick(); tick++) {
+        renderer.render(tick);
+        frame.clear();
+        this.copyFrame(renderer.getPixels(), frame);
+        frame.flip();
+        this.write(frame);
+      }
+    }
+    catch (IOException e) {
+      throw new IllegalStateException("Could not write the frames", e);
+    }
+  }
+
+  /**
+   * Gets the header written at the start of the stream.
+   * @return the header, ending in a new line.
+   */
+  protected String getHeader() {
+    return "RGBA " + this.model.getWidth() + " " + this.model.getHeight() + " "
+            + this.ticksPerSecond + "\n";
+  }
+
+  /**
+   * Gets the number of bytes each frame takes in the stream.
+   * @return the length of one frame.
+   */
+  protected int getFrameLength() {
+    return 4 * this.model.getWidth() * this.model.getHeight();
+  }
+
+  /**
+   * Copies a rendered frame into the buffer as it is written in the stream.
+   * @param pixels the frame, one 0xRRGGBB int per pixel row by row, which may be changed.
+   * @param frame the buffer to copy into, with exactly {@link #getFrameLength()} bytes left.
+   */
+  protected void copyFrame(int[] pixels, ByteBuffer frame) {
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = pixels[i] << 8 | 0xFF;
+    }
+    IntBuffer ints = frame.asIntBuffer();
+    ints.put(pixels);
+    frame.position(frame.limit());
+  }
+
+  // writes all of the buffer, however many writes the channel takes.
+  private void write(ByteBuffer bytes) throws IOException {
+    while (bytes.hasRemaining()) {
+      this.out.write(bytes);
+    }
+  }
+}
@@ -0,0 +1,456 @@
+package cs3500.animator.view;
+
+import java.util.Arrays;
+
+import cs3500.animator.model.FrameBuffer;
+
+/**
+ * Fills rectangles and ellipses, rotated or not, straight into an array of ARGB pixels without
+ * going through Java2D. Each shape is filled a row at a time: the row's span of the shape is
+ * worked out from the shape's equation and filled with {@link Arrays#fill}, so there are no
+ * graphics contexts, transforms or paths to create.
+ *
+ * <p>Without antialiasing a pixel is filled when its center is inside the shape, which is the
+ * rule Java2D follows, so the result matches what {@link java.awt.Graphics2D#fillRect} and
+ * {@link java.awt.Graphics2D#fillOval} draw, exactly for unrotated rectangles and up to a pixel
+ * on the edges of everything else, where Java2D approximates ellipses with curves and nudges
+ * coordinates. With antialiasing each pixel on an edge is blended by how much of it the shape
+ * covers, measured on eight rows per pixel.</p>
+ *
+ * <p>Drawing can be clipped to a rectangle of the image. A shape drawn clipped fills exactly the
+ * pixels it would fill unclipped inside the clip, so several rasterizers can share one image and
+ * draw into different parts of it at the same time.</p>
+ */
+public final class Rasterizer {
+  private static final int SUBROWS = 8;
+  private static final float SHARE = 1f / SUBROWS;
+
+  private final int[] pixels;
+  private final int width;
+  private final int height;
+  private boolean antialiased;
+
+  // the part of the image drawn into: from left to right and from top to bottom, exclusive.
+  private int clipLeft;
+  private int clipTop;
+  private int clipRight;
+  private int clipBottom;
+
+  // the span of the current shape on the row last asked for, in pixel coordinates.
+  private double spanStart;
+  private double spanEnd;
+
+  // the current shape: its center, how far it reaches above and below it, and the terms that
+  // give its span on a row from how far the row is below its center.
+  private double centerX;
+  private double centerY;
+  private double reach;
+  private boolean ellipse;
+  private double quadratic;
+  private double linear;
+  private double constant;
+  private double scale;
+  private double acrossPerY;
+  private double acrossSlope;
+  private double acrossHalf;
+  private double downPerY;
+  private double downSlope;
+  private double downHalf;
+
+  // the spans of the sub-rows of the row being antialiased, and how much of each of its pixels
+  // they cover.
+  private final double[] starts;
+  private final double[] ends;
+  private final float[] area;
+
+  /**
+   * Constructor for a rasterizer that draws into a new white image of the given size.
+   * @param width the width of the image in pixels.
+   * @param height the height of the image in pixels.
+   */
+  public Rasterizer(int width, int height) {
+    this(new int[checkSize(width, height)], width, height);
+    this.clear(0xFFFFFF);
+  }
+
+  /**
+   * Constructor for a rasterizer that draws into the given pixels, stored row by row.
+   * @param pixels the pixels to draw into.
+   * @param width the width of the image in pixels.
+   * @param height the height of the image in pixels.
+   */
+  public Rasterizer(int[] pixels, int width, int height) {
+    if (pixels == null) {
+      throw new IllegalArgumentException("Pixels must not be null.");
+    }
+    if (pixels.length < checkSize(width, height)) {
+      throw new IllegalArgumentException("There are not enough pixels for the size.");
+    }
+    this.pixels = pixels;
+    this.width = width;
+    this.height = height;
+    this.antialiased = false;
+    this.clipLeft = 0;
+    this.clipTop = 0;
+    this.clipRight = width;
+    this.clipBottom = height;
+    this.starts = new double[SUBROWS];
+    this.ends = new double[SUBROWS];
+    this.area = new float[width];
+  }
+
+  /**
+   * Gets the pixels this rasterizer draws into.
+   * @return the pixels, row by row, as 0xAARRGGBB ints.
+   */
+  public int[] getPixels() {
+    return this.pixels;
+  }
+
+  /**
+   * Sets whether the edges of shapes are blended by how much of each pixel they cover.
+   * @param antialiased true to blend the edges, false to fill whole pixels.
+   */
+  public void setAntialiased(boolean antialiased) {
+    this.antialiased = antialiased;
+  }
+
+  /**
+   * Limits drawing to a rectangle of the image, or as much of it as is inside the image.
+   * @param x the left of the rectangle.
+   * @param y the top of the rectangle.
+   * @param width the width of the rectangle.
+   * @param height the height of the rectangle.
+   * @throws IllegalArgumentException if the width or height is negative.
+   */
+  public void setClip(int x, int y, int width, int height) {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("The clip must not have a negative size.");
+    }
+    this.clipLeft = Math.max(0, Math.min(this.width, x));
+    this.clipTop = Math.max(0, Math.min(this.height, y));
+    this.clipRight = (int) Math.max(this.clipLeft, Math.min(this.width, (long) x + width));
+    this.clipBottom = (int) Math.max(this.clipTop, Math.min(this.height, (long) y + height));
+  }
+
+  /**
+   * Fills the part of the image drawn into, which is the whole image unless it is clipped, with
+   * one color.
+   * @param rgb the color as 0xRRGGBB.
+   */
+  public void clear(int rgb) {
+    this.fillAlignedRect(this.clipLeft, this.clipTop, this.clipRight - this.clipLeft,
+            this.clipBottom - this.clipTop, 0xFF000000 | rgb);
+  }
+
+  /**
+   * Fills a rectangle rotated about its center.
+   * @param x the left of the rectangle before it is rotated.
+   * @param y the top of the rectangle before it is rotated.
+   * @param width the width of the rectangle.
+   * @param height the height of the rectangle.
+   * @param degrees how far the rectangle is rotated clockwise.
+   * @param rgb the color as 0xRRGGBB.
+   */
+  public void fillRect(int x, int y, int width, int height, double degrees, int rgb) {
+    if (width <= 0 || height <= 0) {
+      return;
+    }
+    if (degrees % 360 == 0 && !this.antialiased) {
+      this.fillAlignedRect(x, y, width, height, 0xFF000000 | rgb);
+      return;
+    }
+    if (this.setShape(x, y, width, height, degrees, false)) {
+      this.fill(0xFF000000 | rgb);
+    }
+  }
+
+  /**
+   * Fills an ellipse rotated about its center.
+   * @param x the left of the ellipse's bounds before it is rotated.
+   * @param y the top of the ellipse's bounds before it is rotated.
+   * @param width the width of the ellipse.
+   * @param height the height of the ellipse.
+   * @param degrees how far the ellipse is rotated clockwise.
+   * @param rgb the color as 0xRRGGBB.
+   */
+  public void fillEllipse(int x, int y, int width, int height, double degrees, int rgb) {
+    if (width <= 0 || height <= 0) {
+      return;
+    }
+    if (this.setShape(x, y, width, height, degrees, true)) {
+      this.fill(0xFF000000 | rgb);
+    }
+  }
+
+  /**
+   * Fills the visible shapes of a frame in the order of their slots, the same way the visual
+   * view draws them.
+   * @param frame the frame to draw.
+   */
+  public void paint(FrameBuffer frame) {
+    for (int i = 0; i < frame.getSize(); i++) {
+      if (frame.isVisible(i)) {
+        this.paint(frame, i);
+      }
+    }
+  }
+
+  /**
+   * Fills the shape in one slot of a frame, whether or not it is visible.
+   * @param frame the frame the shape is in.
+   * @param slot the slot of the shape.
+   */
+  void paint(FrameBuffer frame, int slot) {
+    if (frame.getShapeType(slot).equals("Ellipse")) {
+      this.fillEllipse(frame.getX(slot), frame.getY(slot), frame.getWidth(slot),
+              frame.getHeight(slot), frame.getOrientation(slot), frame.getColor(slot) & 0xFFFFFF);
+    }
+    else {
+      this.fillRect(frame.getX(slot), frame.getY(slot), frame.getWidth(slot),
+              frame.getHeight(slot), frame.getOrientation(slot), frame.getColor(slot) & 0xFFFFFF);
+    }
+  }
+
+  // checks that the size is positive and small enough to fit in an array, returning the number
+  // of pixels.
+  private static int checkSize(int width, int height) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("The image must have a positive size.");
+    }
+    if ((long) width * height > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("The image is too large.");
+    }
+    return width * height;
+  }
+
+  // fills the pixels of an unrotated rectangle that are inside the clip.
+  private void fillAlignedRect(int x, int y, int width, int height, int argb) {
+    int left = Math.max(this.clipLeft, x);
+    int right = (int) Math.min(this.clipRight, (long) x + width);
+    int top = Math.max(this.clipTop, y);
+    int bottom = (int) Math.min(this.clipBottom, (long) y + height);
+    if (left >= right) {
+      return;
+    }
+    for (int row = top; row < bottom; row++) {
+      Arrays.fill(this.pixels, row * this.width + left, row * this.width + right, argb);
+    }
+  }
+
+  // makes the given shape the current one, returning false if it has no area. Without
+  // antialiasing Java2D nudges the corners of a rotated rectangle to a quarter past a whole pixel,
+  // keeping it a parallelogram, and fills curves a quarter of a pixel down and to the right, so
+  // the same is done here.
+  private boolean setShape(int x, int y, int width, int height, double degrees,
+                           boolean ellipse) {
+    double theta = Math.toRadians(degrees);
+    double cos = Math.cos(theta);
+    double sin = Math.sin(theta);
+    double centerX = x + width / 2.0;
+    double centerY = y + height / 2.0;
+    double acrossX = width / 2.0 * cos;
+    double acrossY = width / 2.0 * sin;
+    double downX = -height / 2.0 * sin;
+    double downY = height / 2.0 * cos;
+    if (!this.antialiased && ellipse) {
+      centerX += 0.25;
+      centerY += 0.25;
+    }
+    else if (!this.antialiased) {
+      double cornerX = centerX - acrossX - downX;
+      double cornerY = centerY - acrossY - downY;
+      double startX = nudge(cornerX);
+      double startY = nudge(cornerY);
+      acrossX = (nudge(cornerX + 2 * acrossX) - startX) / 2;
+      acrossY = (nudge(cornerY + 2 * acrossY) - startY) / 2;
+      downX = (nudge(cornerX + 2 * downX) - startX) / 2;
+      downY = (nudge(cornerY + 2 * downY) - startY) / 2;
+      centerX = startX + acrossX + downX;
+      centerY = startY + acrossY + downY;
+    }
+    double determinant = acrossX * downY - downX * acrossY;
+    if (Math.abs(determinant) < 1e-12) {
+      return false;
+    }
+    // how far a step in x or y moves across and down the shape, in halves of its width and
+    // height.
+    double acrossPerX = downY / determinant;
+    double acrossPerY = -downX / determinant;
+    double downPerX = -acrossY / determinant;
+    double downPerY = acrossX / determinant;
+    this.centerX = centerX;
+    this.centerY = centerY;
+    this.ellipse = ellipse;
+    if (ellipse) {
+      // the points where the squares of across and down add up to at most one; along a row that
+      // is a quadratic in x.
+      double a = acrossPerX * acrossPerX + downPerX * downPerX;
+      this.quadratic = 4 * a;
+      this.linear = 2 * (acrossPerX * acrossPerY + downPerX * downPerY);
+      this.constant = acrossPerY * acrossPerY + downPerY * downPerY;
+      this.scale = 1 / (2 * a);
+      this.reach = Math.sqrt(acrossY * acrossY + downY * downY);
+    }
+    else {
+      // the points where both across and down are within one; along a row each of those is a
+      // range of x, unless that side of the rectangle is level.
+      this.acrossPerY = acrossPerY;
+      this.downPerY = downPerY;
+      this.acrossSlope = Math.abs(acrossPerX) > 1e-12 ? -acrossPerY / acrossPerX : 0;
+      this.acrossHalf = Math.abs(acrossPerX) > 1e-12 ? Math.abs(1 / acrossPerX)
+              : Double.POSITIVE_INFINITY;
+      this.downSlope = Math.abs(downPerX) > 1e-12 ? -downPerY / downPerX : 0;
+      this.downHalf = Math.abs(downPerX) > 1e-12 ? Math.abs(1 / downPerX)
+              : Double.POSITIVE_INFINITY;
+      this.reach = Math.abs(acrossY) + Math.abs(downY);
+    }
+    return true;
+  }
+
+  // moves a coordinate to the nearest quarter past a whole pixel.
+  private static double nudge(double coordinate) {
+    return Math.floor(coordinate + 0.25) + 0.25;
+  }
+
+  // rounds a coordinate up to a whole pixel, without the slow path Math.ceil takes on some
+  // processors.
+  private static int ceil(double coordinate) {
+    int whole = (int) coordinate;
+    return coordinate > whole ? whole + 1 : whole;
+  }
+
+  // fills the rows of the clip the current shape reaches.
+  private void fill(int argb) {
+    int top = (int) Math.max(this.clipTop, Math.floor(this.centerY - this.reach));
+    int bottom = (int) Math.min(this.clipBottom, Math.ceil(this.centerY + this.reach));
+    for (int row = top; row < bottom; row++) {
+      if (this.antialiased) {
+        this.blendRow(row, argb);
+      }
+      else if (this.findSpan(row + 0.5)) {
+        int start = Math.max(this.clipLeft, ceil(this.spanStart - 0.5));
+        int end = Math.min(this.clipRight, ceil(this.spanEnd - 0.5));
+        if (start < end) {
+          Arrays.fill(this.pixels, row * this.width + start, row * this.width + end, argb);
+        }
+      }
+    }
+  }
+
+  // blends the color into one row by how much of each pixel the current shape covers. The
+  // pixels every sub-row covers completely are filled outright, so only the pixels on the edges
+  // have their coverage added up.
+  private void blendRow(int row, int argb) {
+    int first = this.clipRight;
+    int last = -1;
+    int innerStart = this.clipLeft;
+    int innerEnd = this.clipRight;
+    int count = 0;
+    for (int sub = 0; sub < SUBROWS; sub++) {
+      if (!this.findSpan(row + (sub + 0.5) / SUBROWS)) {
+        continue;
+      }
+      double start = Math.max(this.clipLeft, this.spanStart);
+      double end = Math.min(this.clipRight, this.spanEnd);
+      if (start >= end) {
+        continue;
+      }
+      this.starts[count] = start;
+      this.ends[count] = end;
+      count++;
+      first = Math.min(first, (int) start);
+      last = Math.max(last, ceil(end) - 1);
+      innerStart = Math.max(innerStart, ceil(start));
+      innerEnd = Math.min(innerEnd, (int) end);
+    }
+    if (count == 0) {
+      return;
+    }
+    if (count < SUBROWS || innerStart >= innerEnd) {
+      innerStart = last + 1;
+      innerEnd = last + 1;
+    }
+    for (int i = 0; i < count; i++) {
+      this.addCoverage(this.starts[i], this.ends[i], first, innerStart);
+      this.addCoverage(this.starts[i], this.ends[i], innerEnd, last + 1);
+    }
+    int offset = row * this.width;
+    this.blendCoverage(offset, first, innerStart, argb);
+    Arrays.fill(this.pixels, offset + innerStart, offset + innerEnd, argb);
+    this.blendCoverage(offset, innerEnd, last + 1, argb);
+  }
+
+  // adds how much of each pixel from one index up to another a sub-row's span covers.
+  private void addCoverage(double start, double end, int from, int to) {
+    int stop = Math.min(to, ceil(end));
+    for (int i = Math.max(from, (int) start); i < stop; i++) {
+      double right = end < i + 1 ? end : i + 1;
+      double left = start > i ? start : i;
+      this.area[i] += (float) (right - left) * SHARE;
+    }
+  }
+
+  // blends the color into the pixels of the row from one index up to another by the coverage
+  // added up for them, and clears it for the next row.
+  private void blendCoverage(int offset, int from, int to, int argb) {
+    for (int i = from; i < to; i++) {
+      int alpha = (int) (this.area[i] * 255 + 0.5f);
+      this.area[i] = 0;
+      if (alpha >= 255) {
+        this.pixels[offset + i] = argb;
+      }
+      else if (alpha > 0) {
+        this.pixels[offset + i] = blend(this.pixels[offset + i], argb, alpha);
+      }
+    }
+  }
+
+  // mixes the color over the pixel, weighting the color by alpha out of 255.
+  private static int blend(int pixel, int argb, int alpha) {
+    int rest = 255 - alpha;
+    int red = divide(((argb >> 16) & 0xFF) * alpha + ((pixel >> 16) & 0xFF) * rest);
+    int green = divide(((argb >> 8) & 0xFF) * alpha + ((pixel >> 8) & 0xFF) * rest);
+    int blue = divide((argb & 0xFF) * alpha + (pixel & 0xFF) * rest);
+    return 0xFF000000 | red << 16 | green << 8 | blue;
+  }
+
+  // divides a product of two bytes by 255, rounding to the nearest, without dividing.
+  private static int divide(int product) {
+    return (product + 128 + ((product + 128) >> 8)) >> 8;
+  }
+
+  // finds where the horizontal line at the given height crosses the current shape, returning
+  // false if it misses.
+  private boolean findSpan(double y) {
+    double dy = y - this.centerY;
+    double start;
+    double end;
+    if (this.ellipse) {
+      double b = this.linear * dy;
+      double discriminant = b * b - this.quadratic * (this.constant * dy * dy - 1);
+      if (discriminant <= 0) {
+        return false;
+      }
+      double root = Math.sqrt(discriminant);
+      start = (-b - root) * this.scale;
+      end = (-b + root) * this.scale;
+    }
+    else {
+      if (Double.isInfinite(this.acrossHalf) && Math.abs(this.acrossPerY * dy) > 1
+              || Double.isInfinite(this.downHalf) && Math.abs(this.downPerY * dy) > 1) {
+        return false;
+      }
+      double acrossMiddle = this.acrossSlope * dy;
+      double downMiddle = this.downSlope * dy;
+      start = Math.max(acrossMiddle - this.acrossHalf, downMiddle - this.downHalf);
+      end = Math.min(acrossMiddle + this.acrossHalf, downMiddle + this.downHalf);
+      if (start >= end) {
+        return false;
+      }
+    }
+    this.spanStart = this.centerX + start;
+    this.spanEnd = this.centerX + end;
+    return true;
+  }
+}
@@ -1,24 +1,39 @@
 package cs3500.animator.view;
 
-import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IEditBuilder;
 import cs3500.animator.model.IReadOnlyCommand;
 import cs3500.animator.model.IReadOnlyRotateCommand;
 import cs3500.animator.model.IReadOnlyShape;
-import cs3500.animator.model.IRotateCommand;
 
 /**
  * Represents a view for the animation that writes XML to create a .svg file to view the animation.
+ * Each element is written to the output as soon as it is built, so a view given a
+ * {@link Writer} only ever holds one element of the document in memory, however big the
+ * animation is.
  */
 public class SVGAnimationView implements ITextView {
+  private static final int COMMANDS_PER_BATCH = 256;
+
   Appendable out;
   IAnimationModel model;
-  private final int multiplier;
-  private final int x;
-  private final int y;
+  protected final int multiplier;
+  protected final int x;
+  protected final int y;
+  private final StringBuilder element;
+  private final TextOutput destination;
 
 
   /**
@@ -27,14 +42,28 @@ public class SVGAnimationView implements ITextView {
    * @param ticksPerSecond is the tickspeed of the animation.
    */
   public SVGAnimationView(IAnimationModel model, int ticksPerSecond) {
+    this(model, ticksPerSecond, new StringBuilder());
+  }
+
+  /**
+   * Constructor for SVGAnimation view that writes the document to the given output as it plays.
+   * The output is not flushed or closed, so a buffered writer over a file or channel should be
+   * closed by the caller once the view has played.
+   * @param model model used for the animation.
+   * @param ticksPerSecond is the tickspeed of the animation.
+   * @param out where the document is written.
+   */
+  public SVGAnimationView(IAnimationModel model, int ticksPerSecond, Appendable out) {
     if (ticksPerSecond < 1) {
       throw new IllegalArgumentException("Cannot pass a negative ticks per second");
     }
+    this.destination = new TextOutput(out);
     this.model = model;
-    out = new StringBuilder();
+    this.out = out;
     this.multiplier = 1000 / ticksPerSecond;
     this.x = model.getX();
     this.y = model.getY();
+    this.element = new StringBuilder();
   }
 
   /**
@@ -43,176 +72,331 @@ public class SVGAnimationView implements ITextView {
    */
   @Override
   public void play() {
-    String type;
-    tryAppend("<svg width=\"" + model.getWidth() + "\" height=\""
-            + model.getHeight() + "\" version=\"1.1\"\n    "
-            + "xmlns=\"http://www.w3.org/2000/svg\">\n");
+    this.writeHeader();
 
     for (Map.Entry<String, IReadOnlyShape> entry : model.getShapes().entrySet()) {
-      List<IReadOnlyRotateCommand> commands = model.getCommands().get(entry.getKey());
-      switch (entry.getValue().getShapeType()) {
-        case "Rectangle" :
-          type = "rect";
-          break;
-        case "Ellipse" :
-          type = "ellipse";
-          break;
-        default:
-          type = "";
-      }
-      this.tryAppend("<" + type + " id=\""
-              + entry.getKey());
-      this.tryAppend(this.getStartState(commands.get(0), type));
-      this.tryAppend(this.convertCommandsToString(commands, type));
-      this.tryAppend("</" + type + ">\n\n");
-    }
-    tryAppend("</svg>");
-  }
-
-  // the try catch for the append.
-  private void tryAppend(String input) {
+      this.appendShape(this.element, entry.getKey(), entry.getValue().getShapeType(),
+              model.getCommands(entry.getKey()));
+      this.write();
+    }
+    this.element.append("</svg>");
+    this.write();
+  }
+
+  /**
+   * Writes the same document as {@link #play()}, but builds the elements of the shapes on the
+   * given executor. Shapes are handed out in batches of consecutive shapes, and the finished
+   * batches are written in the order of the shapes, so the document is the same as when it is
+   * built on one thread. At most the given number of batches are built or waiting to be written
+   * at once, which bounds the memory used however many shapes there are.
+   * @param executor the executor to build the elements on.
+   * @param maxPending the most batches to have in flight at once.
+   * @throws IllegalArgumentException if there is no executor or the number of batches is not
+   *                                  positive.
+   * @throws IllegalStateException if the thread is interrupted while waiting for a batch.
+   */
+  public void play(ExecutorService executor, int maxPending) {
+    if (executor == null) {
+      throw new IllegalArgumentException("Must have an executor to build on");
+    }
+    if (maxPending < 1) {
+      throw new IllegalArgumentException("Must be able to have a batch in flight");
+    }
+    this.writeHeader();
+
+    Deque<Future<StringBuilder>> pending = new ArrayDeque<>();
+    Queue<StringBuilder> spare = new ConcurrentLinkedQueue<>();
+    List<Map.Entry<String, IReadOnlyShape>> batch = new ArrayList<>();
+    int batchCommands = 0;
     try {
-      out.append(input);
-    } catch (IOException e) {
-      throw new IllegalStateException("Bad Appendable");
-    }
-  }
-
-  //converts each of the commands into the correct format for .svg
-  private String convertCommandsToString(List<IReadOnlyRotateCommand> list, String type) {
-    StringBuilder output = new StringBuilder();
-    String startString;
-    String endString = "\" fill=\"freeze\" />\n";
-
-
-    for (IReadOnlyRotateCommand command : list) {
-      startString = "    <animate attributeType=\"xml\" begin=\""
-              + command.getStartTime() * multiplier + "ms\" dur=\""
-              + (command.getEndTime() - command.getStartTime()) * multiplier + "ms\" "
-              + "attributeName=\"";
-
-      if (command.getStartOrientation() != command.getEndOrientation()) {
-        if (type.equals("rect")) {
-          output.append("<animateTransform attributeName=\"transform\" attributeType=\"xml\""
-          + " type=\"rotate\" from=\"" + command.getStartOrientation() + " "
-                  + (command.getStartX() + command.getStartWidth() / 2 - this.x) + " "
-                  + (command.getStartY() + command.getStartHeight() / 2 - this.y)
-                  + "\" to=\"" + command.getEndOrientation() + " "
-                  + (command.getStartX() + command.getStartWidth() / 2 - this.x) + " "
-                  + (command.getStartY() + command.getStartHeight() / 2 - this.y) + "\" dur=\""
-                  + ((command.getEndTime() - command.getStartTime()) * multiplier) + "ms\" "
-                  + "repeatCount=\"0\"/>\n");
-        }
-        else if (type.equals("ellipse")) {
-          output.append("<animateTransform attributeName=\"transform\" attributeType=\"xml\""
-                  + " type=\"rotate\" from=\"" + command.getStartOrientation() + " "
-                  + (command.getStartX() - this.x + command.getStartWidth() / 2) + " "
-                  + (command.getStartY() - this.y + command.getStartHeight() / 2)
-                  + "\" to=\"" + command.getEndOrientation() + " "
-                  + (command.getStartX() - this.x + command.getStartWidth() / 2) + " "
-                  + (command.getStartY() - this.y + command.getStartHeight() / 2)
-                  + "\" dur=\"" + ((command.getEndTime() - command.getStartTime()) * multiplier)
-                  + "ms\" repeatCount=\"0\"/>\n");
+      for (Map.Entry<String, IReadOnlyShape> entry : model.getShapes().entrySet()) {
+        batch.add(entry);
+        batchCommands += model.getCommands(entry.getKey()).size();
+        if (batchCommands >= COMMANDS_PER_BATCH) {
+          this.submit(executor, batch, pending, maxPending, spare);
+          batch = new ArrayList<>();
+          batchCommands = 0;
         }
-        continue;
       }
-      if (command.getStartX() != command.getEndX()) {
-        if (type.equals("rect")) {
-          output.append(startString).append("x\" from=\"").append(command.getStartX() - this.x)
-                  .append("\" to=\"").append(command.getEndX() - this.x).append(endString);
-        }
-        else {
-          output.append(startString).append("cx\" from=\"")
-                  .append(command.getStartX() - this.x + command.getStartWidth() / 2)
-                  .append("\" to=\"")
-                  .append(command.getEndX() - this.x + command.getEndWidth() / 2)
-                  .append(endString);
-        }
+      if (!batch.isEmpty()) {
+        this.submit(executor, batch, pending, maxPending, spare);
       }
-      if (command.getStartY() != command.getEndY()) {
-        if (type.equals("rect")) {
-          output.append(startString).append("y\" from=\"")
-                  .append(command.getStartY() - this.y)
-                  .append("\" to=\"")
-                  .append(command.getEndY() - this.y)
-                  .append(endString);
-        }
-        else {
-          output.append(startString).append("cy\" from=\"")
-                  .append(command.getStartY() - this.y + command.getStartHeight() / 2)
-                  .append("\" to=\"")
-                  .append(command.getEndY() - this.y + command.getEndHeight() / 2)
-                  .append(endString);
-        }
+      while (!pending.isEmpty()) {
+        this.writeOldest(pending, spare);
       }
-      if (command.getStartHeight() != command.getEndHeight()) {
-        if (type.equals("rect")) {
-          output.append(startString).append("height\" from=\"").append(command.getStartHeight())
-                  .append("\" to=\"").append(command.getEndHeight()).append(endString);
-        }
-        else {
-          output.append(startString).append("ry\" from=\"").append(command.getStartHeight() / 2)
-                  .append("\" to=\"").append(command.getEndHeight() / 2).append(endString);
-        }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while writing the SVG");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
       }
-      if (command.getStartWidth() != command.getEndWidth()) {
-        if (type.equals("rect")) {
-          output.append(startString).append("width\" from=\"").append(command.getStartWidth())
-                  .append("\" to=\"").append(command.getEndWidth()).append(endString);
-        }
-        else {
-          output.append(startString).append("ry\" from=\"").append(command.getStartWidth() / 2)
-                  .append("\" to=\"").append(command.getEndWidth() / 2).append(endString);
-        }
+      throw new IllegalStateException("Could not build a shape", e.getCause());
+    } finally {
+      for (Future<StringBuilder> future : pending) {
+        future.cancel(true);
+      }
+    }
+    this.element.append("</svg>");
+    this.write();
+  }
+
+  /**
+   * Writes the same document as {@link #play()} for an animation that is being edited, reusing
+   * the elements written by earlier exports through the same cache for every shape whose version
+   * in the builder has not changed since. The model of this view must be the one the builder
+   * builds now. Only the shapes edited since the last export are built again, so exporting
+   * after a small edit takes little more than copying the document out.
+   * @param cache the elements written by earlier exports, which is updated with this one.
+   * @param builder the builder the model was built from, which gives the version of each shape.
+   * @throws IllegalArgumentException if the cache or builder is null.
+   */
+  public void play(SVGFragmentCache cache, IEditBuilder builder) {
+    if (cache == null || builder == null) {
+      throw new IllegalArgumentException("Must have a cache and the builder of the model");
+    }
+    cache.startExport(this.getClass().getName() + " " + this.multiplier + " " + this.x + " "
+            + this.y);
+    this.writeHeader();
+    for (Map.Entry<String, IReadOnlyShape> entry : model.getShapes().entrySet()) {
+      int version = builder.getVersion(entry.getKey());
+      String fragment = cache.get(entry.getKey(), version);
+      if (fragment == null) {
+        this.appendShape(this.element, entry.getKey(), entry.getValue().getShapeType(),
+                model.getCommands(entry.getKey()));
+        fragment = this.element.toString();
+        this.element.setLength(0);
+        cache.put(entry.getKey(), version, fragment);
+      }
+      this.write(fragment);
+    }
+    cache.finishExport();
+    this.element.append("</svg>");
+    this.write();
+  }
+
+  // starts building the elements of a batch of shapes, first writing out the oldest batches
+  // until there is room for another one. Batches are built into the spare builders of batches
+  // already written where there are any, so they do not have to grow again.
+  private void submit(ExecutorService executor, List<Map.Entry<String, IReadOnlyShape>> batch,
+                      Deque<Future<StringBuilder>> pending, int maxPending,
+                      Queue<StringBuilder> spare)
+          throws InterruptedException, ExecutionException {
+    while (pending.size() >= maxPending) {
+      this.writeOldest(pending, spare);
+    }
+    pending.addLast(executor.submit(() -> {
+      StringBuilder output = spare.poll();
+      if (output == null) {
+        output = new StringBuilder();
+      }
+      for (Map.Entry<String, IReadOnlyShape> entry : batch) {
+        this.appendShape(output, entry.getKey(), entry.getValue().getShapeType(),
+                model.getCommands(entry.getKey()));
+      }
+      return output;
+    }));
+  }
+
+  // waits for the oldest batch in flight, writes it out and keeps its builder for another batch.
+  private void writeOldest(Deque<Future<StringBuilder>> pending, Queue<StringBuilder> spare)
+          throws InterruptedException, ExecutionException {
+    StringBuilder output = pending.removeFirst().get();
+    this.write(output);
+    output.setLength(0);
+    spare.add(output);
+  }
+
+  // writes the opening tag of the document.
+  private void writeHeader() {
+    this.element.append("<svg width=\"").append(model.getWidth()).append("\" height=\"")
+            .append(model.getHeight()).append("\" version=\"1.1\"\n    ")
+            .append("xmlns=\"http://www.w3.org/2000/svg\">\n");
+    this.write();
+  }
+
+  /**
+   * Appends the element for one shape, with all of its animations, to the given output.
+   * @param output where the element is appended.
+   * @param id the name of the shape.
+   * @param shapeType the type of the shape.
+   * @param commands the commands of the shape, in order.
+   */
+  protected void appendShape(StringBuilder output, String id, String shapeType,
+                             List<IReadOnlyRotateCommand> commands) {
+    String type = getTag(shapeType);
+    output.append("<").append(type).append(" id=\"").append(id);
+    this.appendStartState(output, commands.get(0), type);
+    for (IReadOnlyRotateCommand command : commands) {
+      this.appendCommand(output, command, type);
+    }
+    output.append("</").append(type).append(">\n\n");
+  }
+
+  /**
+   * Gets the name of the SVG element that draws the given type of shape.
+   * @param shapeType the type of a shape.
+   * @return the name of the element, or an empty string if there is none.
+   */
+  protected static String getTag(String shapeType) {
+    switch (shapeType) {
+      case "Rectangle" :
+        return "rect";
+      case "Ellipse" :
+        return "ellipse";
+      default:
+        return "";
+    }
+  }
+
+  // writes the element built so far to the output and clears it for the next one.
+  private void write() {
+    this.write(this.element);
+    this.element.setLength(0);
+  }
+
+  // writes an element that was built earlier to the output.
+  private void write(String text) {
+    this.destination.write(text);
+  }
+
+  // writes the given text to the output.
+  private void write(StringBuilder text) {
+    this.destination.write(text);
+  }
+
+  //converts the command into the correct format for .svg
+  private void appendCommand(StringBuilder output, IReadOnlyRotateCommand command,
+                             String type) {
+    if (command.getStartOrientation() != command.getEndOrientation()) {
+      if (type.equals("rect") || type.equals("ellipse")) {
+        this.appendRotation(output, command);
+      }
+      return;
+    }
+    if (command.getStartX() != command.getEndX()) {
+      if (type.equals("rect")) {
+        this.appendAnimate(output, command, "x").append(command.getStartX() - this.x)
+                .append("\" to=\"").append(command.getEndX() - this.x);
+      }
+      else {
+        this.appendAnimate(output, command, "cx")
+                .append(command.getStartX() - this.x + command.getStartWidth() / 2)
+                .append("\" to=\"")
+                .append(command.getEndX() - this.x + command.getEndWidth() / 2);
       }
-      if (command.getStartColor().getRed() != command.getEndColor().getRed()
-              || command.getStartColor().getGreen() != command.getEndColor().getGreen()
-              || command.getStartColor().getBlue() != command.getEndColor().getBlue()) {
-        output.append(startString).append("fill\" from=\"rgb(")
-                .append(command.getStartColor().getRed()).append(",")
-                .append(command.getStartColor().getGreen()).append(",")
-                .append(command.getStartColor().getBlue()).append(")\" to=\"rgb(")
-                .append(command.getEndColor().getRed()).append(",")
-                .append(command.getEndColor().getGreen()).append(",")
-                .append(command.getEndColor().getBlue()).append(")").append(endString);
+      output.append("\" fill=\"freeze\" />\n");
+    }
+    if (command.getStartY() != command.getEndY()) {
+      if (type.equals("rect")) {
+        this.appendAnimate(output, command, "y").append(command.getStartY() - this.y)
+                .append("\" to=\"").append(command.getEndY() - this.y);
+      }
+      else {
+        this.appendAnimate(output, command, "cy")
+                .append(command.getStartY() - this.y + command.getStartHeight() / 2)
+                .append("\" to=\"")
+                .append(command.getEndY() - this.y + command.getEndHeight() / 2);
       }
+      output.append("\" fill=\"freeze\" />\n");
     }
-    return output.toString();
+    if (command.getStartHeight() != command.getEndHeight()) {
+      if (type.equals("rect")) {
+        this.appendAnimate(output, command, "height").append(command.getStartHeight())
+                .append("\" to=\"").append(command.getEndHeight());
+      }
+      else {
+        this.appendAnimate(output, command, "ry").append(command.getStartHeight() / 2)
+                .append("\" to=\"").append(command.getEndHeight() / 2);
+      }
+      output.append("\" fill=\"freeze\" />\n");
+    }
+    if (command.getStartWidth() != command.getEndWidth()) {
+      if (type.equals("rect")) {
+        this.appendAnimate(output, command, "width").append(command.getStartWidth())
+                .append("\" to=\"").append(command.getEndWidth());
+      }
+      else {
+        this.appendAnimate(output, command, "rx").append(command.getStartWidth() / 2)
+                .append("\" to=\"").append(command.getEndWidth() / 2);
+      }
+      output.append("\" fill=\"freeze\" />\n");
+    }
+    if (command.getStartColor().getRed() != command.getEndColor().getRed()
+            || command.getStartColor().getGreen() != command.getEndColor().getGreen()
+            || command.getStartColor().getBlue() != command.getEndColor().getBlue()) {
+      this.appendAnimate(output, command, "fill").append("rgb(")
+              .append(command.getStartColor().getRed()).append(",")
+              .append(command.getStartColor().getGreen()).append(",")
+              .append(command.getStartColor().getBlue()).append(")\" to=\"rgb(")
+              .append(command.getEndColor().getRed()).append(",")
+              .append(command.getEndColor().getGreen()).append(",")
+              .append(command.getEndColor().getBlue()).append(")")
+              .append("\" fill=\"freeze\" />\n");
+    }
+  }
+
+  /**
+   * Appends the element that turns a shape about its center for a command that changes its
+   * orientation.
+   * @param output where the element is appended.
+   * @param command the command that changes the orientation.
+   */
+  protected void appendRotation(StringBuilder output, IReadOnlyRotateCommand command) {
+    int centerX = command.getStartX() + command.getStartWidth() / 2 - this.x;
+    int centerY = command.getStartY() + command.getStartHeight() / 2 - this.y;
+    output.append("<animateTransform attributeName=\"transform\" attributeType=\"xml\"")
+            .append(" type=\"rotate\" from=\"").append(command.getStartOrientation())
+            .append(" ").append(centerX).append(" ").append(centerY)
+            .append("\" to=\"").append(command.getEndOrientation())
+            .append(" ").append(centerX).append(" ").append(centerY).append("\" dur=\"")
+            .append((command.getEndTime() - command.getStartTime()) * multiplier)
+            .append("ms\" repeatCount=\"0\"/>\n");
+  }
+
+  // starts an animate element for the given attribute over the time of the command, up to the
+  // value it animates from.
+  private StringBuilder appendAnimate(StringBuilder output, IReadOnlyCommand command,
+                                      String attribute) {
+    return output.append("    <animate attributeType=\"xml\" begin=\"")
+            .append(command.getStartTime() * multiplier).append("ms\" dur=\"")
+            .append((command.getEndTime() - command.getStartTime()) * multiplier)
+            .append("ms\" attributeName=\"").append(attribute).append("\" from=\"");
   }
 
-  //creates the string that initializes the shape in the svg format.
-  private String getStartState(IReadOnlyCommand command, String type) {
-    StringBuilder output = new StringBuilder();
+  //appends the attributes that initialize the shape in the svg format.
+  private void appendStartState(StringBuilder output, IReadOnlyCommand command, String type) {
     switch (type) {
       case "rect":
-        output = new StringBuilder("\" x=\"").append(command.getStartX() - this.x)
+        output.append("\" x=\"").append(command.getStartX() - this.x)
                 .append("\" y=\"").append(command.getStartY() - this.y).append("\" width=\"")
                 .append(command.getStartWidth()).append("\" height=\"")
-                .append(command.getStartHeight())
-                .append("\" fill=\"rgb(").append(command.getStartColor().getRed()).append(",")
-                .append(command.getStartColor().getGreen()).append(",")
-                .append(command.getStartColor().getBlue())
-                .append(")\" visibility=\"visible\" >\n");
+                .append(command.getStartHeight());
         break;
       case "ellipse":
-        output = new StringBuilder("\" cx=\"")
+        output.append("\" cx=\"")
                 .append(command.getStartX() - this.x + command.getStartWidth() / 2)
                 .append("\" cy=\"")
                 .append(command.getStartY() - this.y + command.getStartHeight() / 2)
                 .append("\" rx=\"")
                 .append(command.getStartWidth() / 2).append("\" ry=\"")
-                .append(command.getStartHeight() / 2)
-                .append("\" fill=\"rgb(").append(command.getStartColor().getRed()).append(",")
-                .append(command.getStartColor().getGreen()).append(",")
-                .append(command.getStartColor().getBlue())
-                .append(")\" visibility=\"visible\" >\n");
+                .append(command.getStartHeight() / 2);
         break;
       default:
-        return output.toString();
+        return;
     }
-    return output.toString();
+    output.append("\" fill=\"rgb(").append(command.getStartColor().getRed()).append(",")
+            .append(command.getStartColor().getGreen()).append(",")
+            .append(command.getStartColor().getBlue())
+            .append(")\" visibility=\"visible\" >\n");
   }
 
+  /**
+   * Gets the text of the document. When the view was given its own output to write to, this is
+   * whatever that output's {@code toString} gives, since the document has already been written
+   * there.
+   * @return String that is the description for the animation.
+   */
   @Override
   public String getText() {
     return this.out.toString();
@@ -0,0 +1,102 @@
+package cs3500.animator.view;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Represents the elements an SVG view last wrote for each shape of an animation that is being
+ * edited, each kept with the version of the shape it was written for. Exporting again through
+ * {@link SVGAnimationView#play(SVGFragmentCache, cs3500.animator.model.IEditBuilder)} only
+ * rebuilds the elements of shapes whose version has changed since, and copies the rest from
+ * here. The cache is emptied if it is used by a view that writes elements differently, such as
+ * one with another speed or canvas, and the elements of shapes that were not in the last export
+ * are dropped.
+ */
+public final class SVGFragmentCache {
+  private final Map<String, Fragment> fragments;
+  private String settings;
+  private int exports;
+
+  /**
+   * Constructor for an empty cache.
+   */
+  public SVGFragmentCache() {
+    this.fragments = new HashMap<>();
+    this.settings = "";
+    this.exports = 0;
+  }
+
+  /**
+   * Starts an export by a view that writes elements with the given settings, emptying the cache
+   * if they are not the settings of the last export.
+   * @param settings a description of everything besides a shape that its element depends on.
+   */
+  void startExport(String settings) {
+    if (!this.settings.equals(settings)) {
+      this.fragments.clear();
+      this.settings = settings;
+    }
+    this.exports++;
+  }
+
+  /**
+   * Gets the element written for the given version of a shape.
+   * @param id the id of the shape.
+   * @param version the version of the shape.
+   * @return the element, or null if none has been written for that version.
+   */
+  String get(String id, int version) {
+    Fragment fragment = this.fragments.get(id);
+    if (fragment == null || fragment.version != version) {
+      return null;
+    }
+    fragment.export = this.exports;
+    return fragment.text;
+  }
+
+  /**
+   * Keeps the element written for the given version of a shape.
+   * @param id the id of the shape.
+   * @param version the version of the shape.
+   * @param text the element.
+   */
+  void put(String id, int version, String text) {
+    this.fragments.put(id, new Fragment(version, text, this.exports));
+  }
+
+  /**
+   * Finishes an export, dropping the elements of shapes that were not in it.
+   */
+  void finishExport() {
+    Iterator<Fragment> iterator = this.fragments.values().iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().export != this.exports) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Gets the number of shapes whose elements are kept.
+   * @return the number of elements in the cache.
+   */
+  public int size() {
+    return this.fragments.size();
+  }
+
+  /**
+   * The element written for one version of a shape, and the last export that used it.
+   */
+  private static final class Fragment {
+    private final int version;
+    private final String text;
+    private int export;
+
+    private Fragment(int version, String text, int export) {
+      this.version = version;
+      this.text = text;
+      this.export = export;
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package cs3500.animator.view;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Represents the output of a view that writes its text a piece at a time. Writers are handed the
+ * characters of each piece through one reused array, so no string is made for each piece.
+ */
+final class TextOutput {
+  private final Appendable out;
+  private char[] chars;
+
+  /**
+   * Constructor for an output that writes to the given appendable.
+   * @param out where the text is written.
+   * @throws IllegalArgumentException if the appendable is null.
+   */
+  TextOutput(Appendable out) {
+    if (out == null) {
+      throw new IllegalArgumentException("Output must not be null");
+    }
+    this.out = out;
+    this.chars = new char[0];
+  }
+
+  /**
+   * Writes the text built so far in the given builder.
+   * @param text the text to write.
+   * @throws IllegalStateException if the appendable fails.
+   */
+  void write(StringBuilder text) {
+    try {
+      if (this.out instanceof Writer) {
+        int length = text.length();
+        if (this.chars.length < length) {
+          this.chars = new char[Math.max(length, 2 * this.chars.length)];
+        }
+        text.getChars(0, length, this.chars, 0);
+        ((Writer) this.out).write(this.chars, 0, length);
+      }
+      else {
+        this.out.append(text);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Bad Appendable");
+    }
+  }
+
+  /**
+   * Writes the given text.
+   * @param text the text to write.
+   * @throws IllegalStateException if the appendable fails.
+   */
+  void write(String text) {
+    try {
+      this.out.append(text);
+    } catch (IOException e) {
+      throw new IllegalStateException("Bad Appendable");
+    }
+  }
+}
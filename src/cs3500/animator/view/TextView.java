@@ -1,20 +1,26 @@
 package cs3500.animator.view;
 
-import java.io.StringWriter;
+import java.awt.Color;
+import java.io.Writer;
 import java.util.List;
 import java.util.Map;
 
 import cs3500.animator.model.IAnimationModel;
-import cs3500.animator.model.IReadOnlyCommand;
 import cs3500.animator.model.IReadOnlyRotateCommand;
 import cs3500.animator.model.IReadOnlyShape;
 
 /**
- * Represents a text description of the given animation.
+ * Represents a text description of the given animation. The description is written in one pass
+ * over the shapes, a few lines at a time, so a view given a {@link Writer} writes the description
+ * of any size of animation in a fixed amount of memory.
  */
 public class TextView implements ITextView {
+  private static final int FLUSH_LENGTH = 8192;
+
   private Appendable out;
   private IAnimationModel model;
+  private final TextOutput destination;
+  private final StringBuilder lines;
 
   /**
    * Constructor for TextView that takes the model to convert into a string.
@@ -22,10 +28,29 @@ public class TextView implements ITextView {
    * @param model is the model for which the TextView will create a constructor for.
    */
   public TextView(IAnimationModel model) {
+    this(model, new StringBuilder());
+  }
+
+  /**
+   * Constructor for TextView that writes the description to the given output as it plays. The
+   * output is not flushed or closed, so a buffered writer should be closed by the caller once the
+   * view has played.
+   *
+   * @param model is the model for which the TextView will create a constructor for.
+   * @param out where the description is written.
+   */
+  public TextView(IAnimationModel model, Appendable out) {
+    this.destination = new TextOutput(out);
     this.model = model;
-    out = new StringWriter();
+    this.out = out;
+    this.lines = new StringBuilder();
   }
 
+  /**
+   * Gets the description. When the view was given its own output to write to, this is whatever
+   * that output's {@code toString} gives, since the description has already been written there.
+   * @return String that is the description for the animation.
+   */
   @Override
   public String getText() {
     return this.out.toString();
@@ -33,43 +58,49 @@ public class TextView implements ITextView {
 
   @Override
   public void play() {
-
-    StringBuilder output = new StringBuilder();
+    boolean first = true;
     for (Map.Entry<String,
             List<IReadOnlyRotateCommand>> entry : this.model.getCommands().entrySet()) {
-      IReadOnlyShape shape = this.model.getShapes().get(entry.getKey());
-      output.append("Shape ").append(entry.getKey()).append(" ").append(shape.getShapeType())
-              .append("\n");
+      String id = entry.getKey();
+      IReadOnlyShape shape = this.model.getShape(id);
+      if (!first) {
+        this.lines.append("\n\n");
+      }
+      first = false;
+      this.lines.append("Shape ").append(id).append(" ").append(shape.getShapeType());
       for (IReadOnlyRotateCommand command : entry.getValue()) {
-        StringBuilder temp = new StringBuilder(command.getType()).append(" ");
-        temp.append(entry.getKey()).append(" ")
+        Color start = command.getStartColor();
+        Color end = command.getEndColor();
+        this.lines.append("\n").append(command.getType()).append(" ").append(id).append(" ")
                 .append(command.getStartTime()).append(" ")
                 .append(command.getStartX()).append(" ")
                 .append(command.getStartY()).append(" ")
                 .append(command.getStartWidth()).append(" ")
                 .append(command.getStartHeight()).append(" ")
                 .append(command.getStartOrientation()).append(" ")
-                .append(command.getStartColor().getRed()).append(" ")
-                .append(command.getStartColor().getGreen()).append(" ")
-                .append(command.getStartColor().getBlue()).append("    ")
+                .append(start.getRed()).append(" ")
+                .append(start.getGreen()).append(" ")
+                .append(start.getBlue()).append("    ")
                 .append(command.getEndTime()).append(" ")
                 .append(command.getEndX()).append(" ")
                 .append(command.getEndY()).append(" ")
                 .append(command.getEndWidth()).append(" ")
                 .append(command.getEndHeight()).append(" ")
                 .append(command.getEndOrientation()).append(" ")
-                .append(command.getEndColor().getRed()).append(" ")
-                .append(command.getEndColor().getGreen()).append(" ")
-                .append(command.getEndColor().getBlue()).append("\n");
-        output.append(temp);
+                .append(end.getRed()).append(" ")
+                .append(end.getGreen()).append(" ")
+                .append(end.getBlue());
+        if (this.lines.length() >= FLUSH_LENGTH) {
+          this.flush();
+        }
       }
-      output.append("\n");
     }
+    this.flush();
+  }
 
-
-    if (output.length() != 0) {
-      output.delete(output.length() - 2, output.length());
-    }
-    out = output;
+  // writes the lines built so far to the output and clears them for the next ones.
+  private void flush() {
+    this.destination.write(this.lines);
+    this.lines.setLength(0);
   }
 }
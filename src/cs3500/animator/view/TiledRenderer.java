@@ -0,0 +1,188 @@
+package cs3500.animator.view;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cs3500.animator.model.FrameBuffer;
+
+/**
+ * Draws one frame at a time into an array of pixels on several workers at once, so the time to
+ * draw a frame of a large canvas goes down with the number of processors. The image is cut into
+ * square tiles, and each visible shape is put in the list of every tile its bounds touch,
+ * allowing for rotation. Workers then take tiles one at a time and draw each tile's shapes, in
+ * the order of their slots, with a {@link Rasterizer} clipped to the tile. Tiles never overlap,
+ * so the workers draw into the same pixels without copying or locking, and every pixel ends up
+ * exactly as it would if the whole frame were drawn in order on one thread.
+ */
+public final class TiledRenderer {
+  private final int[] pixels;
+  private final int width;
+  private final int height;
+  private final int tileSize;
+  private final int columns;
+  private final int rows;
+  private final ExecutorService executor;
+  private final Rasterizer[] rasterizers;
+
+  // the slots of the shapes each tile draws, in order, and how many of each list are in use.
+  private final int[][] tiles;
+  private final int[] tileSizes;
+
+  /**
+   * Constructor for a renderer that draws into the given pixels, stored row by row.
+   * @param pixels the pixels to draw into.
+   * @param width the width of the image in pixels.
+   * @param height the height of the image in pixels.
+   * @param tileSize the width and height of each tile in pixels.
+   * @param executor runs the workers.
+   * @param workers how many tiles are drawn at once.
+   * @throws IllegalArgumentException if an argument is null, the size is not positive, or there
+   *                                  are not enough pixels for it.
+   */
+  public TiledRenderer(int[] pixels, int width, int height, int tileSize,
+                       ExecutorService executor, int workers) {
+    if (executor == null) {
+      throw new IllegalArgumentException("Executor must not be null.");
+    }
+    if (tileSize <= 0) {
+      throw new IllegalArgumentException("Tiles must have a positive size.");
+    }
+    if (workers <= 0) {
+      throw new IllegalArgumentException("There must be at least one worker.");
+    }
+    this.rasterizers = new Rasterizer[workers];
+    for (int i = 0; i < workers; i++) {
+      this.rasterizers[i] = new Rasterizer(pixels, width, height);
+    }
+    this.pixels = pixels;
+    this.width = width;
+    this.height = height;
+    this.tileSize = tileSize;
+    this.columns = (width + tileSize - 1) / tileSize;
+    this.rows = (height + tileSize - 1) / tileSize;
+    this.executor = executor;
+    this.tiles = new int[this.columns * this.rows][8];
+    this.tileSizes = new int[this.columns * this.rows];
+  }
+
+  /**
+   * Gets the pixels this renderer draws into.
+   * @return the pixels, row by row, as 0xAARRGGBB ints.
+   */
+  public int[] getPixels() {
+    return this.pixels;
+  }
+
+  /**
+   * Sets whether the edges of shapes are blended by how much of each pixel they cover.
+   * @param antialiased true to blend the edges, false to fill whole pixels.
+   */
+  public void setAntialiased(boolean antialiased) {
+    for (Rasterizer rasterizer : this.rasterizers) {
+      rasterizer.setAntialiased(antialiased);
+    }
+  }
+
+  /**
+   * Draws the visible shapes of a frame over a white background, returning once every tile is
+   * drawn. The frame must not change until then.
+   * @param frame the frame to draw.
+   * @throws IllegalStateException if the renderer is interrupted while drawing.
+   */
+  public void render(FrameBuffer frame) {
+    this.sort(frame);
+    AtomicInteger next = new AtomicInteger(0);
+    List<Future<?>> running = new ArrayList<>();
+    for (Rasterizer rasterizer : this.rasterizers) {
+      running.add(this.executor.submit(() -> this.drawTiles(rasterizer, frame, next)));
+    }
+    try {
+      for (Future<?> worker : running) {
+        worker.get();
+      }
+    }
+    catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Could not draw the frame", e.getCause());
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while drawing the frame", e);
+    }
+    finally {
+      for (Future<?> worker : running) {
+        worker.cancel(true);
+      }
+    }
+  }
+
+  // puts the slot of each visible shape in the list of every tile its bounds touch. The bounds
+  // are those of the shape's rectangle rotated about its center, which hold an ellipse as well,
+  // widened by a pixel for the rounding the rasterizer does on edges.
+  private void sort(FrameBuffer frame) {
+    Arrays.fill(this.tileSizes, 0);
+    for (int slot = 0; slot < frame.getSize(); slot++) {
+      if (!frame.isVisible(slot) || frame.getWidth(slot) <= 0 || frame.getHeight(slot) <= 0) {
+        continue;
+      }
+      double theta = Math.toRadians(frame.getOrientation(slot));
+      double cos = Math.abs(Math.cos(theta));
+      double sin = Math.abs(Math.sin(theta));
+      double halfWidth = frame.getWidth(slot) / 2.0;
+      double halfHeight = frame.getHeight(slot) / 2.0;
+      double centerX = frame.getX(slot) + halfWidth;
+      double centerY = frame.getY(slot) + halfHeight;
+      double reachX = halfWidth * cos + halfHeight * sin + 1;
+      double reachY = halfWidth * sin + halfHeight * cos + 1;
+      if (centerX + reachX < 0 || centerY + reachY < 0
+              || centerX - reachX >= this.width || centerY - reachY >= this.height) {
+        continue;
+      }
+      int left = this.tileOf(centerX - reachX, this.columns);
+      int right = this.tileOf(centerX + reachX, this.columns);
+      int top = this.tileOf(centerY - reachY, this.rows);
+      int bottom = this.tileOf(centerY + reachY, this.rows);
+      for (int row = top; row <= bottom; row++) {
+        for (int column = left; column <= right; column++) {
+          this.add(row * this.columns + column, slot);
+        }
+      }
+    }
+  }
+
+  // finds the row or column of tiles a coordinate falls in, keeping it inside the image.
+  private int tileOf(double coordinate, int count) {
+    return (int) Math.max(0, Math.min(count - 1, Math.floor(coordinate / this.tileSize)));
+  }
+
+  // adds a slot to the end of a tile's list, growing the list if it is full.
+  private void add(int tile, int slot) {
+    int size = this.tileSizes[tile];
+    if (size == this.tiles[tile].length) {
+      this.tiles[tile] = Arrays.copyOf(this.tiles[tile], 2 * size);
+    }
+    this.tiles[tile][size] = slot;
+    this.tileSizes[tile] = size + 1;
+  }
+
+  // draws tiles with the given rasterizer until there are none left.
+  private void drawTiles(Rasterizer rasterizer, FrameBuffer frame, AtomicInteger next) {
+    for (int tile = next.getAndIncrement(); tile < this.tiles.length;
+         tile = next.getAndIncrement()) {
+      rasterizer.setClip(tile % this.columns * this.tileSize, tile / this.columns * this.tileSize,
+              this.tileSize, this.tileSize);
+      rasterizer.clear(0xFFFFFF);
+      int[] slots = this.tiles[tile];
+      for (int i = 0; i < this.tileSizes[tile]; i++) {
+        rasterizer.paint(frame, slots[i]);
+      }
+    }
+  }
+}
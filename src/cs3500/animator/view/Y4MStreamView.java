@@ -0,0 +1,72 @@
+package cs3500.animator.view;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ExecutorService;
+
+import cs3500.animator.model.IAnimationModel;
+
+/**
+ * Represents a view that streams every tick of an animation in the YUV4MPEG2 format that video
+ * encoders read from a pipe. Frames are written in full resolution 4:4:4 with BT.601 studio
+ * range colors, so no color is shared between neighbouring pixels and shape edges stay sharp;
+ * encoders subsample the chroma themselves if they need to.
+ */
+public class Y4MStreamView extends RGBAStreamView {
+  private static final byte[] FRAME = {'F', 'R', 'A', 'M', 'E', '\n'};
+
+  private final byte[] planes;
+
+  /**
+   * Constructor for a view that streams the frames of the model to the given channel.
+   * @param model the animation to stream.
+   * @param ticksPerSecond is the tickspeed of the animation, which is the frame rate of the
+   *                       stream.
+   * @param out where the frames are written; it is not closed.
+   */
+  public Y4MStreamView(IAnimationModel model, int ticksPerSecond, WritableByteChannel out) {
+    this(model, ticksPerSecond, out, null, 1);
+  }
+
+  /**
+   * Constructor for a view that streams the frames of the model to the given channel, drawing
+   * each frame on several workers.
+   * @param model the animation to stream.
+   * @param ticksPerSecond is the tickspeed of the animation, which is the frame rate of the
+   *                       stream.
+   * @param out where the frames are written; it is not closed.
+   * @param executor runs the workers, or null to draw on the thread that plays the view.
+   * @param workers how many parts of a frame are drawn at once.
+   */
+  public Y4MStreamView(IAnimationModel model, int ticksPerSecond, WritableByteChannel out,
+                       ExecutorService executor, int workers) {
+    super(model, ticksPerSecond, out, executor, workers);
+    this.planes = new byte[3 * model.getWidth() * model.getHeight()];
+  }
+
+  @Override
+  protected String getHeader() {
+    return "YUV4MPEG2 W" + this.model.getWidth() + " H" + this.model.getHeight() + " F"
+            + this.ticksPerSecond + ":1 Ip A1:1 C444\n";
+  }
+
+  @Override
+  protected int getFrameLength() {
+    return FRAME.length + this.planes.length;
+  }
+
+  @Override
+  protected void copyFrame(int[] pixels, ByteBuffer frame) {
+    int size = pixels.length;
+    for (int i = 0; i < size; i++) {
+      int red = (pixels[i] >> 16) & 0xFF;
+      int green = (pixels[i] >> 8) & 0xFF;
+      int blue = pixels[i] & 0xFF;
+      this.planes[i] = (byte) (((66 * red + 129 * green + 25 * blue + 128) >> 8) + 16);
+      this.planes[size + i] = (byte) (((-38 * red - 74 * green + 112 * blue + 128) >> 8) + 128);
+      this.planes[2 * size + i] = (byte) (((112 * red - 94 * green - 18 * blue + 128) >> 8) + 128);
+    }
+    frame.put(FRAME);
+    frame.put(this.planes);
+  }
+}
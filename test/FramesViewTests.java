@@ -0,0 +1,116 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.imageio.ImageIO;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.view.FramesView;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Represents the tester class for the FramesView class.
+ */
+public class FramesViewTests {
+  private AnimationModel.AnimationModelBuilder builder;
+
+  @Before
+  public void setUp() {
+    this.builder = new AnimationModel.AnimationModelBuilder();
+    this.builder.setBounds(100, 50, 60, 40);
+    this.builder.declareShape("R", "Rectangle");
+    this.builder.addMotion("R", 0, 100, 50, 10, 10, 255, 0, 0,
+            40, 140, 50, 10, 10, 0, 0, 255);
+    this.builder.declareShape("C", "Ellipse");
+    this.builder.addMotion("C", 20, 120, 70, 20, 20, 0, 255, 0,
+            80, 120, 70, 20, 20, 0, 255, 0);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testNullModel() {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      new FramesView(null, new File("frames").toPath(), executor, 1);
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testNoWorkers() {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      new FramesView(this.builder.build(), new File("frames").toPath(), executor, 0);
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testWritesEveryTick() throws IOException {
+    IAnimationModel model = this.builder.build();
+    Path directory = Files.createTempDirectory("frames");
+    render(model, directory, 3);
+
+    assertEquals(model.getFinalTick() + 1, directory.toFile().list().length);
+    BufferedImage first = ImageIO.read(directory.resolve("frame-00000.png").toFile());
+    assertEquals(60, first.getWidth());
+    assertEquals(40, first.getHeight());
+    assertEquals(0xFF0000, first.getRGB(5, 5) & 0xFFFFFF);
+    assertEquals(0xFFFFFF, first.getRGB(30, 30) & 0xFFFFFF);
+
+    BufferedImage last = ImageIO.read(directory.resolve("frame-00080.png").toFile());
+    assertEquals(0xFFFFFF, last.getRGB(45, 5) & 0xFFFFFF);
+    assertEquals(0x00FF00, last.getRGB(30, 30) & 0xFFFFFF);
+  }
+
+  @Test
+  public void testWorkersMatchOneWorker() throws IOException {
+    IAnimationModel model = this.builder.build();
+    Path alone = Files.createTempDirectory("frames");
+    Path together = Files.createTempDirectory("frames");
+    render(model, alone, 1);
+    render(model, together, 4);
+
+    for (int tick = 0; tick <= model.getFinalTick(); tick++) {
+      String name = String.format("frame-%05d.png", tick);
+      BufferedImage expected = ImageIO.read(alone.resolve(name).toFile());
+      BufferedImage actual = ImageIO.read(together.resolve(name).toFile());
+      for (int y = 0; y < expected.getHeight(); y++) {
+        for (int x = 0; x < expected.getWidth(); x++) {
+          assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCreatesDirectory() throws IOException {
+    Path directory = Files.createTempDirectory("frames").resolve("nested");
+    render(this.builder.build(), directory, 2);
+    assertTrue(Files.exists(directory.resolve("frame-00040.png")));
+  }
+
+  // renders the model into the directory with the given number of workers.
+  private static void render(IAnimationModel model, Path directory, int workers) {
+    ExecutorService executor = Executors.newFixedThreadPool(workers);
+    try {
+      new FramesView(model, directory, executor, workers).play();
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+}
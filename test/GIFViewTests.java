@@ -0,0 +1,123 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadataNode;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.view.GIFView;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Represents the tester class for the GIFView class.
+ */
+public class GIFViewTests {
+  private static final String FORMAT = "javax_imageio_gif_image_1.0";
+
+  private AnimationModel.AnimationModelBuilder builder;
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    this.builder = new AnimationModel.AnimationModelBuilder();
+    this.builder.setBounds(100, 50, 60, 40);
+    this.builder.declareShape("R", "Rectangle");
+    this.builder.addMotion("R", 0, 100, 50, 10, 10, 255, 0, 0,
+            40, 140, 50, 10, 10, 255, 0, 0);
+    this.builder.declareShape("C", "Ellipse");
+    this.builder.addMotion("C", 20, 120, 70, 20, 20, 0, 255, 0,
+            80, 120, 70, 20, 20, 0, 255, 0);
+    this.executor = Executors.newSingleThreadExecutor();
+  }
+
+  @After
+  public void tearDown() {
+    this.executor.shutdown();
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testBadSpeed() {
+    new GIFView(this.builder.build(), 0, new ByteArrayOutputStream(), this.executor, 4);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testNoRoom() {
+    new GIFView(this.builder.build(), 20, new ByteArrayOutputStream(), this.executor, 0);
+  }
+
+  @Test
+  public void testTicksPerFrame() {
+    IAnimationModel model = this.builder.build();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals(1, new GIFView(model, 1, out, this.executor, 4).getTicksPerFrame());
+    assertEquals(1, new GIFView(model, 50, out, this.executor, 4).getTicksPerFrame());
+    assertEquals(2, new GIFView(model, 51, out, this.executor, 4).getTicksPerFrame());
+    assertEquals(4, new GIFView(model, 200, out, this.executor, 4).getTicksPerFrame());
+  }
+
+  @Test
+  public void testFramesAndDelays() throws IOException {
+    ImageReader reader = this.write(this.builder.build(), 30);
+    assertEquals(81, reader.getNumImages(true));
+    // at 30 ticks per second each tick lasts 3 1/3 hundredths of a second.
+    assertEquals("3", control(reader, 0).getAttribute("delayTime"));
+    assertEquals("4", control(reader, 1).getAttribute("delayTime"));
+    assertEquals("3", control(reader, 2).getAttribute("delayTime"));
+
+    BufferedImage first = reader.read(0);
+    assertEquals(60, first.getWidth());
+    assertEquals(0xFF0000, first.getRGB(5, 5) & 0xFFFFFF);
+    assertEquals(0xFFFFFF, first.getRGB(30, 30) & 0xFFFFFF);
+    BufferedImage last = reader.read(80);
+    assertEquals(0xFFFFFF, last.getRGB(45, 5) & 0xFFFFFF);
+    assertEquals(0x00FF00, last.getRGB(30, 30) & 0xFFFFFF);
+  }
+
+  @Test
+  public void testSteadyColorsShareOneTable() throws IOException {
+    ImageReader reader = this.write(this.builder.build(), 20);
+    for (int i = 0; i < reader.getNumImages(true); i++) {
+      IIOMetadataNode root = (IIOMetadataNode) reader.getImageMetadata(i).getAsTree(FORMAT);
+      assertEquals(0, root.getElementsByTagName("LocalColorTable").getLength());
+    }
+  }
+
+  @Test
+  public void testChangingColorsAreExact() throws IOException {
+    this.builder.declareShape("F", "Rectangle");
+    this.builder.addMotion("F", 0, 100, 80, 10, 10, 0, 0, 0,
+            80, 100, 80, 10, 10, 240, 160, 80);
+    ImageReader reader = this.write(this.builder.build(), 20);
+    for (int tick = 0; tick <= 80; tick += 8) {
+      BufferedImage frame = reader.read(tick);
+      int expected = (3 * tick) << 16 | (2 * tick) << 8 | tick;
+      assertEquals(expected, frame.getRGB(5, 35) & 0xFFFFFF);
+    }
+  }
+
+  // writes the model as a GIF and opens a reader over it.
+  private ImageReader write(IAnimationModel model, int ticksPerSecond) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new GIFView(model, ticksPerSecond, out, this.executor, 4).play();
+    ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+    reader.setInput(ImageIO.createImageInputStream(new ByteArrayInputStream(out.toByteArray())));
+    return reader;
+  }
+
+  // gets the graphic control extension of the frame at the given index.
+  private static IIOMetadataNode control(ImageReader reader, int index) throws IOException {
+    IIOMetadataNode root = (IIOMetadataNode) reader.getImageMetadata(index).getAsTree(FORMAT);
+    return (IIOMetadataNode) root.getElementsByTagName("GraphicControlExtension").item(0);
+  }
+}
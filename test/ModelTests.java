@@ -2,21 +2,47 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.geom.Point2D;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.AnimationReader;
+import cs3500.animator.model.BinaryAnimationFormat;
 import cs3500.animator.model.Ellipse;
+import cs3500.animator.model.FrameBuffer;
 import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.ILoadListener;
+import cs3500.animator.model.IPlaybackCursor;
 import cs3500.animator.model.IReadOnlyCommand;
+import cs3500.animator.model.IReadOnlyRotateCommand;
 import cs3500.animator.model.IReadOnlyShape;
 import cs3500.animator.model.MasterCommand;
+import cs3500.animator.model.PackedAnimationModel;
+import cs3500.animator.model.PagedAnimationModel;
 import cs3500.animator.model.Rectangle;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Tests for all public methods of {@link AnimationModel}.
@@ -151,6 +177,62 @@ public class ModelTests {
             this.model.toString());
   }
 
+  @Test
+  public void testBulkLoadSortsMotions() {
+    this.model = AnimationReader.parseFile(new StringReader("shape Dave rectangle\n"
+            + "motion Dave 5 20 10 10 30 0 255 0 10 20 20 10 30 0 255 0\n"
+            + "motion Dave 0 10 10 10 30 0 255 0 5 20 10 10 30 0 255 0\n"), this.builder);
+    assertEquals(0, this.model.getCommands("Dave").get(0).getStartTime());
+    assertEquals(5, this.model.getCommands("Dave").get(1).getStartTime());
+    assertEquals(new Rectangle(10, 30, new Point2D.Double(20, 14), 0, Color.GREEN),
+            this.model.getState(7).get(0));
+  }
+
+  @Test
+  public void testBulkLoadInvalidOverlap() {
+    try {
+      AnimationReader.parseFile(new StringReader("shape Dave rectangle\n"
+              + "motion Dave 0 10 10 10 30 0 255 0 5 20 10 10 30 0 255 0\n"
+              + "motion Dave 6 20 10 10 30 0 255 0 10 20 20 10 30 0 255 0\n"), this.builder);
+      fail("The motions should not have loaded");
+    }
+    catch (IllegalArgumentException e) {
+      assertEquals("Commands must overlap at their start/end times", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testBulkLoadInvalidTeleport() {
+    try {
+      AnimationReader.parseFile(new StringReader("shape Dave rectangle\n"
+              + "motion Dave 0 10 10 10 30 0 255 0 5 20 10 10 30 0 255 0\n"
+              + "motion Dave 5 35 10 10 30 0 255 0 10 45 15 10 30 0 255 0\n"), this.builder);
+      fail("The motions should not have loaded");
+    }
+    catch (IllegalArgumentException e) {
+      assertEquals("There is an illegal teleportation here", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testBulkLoadRejectsGapBeforeEarlierMotion() {
+    // one at a time, a motion put before every other one is not checked against the next one.
+    this.builder.declareShape("R", "rectangle");
+    this.builder.addMotion("R", 10, 0, 0, 5, 5, 0, 0, 0, 20, 0, 0, 5, 5, 0, 0, 0);
+    this.builder.addMotion("R", 0, 0, 0, 5, 5, 0, 0, 0, 5, 0, 0, 5, 5, 0, 0, 0);
+    assertEquals(2, this.builder.build().getCommands("R").size());
+    try {
+      AnimationReader.parseFile(new StringReader("shape R rectangle\n"
+              + "motion R 10 0 0 5 5 0 0 0 20 0 0 5 5 0 0 0\n"
+              + "motion R 0 0 0 5 5 0 0 0 5 0 0 5 5 0 0 0\n"),
+              new AnimationModel.AnimationModelBuilder());
+      fail("The motions should not have loaded");
+    }
+    catch (IllegalArgumentException e) {
+      assertEquals("Commands must overlap at their start/end times", e.getMessage());
+    }
+  }
+
   @Test
   public void testGetStateEmptyModel() {
     this.model = this.builder.build();
@@ -269,4 +351,592 @@ public class ModelTests {
     this.model = this.builder.build();
     assertEquals(model.getFinalTick(), 30);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testGetStateFramesDoNotChange() {
+    this.builder.declareShape("Dave", "Rectangle")
+            .addMotion("Dave", 0, 10, 10, 10, 30, 0, 255, 0, 10, 20,
+                    10, 10, 30, 0, 255, 0);
+    this.model = this.builder.build();
+    List<IReadOnlyShape> first = this.model.getState(5);
+    this.model.getState(8);
+    assertEquals(new Rectangle(10, 30, new Point2D.Double(15, 10), 0, Color.GREEN),
+            first.get(0));
+    assertEquals(new Rectangle(), this.model.getShapes().get("Dave"));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testGetStateFrameIsUnmodifiable() {
+    this.builder.declareShape("Dave", "Rectangle")
+            .addMotion("Dave", 0, 10, 10, 10, 30, 0, 255, 0, 10, 20,
+                    10, 10, 30, 0, 255, 0);
+    this.builder.build().getState(5).add(new Rectangle());
+  }
+
+  @Test
+  public void testBuildIsSnapshot() {
+    this.builder.declareShape("Dave", "Rectangle")
+            .addMotion("Dave", 0, 10, 10, 10, 30, 0, 255, 0, 10, 20,
+                    10, 10, 30, 0, 255, 0);
+    this.model = this.builder.build();
+    assertSame(this.model, this.builder.build());
+
+    this.builder.addMotion("Dave", 10, 20, 10, 10, 30, 0, 255, 0, 20, 20,
+            20, 10, 30, 0, 255, 0);
+    this.builder.declareShape("Steve", "Ellipse");
+    assertEquals(1, this.model.getCommands("Dave").size());
+    assertEquals(1, this.model.getShapes().size());
+    assertEquals(10, this.model.getFinalTick());
+    assertEquals(0, this.model.getState(15).size());
+
+    this.builder.addMotion("Steve", 0, 0, 0, 5, 5, 0, 0, 0, 5, 0, 0, 5, 5, 0, 0, 0);
+    IAnimationModel edited = this.builder.build();
+    assertNotSame(this.model, edited);
+    assertEquals(2, edited.getCommands("Dave").size());
+    assertEquals(20, edited.getFinalTick());
+  }
+
+  @Test
+  public void testAppendsAfterHandingOutListsLeaveThemAlone() {
+    this.builder.declareShape("Dave", "Rectangle");
+    for (int t = 0; t < 3; t++) {
+      this.builder.addMotion("Dave", t, 0, 0, 10, 10, 0, 0, 0, t + 1, 0, 0, 10, 10, 0, 0, 0);
+    }
+    this.model = this.builder.build();
+    List<IReadOnlyRotateCommand> listed = this.builder.getCommands("Dave");
+    Map<String, List<IReadOnlyRotateCommand>> all = this.builder.getCommands();
+    for (int t = 3; t < 6; t++) {
+      this.builder.addMotion("Dave", t, 0, 0, 10, 10, 0, 0, 0, t + 1, 0, 0, 10, 10, 0, 0, 0);
+    }
+    List<IReadOnlyRotateCommand> later = this.builder.getCommands("Dave");
+    this.builder.addMotion("Dave", 6, 0, 0, 10, 10, 0, 0, 0, 7, 0, 0, 10, 10, 0, 0, 0);
+    assertEquals(3, this.model.getCommands("Dave").size());
+    assertEquals(3, listed.size());
+    assertEquals(3, all.get("Dave").size());
+    assertEquals(6, later.size());
+    assertEquals(7, this.builder.build().getCommands("Dave").size());
+    assertEquals(7, this.builder.build().getFinalTick());
+  }
+
+  @Test
+  public void testBuilderKeepsOrderAfterRemovingShapes() {
+    for (int i = 0; i < 100; i++) {
+      this.builder.declareShape("S" + i, "Rectangle")
+              .addMotion("S" + i, 0, i, 0, 10, 10, 0, 0, 0, 5, i, 0, 10, 10, 0, 0, 0);
+    }
+    IAnimationModel before = this.builder.build();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      if (i % 3 == 0) {
+        expected.add("S" + i);
+      }
+      else {
+        this.builder.removeShape("S" + i);
+      }
+    }
+    this.builder.declareShape("S1", "Ellipse")
+            .addMotion("S1", 0, 1, 0, 10, 10, 0, 0, 0, 5, 1, 0, 10, 10, 0, 0, 0);
+    expected.add("S1");
+
+    this.model = this.builder.build();
+    assertEquals(expected, new ArrayList<>(this.model.getShapes().keySet()));
+    assertEquals(expected, new ArrayList<>(this.model.getCommands().keySet()));
+    assertEquals("Ellipse", this.model.getShape("S1").getShapeType());
+    assertNull(this.model.getShape("S2"));
+    assertEquals(100, before.getShapes().size());
+    assertEquals("Rectangle", before.getShape("S1").getShapeType());
+  }
+
+  @Test
+  public void testFrameCacheHitsAndMisses() {
+    this.builder.useFrameCache(100).declareShape("Dave", "Rectangle")
+            .addMotion("Dave", 0, 10, 10, 10, 30, 0, 255, 0, 10, 20,
+                    10, 10, 30, 0, 255, 0);
+    this.model = this.builder.build();
+    List<IReadOnlyShape> first = this.model.getState(5);
+    this.model.getState(6);
+    assertEquals(first, this.model.getState(5));
+    assertEquals(new Rectangle(10, 30, new Point2D.Double(15, 10), 0, Color.GREEN),
+            first.get(0));
+    assertEquals(1, this.builder.getFrameCache().getHits());
+    assertEquals(2, this.builder.getFrameCache().getMisses());
+  }
+
+  @Test
+  public void testFrameCacheInvalidatedByEdit() {
+    this.builder.useFrameCache(100).declareShape("Dave", "Rectangle")
+            .addMotion("Dave", 0, 10, 10, 10, 30, 0, 255, 0, 10, 20,
+                    10, 10, 30, 0, 255, 0);
+    this.builder.build().getState(10);
+    this.builder.addMotion("Dave", 10, 20, 10, 10, 30, 0, 255, 0, 20, 20,
+            20, 10, 30, 0, 255, 0);
+    assertEquals(0, this.builder.getFrameCache().size());
+    assertEquals(new Rectangle(10, 30, new Point2D.Double(20, 15), 0, Color.GREEN),
+            this.builder.build().getState(15).get(0));
+  }
+
+  @Test
+  public void testFrameCacheEvictsLeastRecentlyUsed() {
+    this.builder.useFrameCache(2).declareShape("Dave", "Rectangle")
+            .addMotion("Dave", 0, 10, 10, 10, 30, 0, 255, 0, 10, 20,
+                    10, 10, 30, 0, 255, 0);
+    this.model = this.builder.build();
+    this.model.getState(1);
+    this.model.getState(2);
+    this.model.getState(1);
+    this.model.getState(3);
+    assertEquals(2, this.builder.getFrameCache().size());
+    this.model.getState(1);
+    this.model.getState(2);
+    assertEquals(2, this.builder.getFrameCache().getHits());
+    assertEquals(4, this.builder.getFrameCache().getMisses());
+  }
+
+  @Test
+  public void testGetStateIntoFrameBuffer() {
+    this.builder.setBounds(5, 5, 100, 100);
+    this.builder.declareShape("Dave", "Rectangle")
+            .addMotion("Dave", 0, 10, 10, 10, 30, 0, 0, 255, 0, 10, 20,
+                    10, 10, 30, 90, 255, 0, 0)
+            .declareShape("Steve", "Ellipse")
+            .addMotion("Steve", 20, 1, 1, 20, 20, 255, 0, 0, 30, 20,
+                    20, 20, 20, 255, 0, 0);
+    this.model = this.builder.build();
+    FrameBuffer frame = new FrameBuffer();
+    this.model.getState(5, frame);
+    assertEquals(2, frame.getSize());
+    assertEquals("Rectangle", frame.getShapeType(0));
+    assertEquals(true, frame.isVisible(0));
+    assertEquals(10, frame.getX(0));
+    assertEquals(5, frame.getY(0));
+    assertEquals(45, frame.getOrientation(0));
+    assertEquals(new Color(127, 128, 0).getRGB(), frame.getColor(0));
+    assertEquals("Ellipse", frame.getShapeType(1));
+    assertEquals(false, frame.isVisible(1));
+
+    this.model.getState(25, frame);
+    assertEquals(false, frame.isVisible(0));
+    assertEquals(true, frame.isVisible(1));
+    assertEquals(5, frame.getX(1));
+  }
+
+  @Test
+  public void testPackedModelMatchesAnimationModel() throws FileNotFoundException {
+    this.model = AnimationReader.parseFile(new FileReader("./inputs/smalldemo-rotate.txt"),
+            this.builder);
+    IAnimationModel packed = PackedAnimationModel.copyOf(this.model);
+    assertEquals(this.model.getFinalTick(), packed.getFinalTick());
+    assertEquals(this.model.getCommands().keySet(), packed.getCommands().keySet());
+    IReadOnlyRotateCommand command = this.model.getCommands().get("R").get(1);
+    IReadOnlyRotateCommand packedCommand = packed.getCommands().get("R").get(1);
+    assertEquals(command.getType(), packedCommand.getType());
+    assertEquals(command.getStartTime(), packedCommand.getStartTime());
+    assertEquals(command.getEndX(), packedCommand.getEndX());
+    assertEquals(command.getEndOrientation(), packedCommand.getEndOrientation());
+    assertEquals(command.getEndColor(), packedCommand.getEndColor());
+    for (int tick = 0; tick <= this.model.getFinalTick() + 1; tick++) {
+      assertEquals(this.model.getState(tick), packed.getState(tick));
+    }
+  }
+
+  @Test
+  public void testMappedReaderMatchesScanner() throws IOException {
+    this.model = AnimationReader.parseFile(new FileReader("./inputs/toh-5.txt"), this.builder);
+    IAnimationModel mapped = AnimationReader.parseFile(Paths.get("./inputs/toh-5.txt"),
+            new AnimationModel.AnimationModelBuilder());
+    assertEquals(this.model.toString(), mapped.toString());
+  }
+
+  @Test
+  public void testMappedReaderBadInteger() throws IOException {
+    Path file = Files.createTempFile("animation", ".txt");
+    try {
+      Files.write(file, "shape R rectangle # comment\r\nmotion R 1 2 3 x".getBytes());
+      AnimationReader.parseFile(file, this.builder);
+      fail();
+    }
+    catch (IllegalStateException e) {
+      assertEquals("Motion: expected integer for initial width, got: x", e.getMessage());
+    }
+    finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testParallelReaderMatchesSequential() throws IOException {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    this.model = AnimationReader.parseFile(Paths.get("./inputs/toh-8.txt"), this.builder);
+    IAnimationModel parallel = AnimationReader.parseFile(Paths.get("./inputs/toh-8.txt"),
+            new AnimationModel.AnimationModelBuilder(), pool, 1000);
+    assertEquals(this.model.toString(), parallel.toString());
+    pool.shutdown();
+  }
+
+  @Test
+  public void testParallelReaderMotionAcrossLines() throws IOException {
+    StringBuilder text = new StringBuilder("shape R rectangle\n");
+    for (int t = 0; t < 200; t++) {
+      text.append("motion R ").append(t).append(" 0 0 10 10 0 0 0\n")
+              .append(t + 1).append(" 0 0 10 10 0 0 0 # split\n");
+    }
+    Path file = Files.createTempFile("animation", ".txt");
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      Files.write(file, text.toString().getBytes());
+      this.model = AnimationReader.parseFile(file, this.builder, pool, 100);
+      assertEquals(200, this.model.getCommands("R").size());
+      Files.write(file, (text + "motion R 200 0 0 10 10 0 0 0 201 0 0 10 x").getBytes());
+      AnimationReader.parseFile(file, new AnimationModel.AnimationModelBuilder(), pool, 100);
+      fail();
+    }
+    catch (IllegalStateException e) {
+      assertEquals("Motion: expected integer for final height, got: x", e.getMessage());
+    }
+    finally {
+      Files.delete(file);
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testBackgroundLoadPublishesSnapshots() throws IOException, InterruptedException {
+    List<IAnimationModel> snapshots = new ArrayList<>();
+    List<IAnimationModel> finished = new ArrayList<>();
+    RecordingLoadListener listener = new RecordingLoadListener(snapshots, finished,
+            new ArrayList<>());
+    AnimationReader.parseFileInBackground(Paths.get("./inputs/toh-5.txt"), this.builder, 20,
+            listener).join();
+    IAnimationModel expected = AnimationReader.parseFile(Paths.get("./inputs/toh-5.txt"),
+            new AnimationModel.AnimationModelBuilder());
+    assertEquals(1, finished.size());
+    assertEquals(expected.toString(), finished.get(0).toString());
+    assertTrue(snapshots.size() > 1);
+    int commands = 0;
+    for (IAnimationModel snapshot : snapshots) {
+      int snapshotCommands = 0;
+      for (List<IReadOnlyRotateCommand> list : snapshot.getCommands().values()) {
+        snapshotCommands += list.size();
+      }
+      assertTrue(snapshotCommands > commands);
+      commands = snapshotCommands;
+    }
+    // the space handed over with each snapshot fits every command loaded so far.
+    for (int i = 0; i < listener.spaces.size(); i++) {
+      IAnimationModel model = i < snapshots.size() ? snapshots.get(i) : finished.get(0);
+      int width = 0;
+      int height = 0;
+      for (List<IReadOnlyRotateCommand> list : model.getCommands().values()) {
+        for (IReadOnlyRotateCommand command : list) {
+          width = Math.max(width, Math.max(command.getStartX() + command.getStartWidth(),
+                  command.getEndX() + command.getEndWidth()));
+          height = Math.max(height, Math.max(command.getStartY() + command.getStartHeight(),
+                  command.getEndY() + command.getEndHeight()));
+        }
+      }
+      assertEquals(new Dimension(width, height), listener.spaces.get(i));
+    }
+    assertEquals(snapshots.size() + 1, listener.spaces.size());
+  }
+
+  @Test
+  public void testBackgroundLoadFails() throws IOException, InterruptedException {
+    Path file = Files.createTempFile("animation", ".txt");
+    List<IAnimationModel> finished = new ArrayList<>();
+    List<RuntimeException> errors = new ArrayList<>();
+    try {
+      Files.write(file, "shape R rectangle\nmotion R 1 2 3 x".getBytes());
+      AnimationReader.parseFileInBackground(file, this.builder, 1,
+              new RecordingLoadListener(new ArrayList<>(), finished, errors)).join();
+    }
+    finally {
+      Files.delete(file);
+    }
+    assertEquals(0, finished.size());
+    assertEquals(1, errors.size());
+    assertEquals("Motion: expected integer for initial width, got: x",
+            errors.get(0).getMessage());
+  }
+
+  @Test
+  public void testBinaryFormatRoundTrip() throws IOException {
+    this.model = AnimationReader.parseFile(Paths.get("./inputs/smalldemo-rotate.txt"),
+            this.builder);
+    Path file = Files.createTempFile("animation", ".anim");
+    try {
+      try (OutputStream out = Files.newOutputStream(file)) {
+        BinaryAnimationFormat.write(this.model, out);
+      }
+      assertTrue(BinaryAnimationFormat.isBinary(file));
+      IAnimationModel read = BinaryAnimationFormat.read(file,
+              new AnimationModel.AnimationModelBuilder());
+      assertEquals(this.model.toString(), read.toString());
+      assertEquals(this.model.getX(), read.getX());
+      assertEquals(this.model.getHeight(), read.getHeight());
+      assertEquals(this.model.getCommands().keySet(), read.getCommands().keySet());
+      IReadOnlyRotateCommand command = this.model.getCommands("R").get(1);
+      IReadOnlyRotateCommand readCommand = read.getCommands("R").get(1);
+      assertEquals(command.getType(), readCommand.getType());
+      assertEquals(command.getStartOrientation(), readCommand.getStartOrientation());
+      assertEquals(command.getEndOrientation(), readCommand.getEndOrientation());
+      assertEquals(command.getEndColor(), readCommand.getEndColor());
+    }
+    finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testBinaryFormatKeepsDrawOrder() throws IOException {
+    // A is declared first, but B's motions come first, so B is drawn underneath A.
+    this.builder.declareShape("A", "Rectangle").declareShape("B", "Ellipse")
+            .addMotion("B", 1, 0, 0, 20, 20, 0, 0, 255, 5, 0, 0, 20, 20, 0, 0, 255)
+            .addMotion("A", 1, 5, 5, 20, 20, 255, 0, 0, 5, 5, 5, 20, 20, 255, 0, 0);
+    this.model = this.builder.build();
+    Path file = Files.createTempFile("animation", ".anim");
+    try {
+      try (OutputStream out = Files.newOutputStream(file)) {
+        BinaryAnimationFormat.write(this.model, out);
+      }
+      IAnimationModel read = BinaryAnimationFormat.read(file,
+              new AnimationModel.AnimationModelBuilder());
+      IAnimationModel paged = PagedAnimationModel.open(file, 20);
+      assertEquals(Arrays.asList("B", "A"), new ArrayList<>(read.getCommands().keySet()));
+      assertEquals(Arrays.asList("B", "A"), new ArrayList<>(paged.getCommands().keySet()));
+      assertEquals("Ellipse", read.getState(2).get(0).getShapeType());
+      assertEquals(this.model.getState(2), read.getState(2));
+      assertEquals(this.model.getState(2), paged.getState(2));
+      assertEquals(this.model.toString(), read.toString());
+    }
+    finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testBinaryFormatRejectsTextAndTruncatedFiles() throws IOException {
+    assertFalse(BinaryAnimationFormat.isBinary(Paths.get("./inputs/toh-3.txt")));
+    this.model = AnimationReader.parseFile(Paths.get("./inputs/toh-3.txt"), this.builder);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryAnimationFormat.write(this.model, out);
+    byte[] bytes = out.toByteArray();
+    Path file = Files.createTempFile("animation", ".anim");
+    try {
+      Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+      BinaryAnimationFormat.read(file, new AnimationModel.AnimationModelBuilder());
+      fail();
+    }
+    catch (IllegalStateException e) {
+      assertEquals("The binary animation ended early", e.getMessage());
+    }
+    finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testPagedModelMatchesAnimationModel() throws IOException {
+    this.model = AnimationReader.parseFile(Paths.get("./inputs/toh-5.txt"), this.builder);
+    Path file = Files.createTempFile("animation", ".anim");
+    try {
+      try (OutputStream out = Files.newOutputStream(file)) {
+        BinaryAnimationFormat.write(this.model, out);
+      }
+      PagedAnimationModel paged = PagedAnimationModel.open(file, 20);
+      assertEquals(0, paged.getCachedCommands());
+      assertEquals(this.model.getFinalTick(), paged.getFinalTick());
+      assertEquals(this.model.getShapes().keySet(), paged.getShapes().keySet());
+      FrameBuffer expected = new FrameBuffer();
+      FrameBuffer actual = new FrameBuffer();
+      IPlaybackCursor cursor = paged.cursor(0);
+      for (int tick = 0; tick <= this.model.getFinalTick() + 1; tick++) {
+        assertEquals(this.model.getState(tick), paged.getState(tick));
+        this.model.getState(tick, expected);
+        paged.getState(tick, actual);
+        assertFramesEqual(expected, actual);
+        assertFramesEqual(expected, cursor.advance());
+      }
+      for (String id : this.model.getShapes().keySet()) {
+        List<IReadOnlyRotateCommand> commands = this.model.getCommands(id);
+        List<IReadOnlyRotateCommand> pagedCommands = paged.getCommands(id);
+        assertEquals(commands.size(), pagedCommands.size());
+        for (int i = 0; i < commands.size(); i++) {
+          assertEquals(commands.get(i).getType(), pagedCommands.get(i).getType());
+          assertEquals(commands.get(i).getEndTime(), pagedCommands.get(i).getEndTime());
+          assertEquals(commands.get(i).getStartColor(), pagedCommands.get(i).getStartColor());
+          assertEquals(commands.get(i).getEndY(), pagedCommands.get(i).getEndY());
+        }
+        assertTrue(paged.getCachedCommands() <= Math.max(20, commands.size()));
+      }
+    }
+    finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testGetStateOnlyShapesAlive() {
+    for (int i = 0; i < 40; i++) {
+      this.builder.declareShape("S" + i, i % 2 == 0 ? "Rectangle" : "Ellipse")
+              .addMotion("S" + i, 3 * i, i, 0, 10, 10, 0, 0, 0, 3 * i + 7, i, 10,
+                      10, 10, 0, 0, 0);
+    }
+    this.model = this.builder.build();
+    FrameBuffer frame = new FrameBuffer();
+    for (int tick = 0; tick < 130; tick++) {
+      List<IReadOnlyShape> shapes = this.model.getState(tick);
+      this.model.getState(tick, frame);
+      int visible = 0;
+      for (int i = 0; i < 40; i++) {
+        boolean alive = 3 * i <= tick && tick <= 3 * i + 7;
+        assertEquals(alive, frame.isVisible(i));
+        if (alive) {
+          assertEquals(i, (int) shapes.get(visible).getPosition().getX());
+          visible++;
+        }
+      }
+      assertEquals(visible, shapes.size());
+    }
+  }
+
+  @Test
+  public void testCursorMatchesGetState() throws FileNotFoundException {
+    this.model = AnimationReader.parseFile(new FileReader("./inputs/toh-5.txt"), this.builder);
+    IAnimationModel packed = PackedAnimationModel.copyOf(this.model);
+    IPlaybackCursor cursor = this.model.cursor(0);
+    IPlaybackCursor packedCursor = packed.cursor(0);
+    FrameBuffer expected = new FrameBuffer();
+    boolean jumped = false;
+    for (int tick = 0; tick <= this.model.getFinalTick() + 1; tick++) {
+      if (tick == 100 && !jumped) {
+        cursor.seek(40);
+        packedCursor.seek(40);
+        tick = 40;
+        jumped = true;
+      }
+      assertEquals(tick, cursor.getTick());
+      this.model.getState(tick, expected);
+      assertFramesEqual(expected, cursor.advance());
+      assertFramesEqual(expected, packedCursor.advance());
+    }
+  }
+
+  @Test
+  public void testParallelSamplingMatchesSequential() {
+    ForkJoinPool samplingPool = new ForkJoinPool(4);
+    ForkJoinPool copyPool = new ForkJoinPool(4);
+    try {
+      AnimationModel.AnimationModelBuilder parallel = new AnimationModel.AnimationModelBuilder()
+              .useParallelSampling(samplingPool, 16);
+      for (int i = 0; i < 500; i++) {
+        String type = i % 2 == 0 ? "Rectangle" : "Ellipse";
+        this.builder.declareShape("S" + i, type).addMotion("S" + i, i % 50, i, 0, 10, 10,
+                i % 90, 0, 0, 0, i % 50 + 30, i, 100, 20, 10, 0, 255, 0, 0);
+        parallel.declareShape("S" + i, type).addMotion("S" + i, i % 50, i, 0, 10, 10,
+                i % 90, 0, 0, 0, i % 50 + 30, i, 100, 20, 10, 0, 255, 0, 0);
+      }
+      this.model = this.builder.build();
+      IAnimationModel parallelModel = parallel.build();
+      IAnimationModel packed = PackedAnimationModel.copyOf(this.model, copyPool, 16);
+      FrameBuffer expected = new FrameBuffer();
+      FrameBuffer actual = new FrameBuffer();
+      for (int tick = 0; tick < 85; tick++) {
+        List<IReadOnlyShape> shapes = this.model.getState(tick);
+        assertEquals(shapes, parallelModel.getState(tick));
+        assertEquals(shapes, packed.getState(tick));
+        this.model.getState(tick, expected);
+        parallelModel.getState(tick, actual);
+        assertFramesEqual(expected, actual);
+        packed.getState(tick, actual);
+        assertFramesEqual(expected, actual);
+      }
+    }
+    finally {
+      samplingPool.shutdown();
+      copyPool.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParallelSamplingNeedsPositiveThreshold() {
+    this.builder.useParallelSampling(ForkJoinPool.commonPool(), 0);
+  }
+
+  @Test
+  public void testVersionChangesOnlyWithItsShape() {
+    assertEquals(-1, this.builder.getVersion("R"));
+    this.builder.declareShape("R", "Rectangle").declareShape("C", "Ellipse")
+            .addMotion("R", 0, 0, 0, 10, 10, 0, 0, 0, 5, 10, 0, 10, 10, 0, 0, 0)
+            .addMotion("C", 0, 0, 0, 10, 10, 0, 0, 0, 5, 0, 0, 10, 10, 0, 0, 0);
+    int rectangle = this.builder.getVersion("R");
+    int ellipse = this.builder.getVersion("C");
+    assertTrue(rectangle != ellipse);
+
+    this.builder.addMotion("R", 5, 10, 0, 10, 10, 0, 0, 0, 8, 20, 0, 10, 10, 0, 0, 0);
+    assertTrue(this.builder.getVersion("R") != rectangle);
+    assertEquals(ellipse, this.builder.getVersion("C"));
+    rectangle = this.builder.getVersion("R");
+
+    this.builder.removeCommand("C", 0);
+    assertTrue(this.builder.getVersion("C") != ellipse);
+    assertEquals(rectangle, this.builder.getVersion("R"));
+
+    this.builder.startBulkLoad();
+    this.builder.addMotion("R", 8, 20, 0, 10, 10, 0, 0, 0, 9, 20, 0, 10, 10, 0, 0, 0);
+    assertTrue(this.builder.getVersion("R") != rectangle);
+
+    this.builder.removeShape("R");
+    assertEquals(-1, this.builder.getVersion("R"));
+  }
+
+  /**
+   * A listener that keeps everything it is told about a background load.
+   */
+  private static final class RecordingLoadListener implements ILoadListener {
+    private final List<IAnimationModel> snapshots;
+    private final List<IAnimationModel> finished;
+    private final List<RuntimeException> errors;
+    private final List<Dimension> spaces = new ArrayList<>();
+
+    private RecordingLoadListener(List<IAnimationModel> snapshots,
+                                  List<IAnimationModel> finished, List<RuntimeException> errors) {
+      this.snapshots = snapshots;
+      this.finished = finished;
+      this.errors = errors;
+    }
+
+    @Override
+    public void snapshotLoaded(IAnimationModel model, Dimension neededSpace) {
+      this.snapshots.add(model);
+      this.spaces.add(neededSpace);
+    }
+
+    @Override
+    public void loadFinished(IAnimationModel model, Dimension neededSpace) {
+      this.finished.add(model);
+      this.spaces.add(neededSpace);
+    }
+
+    @Override
+    public void loadFailed(RuntimeException error) {
+      this.errors.add(error);
+    }
+  }
+
+  // checks that two frames hold the same visible shapes in the same slots.
+  private static void assertFramesEqual(FrameBuffer expected, FrameBuffer actual) {
+    assertEquals(expected.getSize(), actual.getSize());
+    for (int slot = 0; slot < expected.getSize(); slot++) {
+      assertEquals(expected.isVisible(slot), actual.isVisible(slot));
+      assertEquals(expected.getShapeType(slot), actual.getShapeType(slot));
+      if (expected.isVisible(slot)) {
+        assertEquals(expected.getX(slot), actual.getX(slot));
+        assertEquals(expected.getY(slot), actual.getY(slot));
+        assertEquals(expected.getWidth(slot), actual.getWidth(slot));
+        assertEquals(expected.getHeight(slot), actual.getHeight(slot));
+        assertEquals(expected.getOrientation(slot), actual.getOrientation(slot));
+        assertEquals(expected.getColor(slot), actual.getColor(slot));
+      }
+    }
+  }
+}
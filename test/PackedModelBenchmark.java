@@ -0,0 +1,83 @@
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.AnimationReader;
+import cs3500.animator.model.FrameBuffer;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.PackedAnimationModel;
+
+/**
+ * Compares the heap footprint and getState throughput of {@link AnimationModel} and
+ * {@link PackedAnimationModel}. Run with the animation file to load as the only argument, e.g.
+ * {@code java PackedModelBenchmark inputs/toh-12.txt}.
+ */
+public class PackedModelBenchmark {
+
+  /**
+   * Loads the given file into both models and prints how much heap each keeps and how many frames
+   * per second each can sample.
+   * @param args the path of the animation file.
+   * @throws FileNotFoundException if the file does not exist.
+   */
+  public static void main(String[] args) throws FileNotFoundException {
+    String file = args.length > 0 ? args[0] : "./inputs/toh-12.txt";
+
+    long before = usedHeap();
+    IAnimationModel objects = AnimationReader.parseFile(new FileReader(file),
+            new AnimationModel.AnimationModelBuilder());
+    long objectBytes = usedHeap() - before;
+
+    before = usedHeap();
+    IAnimationModel packed = AnimationReader.parseFile(new FileReader(file),
+            new PackedAnimationModel.PackedModelBuilder());
+    long packedBytes = usedHeap() - before;
+
+    System.out.println(file);
+    System.out.printf("heap: AnimationModel %,d bytes, PackedAnimationModel %,d bytes%n",
+            objectBytes, packedBytes);
+    report("AnimationModel", objects);
+    report("PackedAnimationModel", packed);
+  }
+
+  // prints the sampling throughput of the given model through both getState methods.
+  private static void report(String name, IAnimationModel model) {
+    int finalTick = model.getFinalTick();
+    FrameBuffer frame = new FrameBuffer();
+    for (int i = 0; i < 3; i++) {
+      sampleLists(model, finalTick);
+      sampleFrames(model, finalTick, frame);
+    }
+    long start = System.nanoTime();
+    sampleLists(model, finalTick);
+    double lists = (finalTick + 1) / ((System.nanoTime() - start) / 1e9);
+    start = System.nanoTime();
+    sampleFrames(model, finalTick, frame);
+    double frames = (finalTick + 1) / ((System.nanoTime() - start) / 1e9);
+    System.out.printf("%s: getState(int) %,.0f ticks/s, getState(int, FrameBuffer) %,.0f ticks/s%n",
+            name, lists, frames);
+  }
+
+  // samples every tick as a list of shapes.
+  private static void sampleLists(IAnimationModel model, int finalTick) {
+    for (int tick = 0; tick <= finalTick; tick++) {
+      model.getState(tick);
+    }
+  }
+
+  // samples every tick into the given frame.
+  private static void sampleFrames(IAnimationModel model, int finalTick, FrameBuffer frame) {
+    for (int tick = 0; tick <= finalTick; tick++) {
+      model.getState(tick, frame);
+    }
+  }
+
+  // the bytes of heap in use after collecting garbage.
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 4; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,67 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.BinaryAnimationFormat;
+import cs3500.animator.model.FrameBuffer;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.PagedAnimationModel;
+
+/**
+ * Measures scrubbing through a binary animation with a paged model, compared with loading the
+ * whole animation onto the heap. Run with a file in the binary format and the number of commands
+ * to keep paged in, e.g. {@code java -Xmx256m PagedModelBenchmark big.anim 1000000}; convert a
+ * text file with {@code -view binary} first.
+ */
+public class PagedModelBenchmark {
+  private static final int JUMPS = 200;
+
+  /**
+   * Opens the file both ways and prints how long it takes to open and to jump to random ticks,
+   * along with the heap in use.
+   * @param args the binary file and the number of commands to keep paged in.
+   * @throws IOException if the file cannot be read.
+   */
+  public static void main(String[] args) throws IOException {
+    int maxCommands = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+    long start = System.nanoTime();
+    PagedAnimationModel paged = PagedAnimationModel.open(Paths.get(args[0]), maxCommands);
+    System.out.printf("paged: opened in %,d ms, %,d MB in use%n",
+            (System.nanoTime() - start) / 1000000, usedMegabytes());
+    report("paged", paged);
+    System.out.printf("paged: %,d commands paged in%n", paged.getCachedCommands());
+
+    paged = null;
+    try {
+      start = System.nanoTime();
+      IAnimationModel loaded = BinaryAnimationFormat.read(Paths.get(args[0]),
+              new AnimationModel.AnimationModelBuilder());
+      System.out.printf("loaded: read in %,d ms, %,d MB in use%n",
+              (System.nanoTime() - start) / 1000000, usedMegabytes());
+      report("loaded", loaded);
+    }
+    catch (OutOfMemoryError e) {
+      System.out.println("loaded: ran out of memory");
+    }
+  }
+
+  // jumps to random ticks of the model and prints the average time per frame and the heap in use.
+  private static void report(String name, IAnimationModel model) {
+    Random random = new Random(1);
+    FrameBuffer frame = new FrameBuffer();
+    long start = System.nanoTime();
+    for (int i = 0; i < JUMPS; i++) {
+      model.getState(random.nextInt(model.getFinalTick() + 1), frame);
+    }
+    System.out.printf("%s: %,.2f ms per random frame, %,d MB in use%n", name,
+            (System.nanoTime() - start) / 1e6 / JUMPS, usedMegabytes());
+  }
+
+  // gets the heap in use after a garbage collection.
+  private static long usedMegabytes() {
+    Runtime runtime = Runtime.getRuntime();
+    runtime.gc();
+    return (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+  }
+}
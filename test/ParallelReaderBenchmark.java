@@ -0,0 +1,66 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.AnimationReader;
+
+/**
+ * Measures how reading a large animation file scales with the number of workers. A file with the
+ * given number of shapes, each with a hundred motions, is written to a temporary file and read
+ * with pools of 1 up to the number of available processors. Run with the number of shapes as the
+ * only argument, e.g. {@code java ParallelReaderBenchmark 40000}, which writes about 250MB.
+ */
+public class ParallelReaderBenchmark {
+  private static final int MOTIONS = 100;
+
+  /**
+   * Writes the file and prints how long it takes to read with each pool size.
+   * @param args the number of shapes in the file.
+   * @throws IOException if the file cannot be written or read.
+   */
+  public static void main(String[] args) throws IOException {
+    int numShapes = args.length > 0 ? Integer.parseInt(args[0]) : 40000;
+    int cores = Runtime.getRuntime().availableProcessors();
+    Path file = Files.createTempFile("animation", ".txt");
+    try {
+      write(file, numShapes);
+      System.out.printf("%,d shapes, %,d bytes, %d available processors%n", numShapes,
+              Files.size(file), cores);
+      for (int workers = 1; workers <= cores; workers++) {
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+          long start = System.nanoTime();
+          AnimationReader.parseFile(file, new AnimationModel.AnimationModelBuilder(), pool,
+                  1 << 20);
+          best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%d workers: %,d ms%n", workers, best / 1000000);
+        pool.shutdown();
+      }
+    }
+    finally {
+      Files.delete(file);
+    }
+  }
+
+  // writes an animation where every shape moves back and forth across the canvas.
+  private static void write(Path file, int numShapes) throws IOException {
+    try (BufferedWriter out = Files.newBufferedWriter(file)) {
+      out.write("canvas 0 0 1000 600\n");
+      for (int i = 0; i < numShapes; i++) {
+        String name = "S" + i;
+        out.write("shape " + name + (i % 2 == 0 ? " rectangle\n" : " ellipse\n"));
+        for (int m = 0; m < MOTIONS; m++) {
+          int x1 = m % 2 == 0 ? i % 1000 : 1000 - i % 1000;
+          int x2 = 1000 - x1;
+          out.write(String.format("motion %s %d %d %d 20 10 %d 128 64   %d %d %d 20 10 %d 128 64%n",
+                  name, m * 10, x1, i % 600, i % 256, m * 10 + 10, x2, i % 600, i % 256));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,68 @@
+import java.io.Writer;
+import java.util.concurrent.ForkJoinPool;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.view.CompactSVGAnimationView;
+import cs3500.animator.view.SVGAnimationView;
+
+/**
+ * Measures how SVG export scales with the number of workers building the shapes of a scene with
+ * many shapes. Every shape moves back and forth and changes color on each of its motions. Run
+ * with the number of shapes as the only argument, e.g. {@code java ParallelSVGBenchmark 20000};
+ * the document is written to a writer that drops it, once on one thread and then with pools of
+ * 1 up to the number of available processors.
+ */
+public class ParallelSVGBenchmark {
+  private static final int MOTIONS = 50;
+
+  /**
+   * Builds the scene and prints the export throughput for each pool size.
+   * @param args the number of shapes in the scene.
+   */
+  public static void main(String[] args) {
+    int numShapes = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+    int cores = Runtime.getRuntime().availableProcessors();
+    AnimationModel.AnimationModelBuilder builder = new AnimationModel.AnimationModelBuilder();
+    for (int i = 0; i < numShapes; i++) {
+      builder.declareShape("S" + i, i % 2 == 0 ? "Rectangle" : "Ellipse");
+      for (int m = 0; m < MOTIONS; m++) {
+        int x1 = m % 2 == 0 ? i % 1000 : 1000 - i % 1000;
+        builder.addMotion("S" + i, m * 10, x1, i % 600, 20, 10, m % 256, 128, 64,
+                m * 10 + 10, 1000 - x1, i % 600, 20, 10, (m + 1) % 256, 128, 64);
+      }
+    }
+    IAnimationModel model = builder.build();
+    System.out.printf("%,d shapes, %,d motions, %d available processors%n", numShapes,
+            numShapes * MOTIONS, cores);
+
+    System.out.printf("one thread: SVG %,.0f ms, compact SVG %,.0f ms%n",
+            millis(model, null, false), millis(model, null, true));
+    for (int workers = 1; workers <= cores; workers++) {
+      ForkJoinPool pool = new ForkJoinPool(workers);
+      System.out.printf("%d workers: SVG %,.0f ms, compact SVG %,.0f ms%n", workers,
+              millis(model, pool, false), millis(model, pool, true));
+      pool.shutdown();
+    }
+  }
+
+  // writes the document a few times to warm up and returns how long the last one took, building
+  // the shapes on the given pool unless it is null.
+  private static double millis(IAnimationModel model, ForkJoinPool pool, boolean compact) {
+    double elapsed = 0;
+    for (int i = 0; i < 4; i++) {
+      SVGAnimationView view = compact
+              ? new CompactSVGAnimationView(model, 20, Writer.nullWriter())
+              : new SVGAnimationView(model, 20, Writer.nullWriter());
+      long start = System.nanoTime();
+      if (pool == null) {
+        view.play();
+      }
+      else {
+        view.play(pool, 4 * pool.getParallelism());
+      }
+      elapsed = (System.nanoTime() - start) / 1e6;
+    }
+    return elapsed;
+  }
+}
@@ -0,0 +1,64 @@
+import java.util.concurrent.ForkJoinPool;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.FrameBuffer;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.PackedAnimationModel;
+
+/**
+ * Measures how getState scales with the number of workers sampling a scene with many live shapes.
+ * Every shape moves, resizes and changes color for the whole animation, so every frame has to
+ * interpolate all of them. Run with the number of shapes as the only argument, e.g.
+ * {@code java ParallelSamplingBenchmark 200000}; the scene is sampled with pools of 1 up to the
+ * number of available processors.
+ */
+public class ParallelSamplingBenchmark {
+  private static final int TICKS = 200;
+
+  /**
+   * Builds the scene and prints the sampling throughput for each pool size.
+   * @param args the number of shapes in the scene.
+   */
+  public static void main(String[] args) {
+    int numShapes = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+    int cores = Runtime.getRuntime().availableProcessors();
+    System.out.printf("%,d shapes, %d ticks, %d available processors%n", numShapes, TICKS, cores);
+
+    for (int workers = 1; workers <= cores; workers++) {
+      ForkJoinPool pool = new ForkJoinPool(workers);
+      AnimationModel.AnimationModelBuilder builder = new AnimationModel.AnimationModelBuilder()
+              .useParallelSampling(pool, 4096);
+      for (int i = 0; i < numShapes; i++) {
+        builder.declareShape("S" + i, i % 2 == 0 ? "Rectangle" : "Ellipse")
+                .addMotion("S" + i, 0, i % 1000, i % 600, 10, 10, 0, 0, 0, 0,
+                        TICKS, 1000 - i % 1000, 600 - i % 600, 20, 5, 90, 255, 128, 64);
+      }
+      IAnimationModel model = builder.build();
+      IAnimationModel packed = PackedAnimationModel.copyOf(model, pool, 4096);
+
+      System.out.printf("%d workers: AnimationModel %,.0f frames/s, "
+                      + "PackedAnimationModel %,.0f frames/s%n",
+              workers, framesPerSecond(model), framesPerSecond(packed));
+      pool.shutdown();
+    }
+  }
+
+  // samples every tick of the given model into one frame and returns how many frames per second
+  // it managed, after a few passes to warm up.
+  private static double framesPerSecond(IAnimationModel model) {
+    FrameBuffer frame = new FrameBuffer();
+    for (int i = 0; i < 3; i++) {
+      sampleFrames(model, frame);
+    }
+    long start = System.nanoTime();
+    sampleFrames(model, frame);
+    return (TICKS + 1) / ((System.nanoTime() - start) / 1e9);
+  }
+
+  // samples every tick into the given frame.
+  private static void sampleFrames(IAnimationModel model, FrameBuffer frame) {
+    for (int tick = 0; tick <= TICKS; tick++) {
+      model.getState(tick, frame);
+    }
+  }
+}
@@ -0,0 +1,134 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.FrameBuffer;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IPlaybackCursor;
+import cs3500.animator.view.Rasterizer;
+
+/**
+ * Compares drawing frames with Java2D, the way the visual view does, against drawing them with
+ * the {@link Rasterizer}, with and without antialiasing. The scene is a canvas of the given size
+ * filled with the given number of rectangles and ellipses that move, grow and spin, a third of
+ * them rotated at any moment. Run with the number of shapes and the size of the canvas, e.g.
+ * {@code java -Djava.awt.headless=true RasterizerBenchmark 2000 1200}; for each way of drawing it
+ * prints the time per frame and how many pixels differ from Java2D's frame.
+ */
+public class RasterizerBenchmark {
+  private static final int TICKS = 200;
+
+  /**
+   * Builds the scene and prints the time each way of drawing takes.
+   * @param args the number of shapes and the width and height of the canvas.
+   */
+  public static void main(String[] args) {
+    int numShapes = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    int size = args.length > 1 ? Integer.parseInt(args[1]) : 1200;
+    AnimationModel.AnimationModelBuilder builder = new AnimationModel.AnimationModelBuilder();
+    builder.setBounds(0, 0, size, size);
+    for (int i = 0; i < numShapes; i++) {
+      builder.declareShape("S" + i, i % 2 == 0 ? "Rectangle" : "Ellipse");
+      int x = (i * 37) % size;
+      int y = (i * 91) % size;
+      int spin = i % 3 == 0 ? 250 : 0;
+      builder.addMotion("S" + i, 0, x, y, 10 + i % 90, 10 + i % 70, 0, i % 256, 128, 64,
+              TICKS, size - x, size - y, 10 + (i * 7) % 90, 10 + (i * 3) % 70, spin,
+              255 - i % 256, 64, 128);
+    }
+    IAnimationModel model = builder.build();
+    System.out.printf("%,d shapes on %dx%d, %d frames%n", numShapes, size, size, TICKS);
+
+    for (int round = 0; round < 3; round++) {
+      int[][] java2D = new int[2][];
+      double plain = java2D(model, false, java2D, 0);
+      double smooth = java2D(model, true, java2D, 1);
+      int[] differ = new int[2];
+      double raster = rasterize(model, false, java2D[0], differ, 0);
+      double rasterSmooth = rasterize(model, true, java2D[1], differ, 1);
+      System.out.printf("Java2D %.2f ms/frame, rasterizer %.2f ms/frame (%,d pixels differ)%n",
+              plain, raster, differ[0]);
+      System.out.printf("antialiased: Java2D %.2f ms/frame, rasterizer %.2f ms/frame "
+              + "(%,d pixels differ)%n", smooth, rasterSmooth, differ[1]);
+    }
+  }
+
+  // draws every frame with Java2D and returns the milliseconds per frame, keeping the pixels of
+  // the middle frame.
+  private static double java2D(IAnimationModel model, boolean antialiased, int[][] middle,
+                               int index) {
+    BufferedImage image = new BufferedImage(model.getWidth(), model.getHeight(),
+            BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = image.createGraphics();
+    if (antialiased) {
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    }
+    IPlaybackCursor cursor = model.cursor(0);
+    long start = System.nanoTime();
+    for (int tick = 0; tick < TICKS; tick++) {
+      FrameBuffer frame = cursor.advance();
+      g.setColor(Color.WHITE);
+      g.fillRect(0, 0, model.getWidth(), model.getHeight());
+      for (int i = 0; i < frame.getSize(); i++) {
+        if (!frame.isVisible(i)) {
+          continue;
+        }
+        g.setColor(new Color(frame.getColor(i)));
+        double theta = Math.toRadians(frame.getOrientation(i));
+        double centerX = frame.getX(i) + frame.getWidth(i) / 2.0;
+        double centerY = frame.getY(i) + frame.getHeight(i) / 2.0;
+        if (theta != 0) {
+          g.rotate(theta, centerX, centerY);
+        }
+        if (frame.getShapeType(i).equals("Ellipse")) {
+          g.fillOval(frame.getX(i), frame.getY(i), frame.getWidth(i), frame.getHeight(i));
+        }
+        else {
+          g.fillRect(frame.getX(i), frame.getY(i), frame.getWidth(i), frame.getHeight(i));
+        }
+        if (theta != 0) {
+          g.rotate(-theta, centerX, centerY);
+        }
+      }
+      if (tick == TICKS / 2) {
+        middle[index] = ((DataBufferInt) image.getRaster().getDataBuffer()).getData().clone();
+      }
+    }
+    return (System.nanoTime() - start) / 1e6 / TICKS;
+  }
+
+  // draws every frame with the rasterizer and returns the milliseconds per frame, counting the
+  // pixels of the middle frame that differ from Java2D's by more than a step of color.
+  private static double rasterize(IAnimationModel model, boolean antialiased, int[] expected,
+                                  int[] differ, int index) {
+    Rasterizer rasterizer = new Rasterizer(model.getWidth(), model.getHeight());
+    rasterizer.setAntialiased(antialiased);
+    IPlaybackCursor cursor = model.cursor(0);
+    long start = System.nanoTime();
+    for (int tick = 0; tick < TICKS; tick++) {
+      rasterizer.clear(0xFFFFFF);
+      rasterizer.paint(cursor.advance());
+      if (tick == TICKS / 2) {
+        int[] pixels = rasterizer.getPixels();
+        for (int i = 0; i < expected.length; i++) {
+          if (channelDifference(pixels[i], expected[i]) > 1) {
+            differ[index]++;
+          }
+        }
+      }
+    }
+    return (System.nanoTime() - start) / 1e6 / TICKS;
+  }
+
+  // gets the largest difference between the red, green or blue of two pixels.
+  private static int channelDifference(int first, int second) {
+    int most = 0;
+    for (int shift = 0; shift < 24; shift += 8) {
+      most = Math.max(most, Math.abs(((first >> shift) & 0xFF) - ((second >> shift) & 0xFF)));
+    }
+    return most;
+  }
+}
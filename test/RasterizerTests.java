@@ -0,0 +1,171 @@
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.view.Rasterizer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Represents the tester class for the Rasterizer class, comparing what it draws against what
+ * Java2D draws for the same shapes.
+ */
+public class RasterizerTests {
+  private static final int SIZE = 120;
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testNoArea() {
+    new Rasterizer(0, 10);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testNullPixels() {
+    new Rasterizer(null, 10, 10);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testTooFewPixels() {
+    new Rasterizer(new int[99], 10, 10);
+  }
+
+  @Test
+  public void testStartsWhite() {
+    Rasterizer rasterizer = new Rasterizer(3, 2);
+    for (int pixel : rasterizer.getPixels()) {
+      assertEquals(0xFFFFFFFF, pixel);
+    }
+  }
+
+  @Test
+  public void testUnrotatedRectMatchesExactly() {
+    Rasterizer rasterizer = new Rasterizer(SIZE, SIZE);
+    BufferedImage image = newImage();
+    Graphics2D g = image.createGraphics();
+    for (int i = 0; i < 20; i++) {
+      int x = i * 7 - 10;
+      int y = i * 5 - 3;
+      int rgb = i * 0x0C0A08;
+      rasterizer.fillRect(x, y, 15 + i, 30 - i, 0, rgb);
+      g.setColor(new Color(rgb));
+      g.fillRect(x, y, 15 + i, 30 - i);
+    }
+    g.dispose();
+    assertArrayEquals(pixelsOf(image), rasterizer.getPixels());
+  }
+
+  @Test
+  public void testRotatedShapesMatchWithinTolerance() {
+    for (boolean ellipse : new boolean[]{false, true}) {
+      for (int degrees = 0; degrees < 360; degrees += 15) {
+        Rasterizer rasterizer = new Rasterizer(SIZE, SIZE);
+        BufferedImage image = newImage();
+        draw(rasterizer, image, false, ellipse, 20, 35, 70, 40, degrees);
+        int differing = compare(pixelsOf(image), rasterizer.getPixels(), 0);
+        // the shapes cover about 2,200 pixels, and only a few on their edges may differ.
+        assertTrue(ellipse + " at " + degrees + " differs on " + differing + " pixels",
+                differing <= 60);
+      }
+    }
+  }
+
+  @Test
+  public void testAntialiasedShapesMatchWithinTolerance() {
+    for (boolean ellipse : new boolean[]{false, true}) {
+      for (int degrees = 0; degrees < 360; degrees += 30) {
+        Rasterizer rasterizer = new Rasterizer(SIZE, SIZE);
+        BufferedImage image = newImage();
+        draw(rasterizer, image, true, ellipse, 20, 35, 70, 40, degrees);
+        assertEquals(ellipse + " at " + degrees, 0,
+                compare(pixelsOf(image), rasterizer.getPixels(), 40));
+      }
+    }
+  }
+
+  @Test
+  public void testClipsToImage() {
+    Rasterizer rasterizer = new Rasterizer(10, 10);
+    rasterizer.fillEllipse(-50, -50, 200, 200, 45, 0x00FF00);
+    assertEquals(0xFF00FF00, rasterizer.getPixels()[0]);
+    rasterizer.fillRect(-45, -45, 100, 100, 30, 0xFF0000);
+    assertEquals(0xFFFF0000, rasterizer.getPixels()[0]);
+    assertEquals(0xFFFF0000, rasterizer.getPixels()[99]);
+  }
+
+  @Test
+  public void testPaintFrame() {
+    AnimationModel.AnimationModelBuilder builder = new AnimationModel.AnimationModelBuilder();
+    builder.declareShape("R", "Rectangle");
+    builder.declareShape("E", "Ellipse");
+    builder.addMotion("R", 1, 0, 0, 10, 10, 255, 0, 0,
+            5, 0, 0, 10, 10, 255, 0, 0);
+    builder.addMotion("E", 1, 5, 0, 10, 10, 0, 0, 255,
+            5, 5, 0, 10, 10, 0, 0, 255);
+    IAnimationModel model = builder.build();
+    Rasterizer rasterizer = new Rasterizer(20, 10);
+    rasterizer.paint(model.cursor(2).advance());
+    int[] pixels = rasterizer.getPixels();
+    assertEquals(0xFFFF0000, pixels[5 * 20 + 2]);
+    // the ellipse is declared later, so it is drawn over the rectangle.
+    assertEquals(0xFF0000FF, pixels[5 * 20 + 8]);
+    assertEquals(0xFFFFFFFF, pixels[5 * 20 + 17]);
+  }
+
+  // makes a white image to draw into with Java2D.
+  private static BufferedImage newImage() {
+    BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = image.createGraphics();
+    g.setColor(Color.WHITE);
+    g.fillRect(0, 0, SIZE, SIZE);
+    g.dispose();
+    return image;
+  }
+
+  // gets the pixels of an image from newImage.
+  private static int[] pixelsOf(BufferedImage image) {
+    return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+  }
+
+  // draws the same shape with both, rotated about its center the way the visual view does.
+  private static void draw(Rasterizer rasterizer, BufferedImage image, boolean antialiased,
+                           boolean ellipse, int x, int y, int width, int height, int degrees) {
+    Graphics2D g = image.createGraphics();
+    if (antialiased) {
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      rasterizer.setAntialiased(true);
+    }
+    g.setColor(new Color(0x3060C0));
+    g.rotate(Math.toRadians(degrees), x + width / 2.0, y + height / 2.0);
+    if (ellipse) {
+      g.fillOval(x, y, width, height);
+      rasterizer.fillEllipse(x, y, width, height, degrees, 0x3060C0);
+    }
+    else {
+      g.fillRect(x, y, width, height);
+      rasterizer.fillRect(x, y, width, height, degrees, 0x3060C0);
+    }
+    g.dispose();
+  }
+
+  // counts the pixels where a channel differs by more than the tolerance.
+  private static int compare(int[] expected, int[] actual, int tolerance) {
+    int differing = 0;
+    for (int i = 0; i < expected.length; i++) {
+      for (int shift = 0; shift < 24; shift += 8) {
+        int difference = ((expected[i] >> shift) & 0xFF) - ((actual[i] >> shift) & 0xFF);
+        if (Math.abs(difference) > tolerance) {
+          differing++;
+          break;
+        }
+      }
+    }
+    return differing;
+  }
+}
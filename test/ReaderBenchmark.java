@@ -0,0 +1,91 @@
+import java.awt.Dimension;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.AnimationReader;
+import cs3500.animator.model.BinaryAnimationFormat;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.ILoadListener;
+
+/**
+ * Compares how long it takes to read an animation file through a Scanner and through the
+ * memory-mapped tokenizer, how soon reading it in the background gives a first snapshot to play,
+ * and how long the same animation takes to load once converted to the binary format. Run with
+ * the files to read as arguments, e.g.
+ * {@code java ReaderBenchmark inputs/toh-12.txt inputs/big-bang-big-crunch.txt}.
+ */
+public class ReaderBenchmark {
+  private static final int RUNS = 10;
+  private static final int SNAPSHOT_MOTIONS = 5000;
+
+  /**
+   * Reads each file several times both ways and prints the best time of each.
+   * @param args the files to read.
+   * @throws IOException if a file cannot be read.
+   */
+  public static void main(String[] args) throws IOException {
+    for (String file : args) {
+      long scanner = Long.MAX_VALUE;
+      long mapped = Long.MAX_VALUE;
+      long firstSnapshot = Long.MAX_VALUE;
+      long background = Long.MAX_VALUE;
+      long binary = Long.MAX_VALUE;
+      Path binaryFile = Files.createTempFile("animation", ".anim");
+      try (OutputStream out = Files.newOutputStream(binaryFile)) {
+        BinaryAnimationFormat.write(AnimationReader.parseFile(Paths.get(file),
+                new AnimationModel.AnimationModelBuilder()), out);
+      }
+      for (int i = 0; i < RUNS; i++) {
+        long start = System.nanoTime();
+        try (FileReader reader = new FileReader(file)) {
+          AnimationReader.parseFile(reader, new AnimationModel.AnimationModelBuilder());
+        }
+        scanner = Math.min(scanner, System.nanoTime() - start);
+        start = System.nanoTime();
+        AnimationReader.parseFile(Paths.get(file), new AnimationModel.AnimationModelBuilder());
+        mapped = Math.min(mapped, System.nanoTime() - start);
+        long[] first = {0};
+        long backgroundStart = System.nanoTime();
+        try {
+          AnimationReader.parseFileInBackground(Paths.get(file),
+                  new AnimationModel.AnimationModelBuilder(), SNAPSHOT_MOTIONS,
+                  new ILoadListener() {
+                    @Override
+                    public void snapshotLoaded(IAnimationModel model, Dimension neededSpace) {
+                      if (first[0] == 0) {
+                        first[0] = System.nanoTime();
+                      }
+                    }
+
+                    @Override
+                    public void loadFinished(IAnimationModel model, Dimension neededSpace) {
+                      this.snapshotLoaded(model, neededSpace);
+                    }
+
+                    @Override
+                    public void loadFailed(RuntimeException error) {
+                      throw error;
+                    }
+                  }).join();
+        }
+        catch (InterruptedException e) {
+          return;
+        }
+        firstSnapshot = Math.min(firstSnapshot, first[0] - backgroundStart);
+        background = Math.min(background, System.nanoTime() - backgroundStart);
+        start = System.nanoTime();
+        BinaryAnimationFormat.read(binaryFile, new AnimationModel.AnimationModelBuilder());
+        binary = Math.min(binary, System.nanoTime() - start);
+      }
+      Files.delete(binaryFile);
+      System.out.printf("%s: Scanner %,d ms, mapped %,d ms, background first snapshot %,d ms "
+                      + "of %,d ms, binary %,d ms%n", file, scanner / 1000000, mapped / 1000000,
+              firstSnapshot / 1000000, background / 1000000, binary / 1000000);
+    }
+  }
+}
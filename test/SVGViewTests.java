@@ -4,15 +4,21 @@ import org.junit.Test;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import cs3500.animator.Excellence;
 import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.AnimationReader;
 import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.view.CompactSVGAnimationView;
 import cs3500.animator.view.ITextView;
 import cs3500.animator.view.SVGAnimationView;
+import cs3500.animator.view.SVGFragmentCache;
 
 import static org.junit.Assert.assertEquals;
 
@@ -211,5 +217,135 @@ public class SVGViewTests {
             + "/>\n</ellipse>\n\n</svg>",
             output.toString().trim());
   }
-}
 
+  @Test
+  public void testPlayToWriter() throws IOException {
+    this.model = AnimationReader.parseFile(Paths.get("./inputs/smalldemo-rotate.txt"),
+            this.builder);
+    ITextView view = new SVGAnimationView(this.model, 3);
+    view.play();
+    StringWriter writer = new StringWriter();
+    ITextView streamed = new SVGAnimationView(this.model, 3, writer);
+    streamed.play();
+    assertEquals(view.getText(), writer.toString());
+    assertEquals(view.getText(), streamed.getText());
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testNullOutput() {
+    model = builder.build();
+    new SVGAnimationView(model, 1, null);
+  }
+
+  @Test
+  public void testEllipseWidthAnimatesRx() {
+    this.builder.declareShape("Steve", "Ellipse")
+            .addMotion("Steve", 0, 1, 1, 20, 20, 255, 0, 0, 10, 1,
+                    1, 40, 20, 255, 0, 0);
+    this.model = this.builder.build();
+    ITextView view = new SVGAnimationView(model, 1);
+    view.play();
+    assertEquals("<svg width=\"1000\" height=\"600\" version=\"1.1\"\n"
+            + "    xmlns=\"http://www.w3.org/2000/svg\">\n"
+            + "<ellipse id=\"Steve\" cx=\"11\" cy=\"11\" rx=\"10\" ry=\"10\""
+            + " fill=\"rgb(255,0,0)\" visibility=\"visible\" >\n"
+            + "    <animate attributeType=\"xml\" begin=\"0ms\" dur=\"10000ms\""
+            + " attributeName=\"rx\" from=\"10\" to=\"20\" fill=\"freeze\" />\n"
+            + "</ellipse>\n\n</svg>", view.getText());
+  }
+
+  @Test
+  public void testCompactJoinsChanges() {
+    this.builder.declareShape("Dave", "Rectangle")
+            .addMotion("Dave", 0, 10, 10, 10, 30, 0, 255, 0, 5, 20,
+                    10, 10, 30, 0, 255, 0)
+            .addMotion("Dave", 5, 20, 10, 10, 30, 0, 255, 0, 10, 30,
+                    20, 10, 30, 0, 255, 0)
+            .addMotion("Dave", 10, 30, 20, 10, 30, 0, 255, 0, 12, 30,
+                    20, 10, 30, 0, 255, 0)
+            .addMotion("Dave", 12, 30, 20, 10, 30, 0, 255, 0, 15, 0,
+                    20, 10, 30, 0, 255, 0)
+            .declareShape("Steve", "Ellipse")
+            .addMotion("Steve", 0, 1, 1, 20, 20, 255, 0, 0, 10, 1,
+                    1, 40, 20, 255, 0, 0);
+    this.model = this.builder.build();
+    ITextView view = new CompactSVGAnimationView(model, 4);
+    view.play();
+    assertEquals("<svg width=\"1000\" height=\"600\" version=\"1.1\"\n"
+            + "    xmlns=\"http://www.w3.org/2000/svg\">\n"
+            + "<rect id=\"Dave\" x=\"10\" y=\"10\" width=\"10\" height=\"30\""
+            + " fill=\"rgb(0,255,0)\">\n"
+            + "<animate attributeName=\"x\" begin=\"0s\" dur=\"3750ms\""
+            + " values=\"10;30;30;0\" keyTimes=\"0;0.666667;0.8;1\" fill=\"freeze\"/>\n"
+            + "<animate attributeName=\"y\" begin=\"1250ms\" dur=\"1250ms\""
+            + " from=\"10\" to=\"20\" fill=\"freeze\"/>\n"
+            + "</rect>\n"
+            + "<ellipse id=\"Steve\" cx=\"11\" cy=\"11\" rx=\"10\" ry=\"10\""
+            + " fill=\"rgb(255,0,0)\">\n"
+            + "<animate attributeName=\"rx\" begin=\"0s\" dur=\"2500ms\""
+            + " from=\"10\" to=\"20\" fill=\"freeze\"/>\n"
+            + "</ellipse>\n</svg>", view.getText());
+  }
+
+  @Test
+  public void testParallelPlayMatchesPlay() throws IOException {
+    this.model = AnimationReader.parseFile(Paths.get("./inputs/big-bang-big-crunch.txt"),
+            this.builder);
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      SVGAnimationView view = new SVGAnimationView(this.model, 20);
+      view.play();
+      SVGAnimationView parallel = new SVGAnimationView(this.model, 20);
+      parallel.play(executor, 2);
+      assertEquals(view.getText(), parallel.getText());
+
+      SVGAnimationView compact = new CompactSVGAnimationView(this.model, 20);
+      compact.play();
+      StringWriter writer = new StringWriter();
+      new CompactSVGAnimationView(this.model, 20, writer).play(executor, 1);
+      assertEquals(compact.getText(), writer.toString());
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testParallelPlayNeedsRoom() {
+    this.model = this.builder.build();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      new SVGAnimationView(this.model, 1).play(executor, 0);
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testCachedExportRebuildsEditedShapes() throws IOException {
+    AnimationReader.parseFile(Paths.get("./inputs/toh-5.txt"), this.builder);
+    SVGFragmentCache cache = new SVGFragmentCache();
+    SVGAnimationView first = new SVGAnimationView(this.builder.build(), 10);
+    first.play(cache, this.builder);
+    SVGAnimationView fresh = new SVGAnimationView(this.builder.build(), 10);
+    fresh.play();
+    assertEquals(fresh.getText(), first.getText());
+    assertEquals(5, cache.size());
+
+    this.builder.removeShape("disk1");
+    this.builder.removeCommand("disk2", this.builder.getCommands("disk2").get(0).getStartTime());
+    SVGAnimationView edited = new SVGAnimationView(this.builder.build(), 10);
+    edited.play(cache, this.builder);
+    fresh = new SVGAnimationView(this.builder.build(), 10);
+    fresh.play();
+    assertEquals(fresh.getText(), edited.getText());
+    assertEquals(4, cache.size());
+
+    SVGAnimationView compact = new CompactSVGAnimationView(this.builder.build(), 10);
+    compact.play(cache, this.builder);
+    fresh = new CompactSVGAnimationView(this.builder.build(), 10);
+    fresh.play();
+    assertEquals(fresh.getText(), compact.getText());
+  }
+}
@@ -0,0 +1,101 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.view.RGBAStreamView;
+import cs3500.animator.view.Y4MStreamView;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Represents the tester class for the RGBAStreamView and Y4MStreamView classes.
+ */
+public class StreamViewTests {
+  private IAnimationModel model;
+
+  @Before
+  public void setUp() {
+    AnimationModel.AnimationModelBuilder builder = new AnimationModel.AnimationModelBuilder();
+    builder.setBounds(100, 50, 6, 4);
+    builder.declareShape("R", "Rectangle");
+    builder.addMotion("R", 1, 100, 50, 2, 2, 255, 0, 0,
+            3, 104, 50, 2, 2, 255, 0, 0);
+    this.model = builder.build();
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testNullOutput() {
+    new RGBAStreamView(this.model, 20, null);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testBadSpeed() {
+    new Y4MStreamView(this.model, 0, Channels.newChannel(new ByteArrayOutputStream()));
+  }
+
+  @Test
+  public void testRGBA() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new RGBAStreamView(this.model, 20, Channels.newChannel(out)).play();
+    byte[] bytes = out.toByteArray();
+    String header = "RGBA 6 4 20\n";
+    int frame = 4 * 6 * 4;
+    assertEquals(header.length() + 4 * frame, bytes.length);
+    assertEquals(header, new String(bytes, 0, header.length(), StandardCharsets.US_ASCII));
+
+    // nothing is drawn at tick 0, then the square moves right from tick 1 to tick 3.
+    assertEquals(0xFFFFFFFF, pixel(bytes, header.length(), 0, 0));
+    assertEquals(0xFF0000FF, pixel(bytes, header.length() + frame, 1, 1));
+    assertEquals(0xFFFFFFFF, pixel(bytes, header.length() + frame, 2, 1));
+    assertEquals(0xFFFFFFFF, pixel(bytes, header.length() + 3 * frame, 1, 1));
+    assertEquals(0xFF0000FF, pixel(bytes, header.length() + 3 * frame, 5, 1));
+  }
+
+  @Test
+  public void testY4M() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new Y4MStreamView(this.model, 20, Channels.newChannel(out)).play();
+    byte[] bytes = out.toByteArray();
+    String header = "YUV4MPEG2 W6 H4 F20:1 Ip A1:1 C444\n";
+    int plane = 6 * 4;
+    int frame = "FRAME\n".length() + 3 * plane;
+    assertEquals(header.length() + 4 * frame, bytes.length);
+    assertEquals(header, new String(bytes, 0, header.length(), StandardCharsets.US_ASCII));
+
+    int start = header.length() + frame + "FRAME\n".length();
+    assertEquals("FRAME\n", new String(bytes, start - 6, 6, StandardCharsets.US_ASCII));
+    // white and red in studio range.
+    assertEquals(235, bytes[start + 6 + 5] & 0xFF);
+    assertEquals(128, bytes[start + plane + 6 + 5] & 0xFF);
+    assertEquals(128, bytes[start + 2 * plane + 6 + 5] & 0xFF);
+    assertEquals(82, bytes[start + 6 + 1] & 0xFF);
+    assertEquals(90, bytes[start + plane + 6 + 1] & 0xFF);
+    assertEquals(240, bytes[start + 2 * plane + 6 + 1] & 0xFF);
+  }
+
+  @Test
+  public void testTiledMatchesOneThread() {
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    new Y4MStreamView(this.model, 20, Channels.newChannel(expected)).play();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new Y4MStreamView(this.model, 20, Channels.newChannel(out), executor, 2).play();
+    executor.shutdown();
+    assertArrayEquals(expected.toByteArray(), out.toByteArray());
+  }
+
+  // reads the RGBA pixel at the given point of the 6 pixel wide frame starting at the offset.
+  private static int pixel(byte[] bytes, int offset, int x, int y) {
+    int index = offset + 4 * (6 * y + x);
+    return (bytes[index] & 0xFF) << 24 | (bytes[index + 1] & 0xFF) << 16
+            | (bytes[index + 2] & 0xFF) << 8 | (bytes[index + 3] & 0xFF);
+  }
+}
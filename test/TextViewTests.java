@@ -4,12 +4,14 @@ import org.junit.Test;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.List;
 
 import cs3500.animator.Excellence;
 import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.AnimationReader;
 import cs3500.animator.model.IAnimationModel;
 import cs3500.animator.view.TextView;
 
@@ -153,4 +155,21 @@ public class TextViewTests {
             + "Nothing C 80 440 370 120 60 0 0 255 0    100 440 370 120 60 0 0 255 0",
             output.toString().trim());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testPlayToWriter() throws IOException {
+    this.model = AnimationReader.parseFile(Paths.get("./inputs/toh-5.txt"), this.builder);
+    TextView view = new TextView(this.model);
+    view.play();
+    StringWriter writer = new StringWriter();
+    TextView streamed = new TextView(this.model, writer);
+    streamed.play();
+    assertEquals(view.getText(), writer.toString());
+    assertEquals(view.getText(), streamed.getText());
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testNullOutput() {
+    new TextView(this.builder.build(), null);
+  }
+}
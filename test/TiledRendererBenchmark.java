@@ -0,0 +1,86 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.FrameBuffer;
+import cs3500.animator.model.IAnimationModel;
+import cs3500.animator.model.IPlaybackCursor;
+import cs3500.animator.view.Rasterizer;
+import cs3500.animator.view.TiledRenderer;
+
+/**
+ * Measures how the time to draw one frame of a large canvas scales with the number of workers
+ * drawing its tiles. The scene is a canvas of the given size filled with the given number of
+ * rectangles and ellipses that move, grow and spin. Run with the number of shapes and the width
+ * and height of the canvas, e.g. {@code java TiledRendererBenchmark 20000 3840 2160}; it prints
+ * the time per frame drawn on one thread and then in tiles of a few sizes with 1 up to the number
+ * of available processors workers.
+ */
+public class TiledRendererBenchmark {
+  private static final int TICKS = 100;
+  private static final int[] TILE_SIZES = {64, 128, 256};
+
+  /**
+   * Builds the scene and prints the time per frame for each way of drawing it.
+   * @param args the number of shapes and the width and height of the canvas.
+   */
+  public static void main(String[] args) {
+    int numShapes = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+    int width = args.length > 1 ? Integer.parseInt(args[1]) : 3840;
+    int height = args.length > 2 ? Integer.parseInt(args[2]) : 2160;
+    int cores = Runtime.getRuntime().availableProcessors();
+    AnimationModel.AnimationModelBuilder builder = new AnimationModel.AnimationModelBuilder();
+    builder.setBounds(0, 0, width, height);
+    for (int i = 0; i < numShapes; i++) {
+      builder.declareShape("S" + i, i % 2 == 0 ? "Rectangle" : "Ellipse");
+      int x = (i * 37) % width;
+      int y = (i * 91) % height;
+      int spin = i % 3 == 0 ? 250 : 0;
+      builder.addMotion("S" + i, 0, x, y, 10 + i % 90, 10 + i % 70, 0, i % 256, 128, 64,
+              TICKS, width - x, height - y, 10 + (i * 7) % 90, 10 + (i * 3) % 70, spin,
+              255 - i % 256, 64, 128);
+    }
+    IAnimationModel model = builder.build();
+    System.out.printf("%,d shapes on %dx%d, %d available processors%n", numShapes, width,
+            height, cores);
+
+    Rasterizer rasterizer = new Rasterizer(width, height);
+    double elapsed = 0;
+    for (int i = 0; i < 3; i++) {
+      IPlaybackCursor cursor = model.cursor(0);
+      long start = System.nanoTime();
+      for (int tick = 0; tick < TICKS; tick++) {
+        rasterizer.clear(0xFFFFFF);
+        rasterizer.paint(cursor.advance());
+      }
+      elapsed = (System.nanoTime() - start) / 1e6 / TICKS;
+    }
+    System.out.printf("one thread: %.2f ms/frame%n", elapsed);
+
+    for (int tileSize : TILE_SIZES) {
+      for (int workers = 1; workers <= cores; workers++) {
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        TiledRenderer tiles = new TiledRenderer(new int[width * height], width, height,
+                tileSize, executor, workers);
+        System.out.printf("%dpx tiles, %d workers: %.2f ms/frame%n", tileSize, workers,
+                millis(model, tiles));
+        executor.shutdown();
+      }
+    }
+  }
+
+  // draws every frame a few times to warm up and returns the time per frame of the last run.
+  private static double millis(IAnimationModel model, TiledRenderer tiles) {
+    double elapsed = 0;
+    for (int i = 0; i < 3; i++) {
+      IPlaybackCursor cursor = model.cursor(0);
+      long start = System.nanoTime();
+      for (int tick = 0; tick < TICKS; tick++) {
+        FrameBuffer frame = cursor.advance();
+        tiles.render(frame);
+      }
+      elapsed = (System.nanoTime() - start) / 1e6 / TICKS;
+    }
+    return elapsed;
+  }
+}
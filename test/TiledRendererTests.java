@@ -0,0 +1,96 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import cs3500.animator.model.AnimationModel;
+import cs3500.animator.model.FrameBuffer;
+import cs3500.animator.view.Rasterizer;
+import cs3500.animator.view.TiledRenderer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Represents the tester class for the TiledRenderer class, checking that drawing in tiles on
+ * several workers gives exactly the frame drawn in order on one thread.
+ */
+public class TiledRendererTests {
+  private static final int WIDTH = 150;
+  private static final int HEIGHT = 110;
+
+  private ExecutorService executor;
+  private FrameBuffer frame;
+
+  @Before
+  public void setUp() {
+    this.executor = Executors.newFixedThreadPool(3);
+    AnimationModel.AnimationModelBuilder builder = new AnimationModel.AnimationModelBuilder();
+    builder.setBounds(0, 0, WIDTH, HEIGHT);
+    // overlapping shapes of every kind, many of them crossing the edges of tiles or of the image.
+    for (int i = 0; i < 60; i++) {
+      builder.declareShape("S" + i, i % 2 == 0 ? "Rectangle" : "Ellipse");
+      builder.addMotion("S" + i, 1, (i * 37) % 180 - 20, (i * 23) % 140 - 20,
+              5 + (i * 11) % 60, 5 + (i * 7) % 45, (i * 29) % 360, i * 4, 255 - i * 4, i,
+              2, 0, 0, 10, 10, 0, 0, 0, 0);
+    }
+    this.frame = builder.build().cursor(1).advance();
+  }
+
+  @After
+  public void tearDown() {
+    this.executor.shutdown();
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testNullExecutor() {
+    new TiledRenderer(new int[WIDTH * HEIGHT], WIDTH, HEIGHT, 32, null, 2);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testBadTileSize() {
+    new TiledRenderer(new int[WIDTH * HEIGHT], WIDTH, HEIGHT, 0, this.executor, 2);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testNoWorkers() {
+    new TiledRenderer(new int[WIDTH * HEIGHT], WIDTH, HEIGHT, 32, this.executor, 0);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testTooFewPixels() {
+    new TiledRenderer(new int[10], WIDTH, HEIGHT, 32, this.executor, 2);
+  }
+
+  @Test
+  public void testMatchesOneThread() {
+    for (int tileSize : new int[]{1, 7, 32, 64, 500}) {
+      for (boolean antialiased : new boolean[]{false, true}) {
+        Rasterizer rasterizer = new Rasterizer(WIDTH, HEIGHT);
+        rasterizer.setAntialiased(antialiased);
+        rasterizer.paint(this.frame);
+        TiledRenderer tiles = new TiledRenderer(new int[WIDTH * HEIGHT], WIDTH, HEIGHT,
+                tileSize, this.executor, 3);
+        tiles.setAntialiased(antialiased);
+        tiles.render(this.frame);
+        assertArrayEquals(tileSize + " " + antialiased, rasterizer.getPixels(),
+                tiles.getPixels());
+      }
+    }
+  }
+
+  @Test
+  public void testClearsEveryFrame() {
+    int[] pixels = new int[WIDTH * HEIGHT];
+    TiledRenderer tiles = new TiledRenderer(pixels, WIDTH, HEIGHT, 16, this.executor, 2);
+    tiles.render(this.frame);
+    AnimationModel.AnimationModelBuilder builder = new AnimationModel.AnimationModelBuilder();
+    builder.setBounds(0, 0, WIDTH, HEIGHT);
+    tiles.render(builder.build().cursor(0).advance());
+    for (int pixel : pixels) {
+      assertEquals(0xFFFFFFFF, pixel);
+    }
+  }
+}